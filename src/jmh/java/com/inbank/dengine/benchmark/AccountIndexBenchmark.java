@@ -0,0 +1,85 @@
+package com.inbank.dengine.benchmark;
+
+import com.inbank.dengine.account.model.Account;
+import com.inbank.dengine.account.store.CompactAccountIndex;
+import com.inbank.dengine.account.util.PersonalCodes;
+import org.openjdk.jmh.annotations.*;
+import java.lang.management.ManagementFactory;
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * memory footprint and lookup speed of the compact account index against the HashMap<String, Account> it replaced.
+ * the footprint is printed in the setup of every fork, e.g.
+ *   footprint compact-index 10000000 accounts : 285.2 MB, 29.9 bytes per account
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+@State(Scope.Benchmark)
+public class AccountIndexBenchmark {
+
+    private static final long FIRST_PERSONAL_CODE = 30000000000L;
+    private static final int LOOKUPS = 4096;
+
+    @Param({"1000000", "10000000"})
+    public int accounts;
+
+    @Param({"hash-map", "compact-index"})
+    public String structure;
+
+    private Map<String, Account> hashMap;
+    private CompactAccountIndex compactIndex;
+    private String[] personalCodes;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        long before = usedHeap();
+        if (structure.equals("hash-map")) {
+            hashMap = new HashMap<>();
+            for (int i = 0; i < accounts; i++) {
+                String personalCode = PersonalCodes.format(FIRST_PERSONAL_CODE + i * 7L);
+                hashMap.put(personalCode, Account.builder().personalCode(personalCode).isDebt(i % 10 == 0).creditModifier(BigDecimal.valueOf(i % 1000 + 1)).build());
+            }
+        } else {
+            CompactAccountIndex.Builder builder = CompactAccountIndex.builder(accounts);
+            for (int i = 0; i < accounts; i++) {
+                builder.add(FIRST_PERSONAL_CODE + i * 7L, i % 10 == 0, i % 1000 + 1, 0);
+            }
+            compactIndex = builder.build();
+        }
+        long footprint = usedHeap() - before;
+        System.out.printf("footprint %s %d accounts : %.1f MB, %.1f bytes per account%n",
+                structure, accounts, footprint / 1024.0 / 1024.0, (double) footprint / accounts);
+
+        SplittableRandom random = new SplittableRandom(42);
+        personalCodes = new String[LOOKUPS];
+        for (int i = 0; i < LOOKUPS; i++) {
+            personalCodes[i] = PersonalCodes.format(FIRST_PERSONAL_CODE + random.nextInt(accounts) * 7L);
+        }
+    }
+
+    // lookups start from the personal code string, as AccountService receives it
+    @Benchmark
+    public Account lookup() {
+        String personalCode = personalCodes[next++ & (LOOKUPS - 1)];
+        if (hashMap != null) {
+            return hashMap.get(personalCode);
+        }
+        int slot = compactIndex.slotOf(PersonalCodes.parse(personalCode));
+        return slot < 0 ? null : compactIndex.toAccount(slot, personalCode);
+    }
+
+    private static long usedHeap() {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+}
@@ -0,0 +1,70 @@
+package com.inbank.dengine.benchmark;
+
+import com.inbank.dengine.config.user.AppUserDetailsService;
+import com.inbank.dengine.config.util.JwtUtil;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * requests per second through a real tomcat with few worker threads and a slow account backend.
+ * the blocking endpoint is capped at threads / latency, the async one releases the worker during the lookup.
+ * run with : -Djmh.args="AsyncLoanDecisionBenchmark"
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(1)
+@Threads(200)
+@State(Scope.Benchmark)
+public class AsyncLoanDecisionBenchmark {
+
+    @Param({"/api/decisions/loans", "/api/decisions/loans/async"})
+    public String endpoint;
+
+    @Param({"200ms"})
+    public String accountLatency;
+
+    @Param({"20"})
+    public int tomcatThreads;
+
+    private ConfigurableApplicationContext context;
+    private HttpClient httpClient;
+    private HttpRequest request;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start(
+                "--account.store.simulated-latency=" + accountLatency,
+                "--server.tomcat.threads.max=" + tomcatThreads,
+                "--server.tomcat.threads.min-spare=" + tomcatThreads);
+        int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+        String token = context.getBean(JwtUtil.class).generateToken(context.getBean(AppUserDetailsService.class).loadUserByUsername("test-user"));
+        httpClient = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + endpoint + "?personalCode=49002010976&loanAmount=2000&loanPeriod=20"))
+                .header("Authorization", "Bearer " + token)
+                .GET()
+                .build();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public int getLoanDecision() throws IOException, InterruptedException {
+        HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("Unexpected status " + response.statusCode() + " : " + response.body());
+        }
+        return response.body().length();
+    }
+}
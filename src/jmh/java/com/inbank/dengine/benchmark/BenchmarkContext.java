@@ -0,0 +1,24 @@
+package com.inbank.dengine.benchmark;
+
+import com.inbank.dengine.DengineApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import java.util.Arrays;
+import java.util.stream.Stream;
+
+public class BenchmarkContext {
+
+    private static final String[] DEFAULT_ARGS = {
+            "--server.port=0",
+            "--spring.main.banner-mode=off",
+            "--logging.level.root=WARN"
+    };
+
+    private BenchmarkContext() {}
+
+    // boots the real application so benchmarks measure the same wiring as production
+    public static ConfigurableApplicationContext start(String... args) {
+        String[] allArgs = Stream.concat(Arrays.stream(DEFAULT_ARGS), Arrays.stream(args)).toArray(String[]::new);
+        return new SpringApplicationBuilder(DengineApplication.class).run(allArgs);
+    }
+}
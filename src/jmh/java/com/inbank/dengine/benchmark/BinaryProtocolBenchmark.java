@@ -0,0 +1,133 @@
+package com.inbank.dengine.benchmark;
+
+import com.inbank.dengine.config.user.AppUserDetails;
+import com.inbank.dengine.config.util.JwtUtil;
+import com.inbank.dengine.decision.loan.binary.BinaryDecisionProtocol;
+import com.inbank.dengine.decision.loan.binary.BinaryDecisionServer;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.Socket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// one approved decision per operation over http/json with a jwt per request, and over the binary protocol on one connection
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BinaryProtocolBenchmark {
+
+    private static final int PIPELINE_DEPTH = 64;
+
+    private ConfigurableApplicationContext context;
+    private HttpClient httpClient;
+    private HttpRequest httpRequest;
+    private Socket socket;
+    private DataInputStream input;
+    private DataOutputStream output;
+    private byte[] decisionFrame;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        context = BenchmarkContext.start("--decision.binary.enabled=true", "--decision.binary.port=0", "--audit.journal.enabled=false");
+        String token = context.getBean(JwtUtil.class).generateToken(
+                new AppUserDetails("test-user", "test@123", List.of(new SimpleGrantedAuthority("ROLE_USER"))));
+
+        int httpPort = ((WebServerApplicationContext) context).getWebServer().getPort();
+        httpClient = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        httpRequest = HttpRequest.newBuilder(URI.create("http://localhost:" + httpPort + "/api/decisions/loans?personalCode=49002010976&loanAmount=2000&loanPeriod=20"))
+                .header("Authorization", "Bearer " + token)
+                .GET()
+                .build();
+
+        socket = new Socket("localhost", context.getBean(BinaryDecisionServer.class).getPort());
+        socket.setTcpNoDelay(true);
+        input = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+        output = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+        writeFrame(frame -> {
+            frame.writeByte(BinaryDecisionProtocol.AUTH);
+            frame.writeUTF(token);
+        });
+        output.flush();
+        if (readFrame() != BinaryDecisionProtocol.AUTH_OK) {
+            throw new IllegalStateException("binary protocol authentication failed");
+        }
+        ByteArrayOutputStream frameBytes = new ByteArrayOutputStream();
+        DataOutputStream frame = new DataOutputStream(frameBytes);
+        frame.writeByte(BinaryDecisionProtocol.DECISION);
+        frame.writeInt(1);
+        frame.writeUTF("49002010976");
+        BinaryDecisionProtocol.writeDecimal(frame, BigDecimal.valueOf(2000));
+        frame.writeInt(20);
+        decisionFrame = frameBytes.toByteArray();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        socket.close();
+        context.close();
+    }
+
+    @Benchmark
+    public int http() throws IOException, InterruptedException {
+        return httpClient.send(httpRequest, HttpResponse.BodyHandlers.ofByteArray()).body().length;
+    }
+
+    // one request, waiting for its answer before the next one
+    @Benchmark
+    public byte binary() throws IOException {
+        output.writeInt(decisionFrame.length);
+        output.write(decisionFrame);
+        output.flush();
+        return readFrame();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(PIPELINE_DEPTH)
+    public byte binaryPipelined() throws IOException {
+        for (int i = 0; i < PIPELINE_DEPTH; i++) {
+            output.writeInt(decisionFrame.length);
+            output.write(decisionFrame);
+        }
+        output.flush();
+        byte type = 0;
+        for (int i = 0; i < PIPELINE_DEPTH; i++) {
+            type = readFrame();
+        }
+        return type;
+    }
+
+    private void writeFrame(FrameWriter writer) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        writer.write(new DataOutputStream(bytes));
+        output.writeInt(bytes.size());
+        bytes.writeTo(output);
+    }
+
+    // the type of the frame, the rest is skipped
+    private byte readFrame() throws IOException {
+        int length = input.readInt();
+        byte type = input.readByte();
+        input.skipNBytes(length - 1);
+        return type;
+    }
+
+    private interface FrameWriter {
+        void write(DataOutputStream frame) throws IOException;
+    }
+}
@@ -0,0 +1,46 @@
+package com.inbank.dengine.benchmark;
+
+import com.inbank.dengine.account.bureau.BureauAccountStore;
+import com.inbank.dengine.account.bureau.StubCreditBureauFactory;
+import com.inbank.dengine.account.model.Account;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * latency distribution of account lookups through the bureau store against stub bureaus with a heavy tail
+ * (20ms +-50%, 2% of the answers take 400ms). compare the p0.99 and p0.999 of the two hedging params.
+ * run with : -Djmh.args="BureauTailLatencyBenchmark"
+ */
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 10)
+@Fork(1)
+@Threads(16)
+@State(Scope.Benchmark)
+public class BureauTailLatencyBenchmark {
+
+    @Param({"false", "true"})
+    public boolean hedging;
+
+    @Param({"primary"})
+    public String fallback;
+
+    private BureauAccountStore store;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        StubCreditBureauFactory stubs = new StubCreditBureauFactory(Duration.ofMillis(20), Duration.ofMillis(400), 0.02, 0);
+        store = new BureauAccountStore(stubs, new SimpleMeterRegistry(), List.of("primary:1s", "secondary:1s"),
+                fallback, hedging, 0.95, Duration.ofMillis(50));
+    }
+
+    @Benchmark
+    public Optional<Account> findByPersonalCode() {
+        return store.findByPersonalCode("49002010976");
+    }
+}
@@ -0,0 +1,78 @@
+package com.inbank.dengine.benchmark;
+
+import com.inbank.dengine.config.user.AppUserDetails;
+import com.inbank.dengine.config.util.JwtUtil;
+import com.inbank.dengine.config.util.VerifiedTokenCache;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JwtBenchmark {
+
+    private ConfigurableApplicationContext context;
+    private JwtUtil jwtUtil;
+    private VerifiedTokenCache verifiedTokenCache;
+    private AppUserDetails userDetails;
+    private String token;
+    private String secret;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start();
+        jwtUtil = context.getBean(JwtUtil.class);
+        verifiedTokenCache = context.getBean(VerifiedTokenCache.class);
+        userDetails = new AppUserDetails("test-user", "test@123", Arrays.asList(new SimpleGrantedAuthority("ROLE_USER")));
+        token = jwtUtil.generateToken(userDetails);
+        secret = context.getEnvironment().getProperty("jwt.secret");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return jwtUtil.generateToken(userDetails);
+    }
+
+    // full verification, what JwtFilter pays for a token it sees for the first time
+    @Benchmark
+    public Boolean validateToken() {
+        return jwtUtil.validateToken(token, userDetails);
+    }
+
+    // what JwtFilter pays for a token it has already verified
+    @Benchmark
+    public Boolean validateCachedToken() {
+        return jwtUtil.validateVerifiedToken(verifiedTokenCache.getVerifiedToken(token), userDetails);
+    }
+
+    // baseline : a new parser and the string secret, decoded into a new key by jjwt on every call
+    @Benchmark
+    public String generateTokenWithSecretString() {
+        long now = System.currentTimeMillis();
+        return Jwts.builder()
+                .setSubject(userDetails.getUsername())
+                .setIssuedAt(new Date(now))
+                .setExpiration(new Date(now + JwtUtil.JWT_VALIDITY * 1000))
+                .signWith(SignatureAlgorithm.HS512, secret)
+                .compact();
+    }
+
+    @Benchmark
+    public Boolean validateTokenWithSecretString() {
+        return jwtUtil.validateClaims(Jwts.parser().setSigningKey(secret).parseClaimsJws(token).getBody(), userDetails);
+    }
+}
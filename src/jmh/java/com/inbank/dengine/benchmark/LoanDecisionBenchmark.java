@@ -0,0 +1,123 @@
+package com.inbank.dengine.benchmark;
+
+import com.inbank.dengine.decision.loan.dto.LoanDecisionRequestDTO;
+import com.inbank.dengine.decision.loan.dto.LoanDecisionResponseDTO;
+import com.inbank.dengine.decision.loan.service.LoanDecisionService;
+import com.inbank.dengine.exception.exceptionType.BadClientException;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class LoanDecisionBenchmark {
+
+    private ConfigurableApplicationContext context;
+    private LoanDecisionService loanDecisionService;
+
+    // one request per branch of the decision, based on the in memory accounts
+    private final LoanDecisionRequestDTO approved = request("49002010976", 2000, 20);
+    private final LoanDecisionRequestDTO debt = request("49002010965", 7000, 15);
+    private final LoanDecisionRequestDTO suggestedAmount = request("49002010976", 4000, 30);
+    private final LoanDecisionRequestDTO suggestedPeriod = request("49002010976", 3000, 15);
+    private final LoanDecisionRequestDTO maximumPeriodFallback = request("49002010976", 7000, 15);
+    private final LoanDecisionRequestDTO rejected = request("49002010999", 7000, 15);
+
+    private final LoanDecisionRequestDTO lessThanMinimumAmount = request("49002010976", 1999, 20);
+    private final LoanDecisionRequestDTO higherThanMaximumAmount = request("49002010976", 10001, 20);
+    private final LoanDecisionRequestDTO lessThanMinimumPeriod = request("49002010976", 3000, 11);
+    private final LoanDecisionRequestDTO moreThanMaximumPeriod = request("49002010976", 3000, 61);
+
+    @Param({
+            "--decision.engine=big-decimal --decision.cache.enabled=false",
+            "--decision.engine=fixed-point --decision.cache.enabled=false",
+            "--decision.engine=big-decimal --decision.cache.enabled=true",
+            // same as the fixed point run without the dengine.* meters, shows the metrics overhead
+            "--decision.engine=fixed-point --decision.cache.enabled=false --management.metrics.enable.dengine=false",
+            // same as the cached run without the audit journal, shows the audit overhead
+            "--decision.engine=big-decimal --decision.cache.enabled=true --audit.journal.enabled=false"
+    })
+    public String applicationArgs;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start(applicationArgs.isEmpty() ? new String[0] : applicationArgs.split(" "));
+        loanDecisionService = context.getBean(LoanDecisionService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public LoanDecisionResponseDTO approved() {
+        return loanDecisionService.getLoanDecision(approved);
+    }
+
+    @Benchmark
+    public LoanDecisionResponseDTO debt() {
+        return loanDecisionService.getLoanDecision(debt);
+    }
+
+    @Benchmark
+    public LoanDecisionResponseDTO suggestedAmount() {
+        return loanDecisionService.getLoanDecision(suggestedAmount);
+    }
+
+    @Benchmark
+    public LoanDecisionResponseDTO suggestedPeriod() {
+        return loanDecisionService.getLoanDecision(suggestedPeriod);
+    }
+
+    @Benchmark
+    public LoanDecisionResponseDTO maximumPeriodFallback() {
+        return loanDecisionService.getLoanDecision(maximumPeriodFallback);
+    }
+
+    @Benchmark
+    public LoanDecisionResponseDTO rejected() {
+        return loanDecisionService.getLoanDecision(rejected);
+    }
+
+    @Benchmark
+    public Object lessThanMinimumAmount() {
+        return rejectedByValidation(lessThanMinimumAmount);
+    }
+
+    @Benchmark
+    public Object higherThanMaximumAmount() {
+        return rejectedByValidation(higherThanMaximumAmount);
+    }
+
+    @Benchmark
+    public Object lessThanMinimumPeriod() {
+        return rejectedByValidation(lessThanMinimumPeriod);
+    }
+
+    @Benchmark
+    public Object moreThanMaximumPeriod() {
+        return rejectedByValidation(moreThanMaximumPeriod);
+    }
+
+    private Object rejectedByValidation(LoanDecisionRequestDTO loanDecisionRequestDTO) {
+        try {
+            return loanDecisionService.getLoanDecision(loanDecisionRequestDTO);
+        } catch (BadClientException e) {
+            return e;
+        }
+    }
+
+    private static LoanDecisionRequestDTO request(String personalCode, long loanAmount, int loanPeriod) {
+        return LoanDecisionRequestDTO.builder()
+                .personalCode(personalCode)
+                .loanAmount(BigDecimal.valueOf(loanAmount))
+                .loanPeriod(loanPeriod)
+                .build();
+    }
+}
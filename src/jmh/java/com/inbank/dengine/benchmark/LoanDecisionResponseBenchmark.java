@@ -0,0 +1,51 @@
+package com.inbank.dengine.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.inbank.dengine.decision.loan.controller.LoanDecisionResponseConverter;
+import com.inbank.dengine.decision.loan.dto.LoanDecisionResponseDTO;
+import com.inbank.dengine.decision.loan.model.LoanDecision;
+import com.inbank.dengine.decision.loan.model.LoanDecisionOutcome;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+// serialization of one decision response into a reused buffer, what the response body costs on top of the decision
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class LoanDecisionResponseBenchmark {
+
+    private final LoanDecision suggestedPeriod = new LoanDecision(LoanDecisionOutcome.SUGGESTED_PERIOD, BigDecimal.valueOf(3000), 30);
+    private final ByteArrayOutputStream body = new ByteArrayOutputStream(256);
+    private ObjectWriter jacksonWriter;
+    private LoanDecisionResponseConverter converter;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        jacksonWriter = objectMapper.writerFor(LoanDecisionResponseDTO.class);
+        converter = new LoanDecisionResponseConverter(objectMapper);
+    }
+
+    // the response dto is built per request in both cases, as LoanDecisionService does
+    @Benchmark
+    public int jackson() throws IOException {
+        body.reset();
+        jacksonWriter.writeValue(body, suggestedPeriod.toResponseDTO("built-in"));
+        return body.size();
+    }
+
+    @Benchmark
+    public int preEncoded() throws IOException {
+        body.reset();
+        converter.write(suggestedPeriod.toResponseDTO("built-in"), body);
+        return body.size();
+    }
+}
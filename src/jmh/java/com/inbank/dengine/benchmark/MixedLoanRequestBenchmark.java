@@ -0,0 +1,82 @@
+package com.inbank.dengine.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * the GET endpoint through the dispatcher servlet, error handling included (no security filters).
+ * mixed alternates valid and out of range requests, like the production traffic.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MixedLoanRequestBenchmark {
+
+    private static final MockHttpServletRequestBuilder[] REQUESTS = {
+            request("49002010976", 2000, 20),
+            request("49002010976", 1999, 20),
+            request("49002010976", 4000, 30),
+            request("49002010976", 10001, 20),
+            request("49002010976", 3000, 15),
+            request("49002010976", 3000, 11),
+            request("49002010999", 7000, 15),
+            request("49002010976", 3000, 61)
+    };
+
+    // the second run turns the dengine.* meters off to show the metrics overhead on a whole request
+    @Param({"", "--management.metrics.enable.dengine=false"})
+    public String applicationArgs;
+
+    private ConfigurableApplicationContext context;
+    private MockMvc mockMvc;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start(applicationArgs.isEmpty() ? new String[0] : applicationArgs.split(" "));
+        mockMvc = MockMvcBuilders.webAppContextSetup((WebApplicationContext) context).build();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public int valid() throws Exception {
+        return perform(REQUESTS[0]);
+    }
+
+    @Benchmark
+    public int invalid() throws Exception {
+        return perform(REQUESTS[1]);
+    }
+
+    @Benchmark
+    public int mixed() throws Exception {
+        next = (next + 1) & (REQUESTS.length - 1);
+        return perform(REQUESTS[next]);
+    }
+
+    private int perform(MockHttpServletRequestBuilder request) throws Exception {
+        MvcResult result = mockMvc.perform(request).andReturn();
+        return result.getResponse().getStatus();
+    }
+
+    private static MockHttpServletRequestBuilder request(String personalCode, int loanAmount, int loanPeriod) {
+        return MockMvcRequestBuilders.get("/api/decisions/loans")
+                .param("personalCode", personalCode)
+                .param("loanAmount", String.valueOf(loanAmount))
+                .param("loanPeriod", String.valueOf(loanPeriod));
+    }
+}
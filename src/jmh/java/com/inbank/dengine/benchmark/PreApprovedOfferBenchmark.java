@@ -0,0 +1,74 @@
+package com.inbank.dengine.benchmark;
+
+import com.inbank.dengine.account.model.Account;
+import com.inbank.dengine.account.service.AccountService;
+import com.inbank.dengine.account.store.AccountScan;
+import com.inbank.dengine.account.store.AccountStore;
+import com.inbank.dengine.account.store.CompactAccountIndex;
+import com.inbank.dengine.decision.loan.dto.PreApprovedOfferReportDTO;
+import com.inbank.dengine.decision.loan.policy.LoanPolicyHolder;
+import com.inbank.dengine.decision.loan.service.PreApprovedOfferService;
+import org.openjdk.jmh.annotations.*;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * full rebuild of the pre-approved offers over a synthetic account book. the report of the last rebuild of every fork is printed, e.g.
+ *   rebuild 10000000 accounts : PreApprovedOfferReportDTO(accounts=10000000, offers=..., durationMillis=...)
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+@State(Scope.Benchmark)
+public class PreApprovedOfferBenchmark {
+
+    private static final long FIRST_PERSONAL_CODE = 30000000000L;
+
+    @Param({"10000000"})
+    public int accounts;
+
+    @Param({"65536"})
+    public int partitionSize;
+
+    private PreApprovedOfferService preApprovedOfferService;
+    private PreApprovedOfferReportDTO report;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        // one account in ten has debt, modifiers from 0.01 to 400.00 so that every kind of offer shows up
+        SplittableRandom random = new SplittableRandom(42);
+        CompactAccountIndex.Builder builder = CompactAccountIndex.builder(accounts);
+        for (int i = 0; i < accounts; i++) {
+            builder.add(FIRST_PERSONAL_CODE + i * 7L, random.nextInt(10) == 0, random.nextLong(1, 40_001), 2);
+        }
+        CompactAccountIndex index = builder.build();
+        AccountService accountService = new AccountService(new AccountStore() {
+            @Override
+            public Optional<Account> findByPersonalCode(String personalCode) {
+                return Optional.empty();
+            }
+
+            @Override
+            public Optional<AccountScan> scan() {
+                return Optional.of(index);
+            }
+        }, Duration.ZERO);
+        preApprovedOfferService = new PreApprovedOfferService(accountService, new LoanPolicyHolder(Path.of("missing-loan-policy.properties")), partitionSize, false);
+    }
+
+    @TearDown(Level.Trial)
+    public void printReport() {
+        System.out.printf("rebuild %d accounts : %s%n", accounts, report);
+    }
+
+    @Benchmark
+    public PreApprovedOfferReportDTO rebuild() {
+        report = preApprovedOfferService.rebuild();
+        return report;
+    }
+}
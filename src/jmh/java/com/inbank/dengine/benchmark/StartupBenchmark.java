@@ -0,0 +1,42 @@
+package com.inbank.dengine.benchmark;
+
+import com.inbank.dengine.decision.loan.dto.LoanDecisionRequestDTO;
+import com.inbank.dengine.decision.loan.service.LoanDecisionService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * time from starting the spring application to its first decision, once per fork. the fork's jvm is already running when
+ * the clock starts, so jvm boot and a class data sharing archive are not part of it : this compares the spring side of
+ * startup with and without the fast-startup profile. README "Fast Startup" measures a whole jvm with the archive.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+@Fork(5)
+@State(Scope.Benchmark)
+public class StartupBenchmark {
+
+    @Param({"", "--spring.profiles.active=fast-startup"})
+    public String applicationArgs;
+
+    private ConfigurableApplicationContext context;
+
+    @TearDown(Level.Iteration)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Object firstDecision() {
+        context = BenchmarkContext.start(applicationArgs.isEmpty() ? new String[0] : applicationArgs.split(" "));
+        return context.getBean(LoanDecisionService.class).getLoanDecisionResult(LoanDecisionRequestDTO.builder()
+                .personalCode("49002010976")
+                .loanAmount(BigDecimal.valueOf(2000))
+                .loanPeriod(20)
+                .build());
+    }
+}
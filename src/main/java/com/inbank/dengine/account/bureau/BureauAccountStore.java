@@ -0,0 +1,232 @@
+package com.inbank.dengine.account.bureau;
+
+import com.inbank.dengine.account.model.Account;
+import com.inbank.dengine.account.store.AccountStore;
+import com.inbank.dengine.exception.exceptionType.ServerException;
+import com.inbank.dengine.util.GlobalConstant;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.stereotype.Component;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/*
+ * account data from external credit bureaus (account.bureau.sources=name:timeout,...), all of them queried at once.
+ * a bureau that has not answered after the hedge delay (a percentile of its own recent latencies) gets a second request,
+ * the first of the two answers wins, a failed request only fails the bureau once the other one has failed too.
+ * a bureau that has not answered within its timeout counts as failed.
+ * the fallback policy combines the answers, when no bureau could answer the lookup fails instead of reporting a missing account.
+ * losing requests are not cancelled, bureau clients have no way to abort a request already sent.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "account.store", havingValue = "bureau")
+public class BureauAccountStore implements AccountStore {
+
+    public static final String REQUESTS = "dengine.bureau.requests";
+    public static final String HEDGES = "dengine.bureau.hedges";
+    public static final String FALLBACKS = "dengine.bureau.fallbacks";
+
+    private final List<Source> sources;
+    private final FallbackPolicy fallbackPolicy;
+    private final boolean hedging;
+    private final Counter fallbacks;
+
+    public BureauAccountStore(CreditBureauFactory creditBureauFactory,
+                              MeterRegistry meterRegistry,
+                              @Value("${account.bureau.sources:primary:300ms,secondary:300ms}") List<String> sources,
+                              @Value("${account.bureau.fallback:primary}") String fallbackPolicy,
+                              @Value("${account.bureau.hedge.enabled:true}") boolean hedging,
+                              @Value("${account.bureau.hedge.percentile:0.95}") double hedgePercentile,
+                              @Value("${account.bureau.hedge.initial-delay:50ms}") Duration initialHedgeDelay) {
+        if (sources.isEmpty()) {
+            throw new IllegalArgumentException("No credit bureau in account.bureau.sources");
+        }
+        this.sources = new ArrayList<>(sources.size());
+        for (String source : sources) {
+            int separator = source.lastIndexOf(':');
+            if (separator <= 0) {
+                throw new IllegalArgumentException("Credit bureau source must be name:timeout : " + source);
+            }
+            String name = source.substring(0, separator).trim();
+            Duration timeout = DurationStyle.detectAndParse(source.substring(separator + 1).trim());
+            this.sources.add(new Source(creditBureauFactory.create(name), timeout,
+                    new HedgeDelay(hedgePercentile, initialHedgeDelay.toNanos()), meterRegistry));
+        }
+        this.fallbackPolicy = FallbackPolicy.valueOf(fallbackPolicy.trim().toUpperCase(Locale.ROOT));
+        this.hedging = hedging;
+        this.fallbacks = Counter.builder(FALLBACKS)
+                .description("Account lookups answered by another bureau than the primary one")
+                .register(meterRegistry);
+        log.info("credit bureaus {}, fallback {}, hedging {}", sources, this.fallbackPolicy, hedging);
+    }
+
+    @Override
+    public Optional<Account> findByPersonalCode(String personalCode) {
+        try {
+            return findByPersonalCodeAsync(personalCode).join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+        }
+    }
+
+    @Override
+    public CompletableFuture<Optional<Account>> findByPersonalCodeAsync(String personalCode) {
+        List<CompletableFuture<Optional<Account>>> answers = new ArrayList<>(sources.size());
+        for (Source source : sources) {
+            answers.add(query(source, personalCode));
+        }
+        if (fallbackPolicy == FallbackPolicy.FIRST) {
+            return firstFound(answers);
+        }
+        CompletableFuture<Optional<Account>> fallback = firstFound(answers.subList(1, answers.size()));
+        return answers.get(0).handle((account, error) -> {
+            if (error == null) {
+                return CompletableFuture.completedFuture(account);
+            }
+            fallbacks.increment();
+            return fallback;
+        }).thenCompose(answer -> answer);
+    }
+
+    private CompletableFuture<Optional<Account>> query(Source source, String personalCode) {
+        CompletableFuture<Optional<Account>> answer = new CompletableFuture<>();
+        // requests sent and not failed yet, the hedge is only sent while the first request may still answer
+        AtomicInteger attempts = new AtomicInteger(1);
+        send(source, personalCode, answer, attempts, false);
+        if (hedging) {
+            CompletableFuture.delayedExecutor(source.hedgeDelay.getDelayNanos(), TimeUnit.NANOSECONDS).execute(() -> {
+                if (!answer.isDone() && addAttempt(attempts)) {
+                    source.hedgesSent.increment();
+                    send(source, personalCode, answer, attempts, true);
+                }
+            });
+        }
+        return answer.orTimeout(source.timeout.toNanos(), TimeUnit.NANOSECONDS).whenComplete((account, error) -> {
+            if (error == null) {
+                (account.isPresent() ? source.found : source.notFound).increment();
+            } else {
+                (error instanceof TimeoutException ? source.timeouts : source.errors).increment();
+            }
+        });
+    }
+
+    private static boolean addAttempt(AtomicInteger attempts) {
+        while (true) {
+            int current = attempts.get();
+            if (current == 0) {
+                return false;
+            }
+            if (attempts.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    private static void send(Source source, String personalCode, CompletableFuture<Optional<Account>> answer, AtomicInteger attempts, boolean hedged) {
+        long start = System.nanoTime();
+        CompletableFuture<Optional<Account>> request;
+        try {
+            request = source.bureau.findByPersonalCode(personalCode);
+        } catch (RuntimeException e) {
+            request = CompletableFuture.failedFuture(e);
+        }
+        request.whenComplete((account, error) -> {
+            if (error != null) {
+                // the other request may still bring the account, the last failure fails the bureau
+                if (attempts.decrementAndGet() == 0) {
+                    answer.completeExceptionally(error);
+                }
+                return;
+            }
+            // late answers are recorded too, the hedge delay has to follow the real latency of the bureau
+            source.hedgeDelay.record(System.nanoTime() - start);
+            // counted before completing so it is visible once the lookup returns, two answers arriving together may both count
+            if (hedged && !answer.isDone()) {
+                source.hedgesWon.increment();
+            }
+            answer.complete(account);
+        });
+    }
+
+    // the first account found, otherwise empty once every bureau answered, or a failure when one of them could not answer
+    private static CompletableFuture<Optional<Account>> firstFound(List<CompletableFuture<Optional<Account>>> answers) {
+        CompletableFuture<Optional<Account>> result = new CompletableFuture<>();
+        if (answers.isEmpty()) {
+            result.completeExceptionally(new ServerException(GlobalConstant.CreditBureauErrors.UNAVAILABLE));
+            return result;
+        }
+        AtomicInteger pending = new AtomicInteger(answers.size());
+        AtomicInteger failed = new AtomicInteger();
+        for (CompletableFuture<Optional<Account>> answer : answers) {
+            answer.whenComplete((account, error) -> {
+                if (error != null) {
+                    failed.incrementAndGet();
+                } else if (account.isPresent()) {
+                    result.complete(account);
+                }
+                if (pending.decrementAndGet() == 0) {
+                    if (failed.get() == 0) {
+                        result.complete(Optional.empty());
+                    } else {
+                        result.completeExceptionally(new ServerException(GlobalConstant.CreditBureauErrors.UNAVAILABLE));
+                    }
+                }
+            });
+        }
+        return result;
+    }
+
+    private static class Source {
+
+        private final CreditBureau bureau;
+        private final Duration timeout;
+        private final HedgeDelay hedgeDelay;
+        private final Counter found;
+        private final Counter notFound;
+        private final Counter timeouts;
+        private final Counter errors;
+        private final Counter hedgesSent;
+        private final Counter hedgesWon;
+
+        private Source(CreditBureau bureau, Duration timeout, HedgeDelay hedgeDelay, MeterRegistry meterRegistry) {
+            this.bureau = bureau;
+            this.timeout = timeout;
+            this.hedgeDelay = hedgeDelay;
+            this.found = requestCounter(meterRegistry, bureau.getName(), "found");
+            this.notFound = requestCounter(meterRegistry, bureau.getName(), "not_found");
+            this.timeouts = requestCounter(meterRegistry, bureau.getName(), "timeout");
+            this.errors = requestCounter(meterRegistry, bureau.getName(), "error");
+            this.hedgesSent = hedgeCounter(meterRegistry, bureau.getName(), "sent");
+            this.hedgesWon = hedgeCounter(meterRegistry, bureau.getName(), "won");
+        }
+
+        private static Counter requestCounter(MeterRegistry meterRegistry, String bureau, String result) {
+            return Counter.builder(REQUESTS)
+                    .description("Account lookups by credit bureau and result, a hedged lookup counts once")
+                    .tag("bureau", bureau)
+                    .tag("result", result)
+                    .register(meterRegistry);
+        }
+
+        private static Counter hedgeCounter(MeterRegistry meterRegistry, String bureau, String result) {
+            return Counter.builder(HEDGES)
+                    .description("Second requests sent to a credit bureau that was slower than its hedge delay")
+                    .tag("bureau", bureau)
+                    .tag("result", result)
+                    .register(meterRegistry);
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package com.inbank.dengine.account.bureau;
+
+import com.inbank.dengine.account.model.Account;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+// one external source of account data, the future is completed by the client of the bureau and may never complete
+public interface CreditBureau {
+
+    String getName();
+
+    CompletableFuture<Optional<Account>> findByPersonalCode(String personalCode);
+}
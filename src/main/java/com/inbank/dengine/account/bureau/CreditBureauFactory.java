@@ -0,0 +1,7 @@
+package com.inbank.dengine.account.bureau;
+
+// creates the client of each source listed in account.bureau.sources, selected with the account.bureau.client property
+public interface CreditBureauFactory {
+
+    CreditBureau create(String name);
+}
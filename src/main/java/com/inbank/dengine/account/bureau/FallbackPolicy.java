@@ -0,0 +1,9 @@
+package com.inbank.dengine.account.bureau;
+
+// how the answers of the bureaus are combined, all of them are queried at once either way
+public enum FallbackPolicy {
+    // the first source decides, the others are only used when it fails or times out
+    PRIMARY,
+    // the first source that finds the account decides
+    FIRST
+}
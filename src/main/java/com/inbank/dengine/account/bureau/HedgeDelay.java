@@ -0,0 +1,42 @@
+package com.inbank.dengine.account.bureau;
+
+import java.util.Arrays;
+
+/*
+ * delay after which a second request is sent to a bureau that has not answered yet : a percentile of its recent latencies.
+ * latencies are kept in a ring and the percentile is recomputed every RECOMPUTE_INTERVAL samples, reading the delay is a volatile read.
+ * the initial delay is used until the ring has enough samples.
+ */
+public class HedgeDelay {
+
+    static final int SAMPLES = 512;
+    static final int RECOMPUTE_INTERVAL = 64;
+
+    private final double percentile;
+    private final long[] latencies = new long[SAMPLES];
+    private long recorded;
+    private volatile long delayNanos;
+
+    public HedgeDelay(double percentile, long initialDelayNanos) {
+        if (percentile <= 0 || percentile > 1) {
+            throw new IllegalArgumentException("Hedge percentile must be in (0, 1] : " + percentile);
+        }
+        this.percentile = percentile;
+        this.delayNanos = initialDelayNanos;
+    }
+
+    public long getDelayNanos() {
+        return delayNanos;
+    }
+
+    public synchronized void record(long latencyNanos) {
+        latencies[(int) (recorded % SAMPLES)] = latencyNanos;
+        recorded++;
+        if (recorded % RECOMPUTE_INTERVAL == 0) {
+            int count = (int) Math.min(recorded, SAMPLES);
+            long[] sorted = Arrays.copyOf(latencies, count);
+            Arrays.sort(sorted);
+            delayNanos = sorted[Math.min(count - 1, (int) Math.ceil(percentile * count) - 1)];
+        }
+    }
+}
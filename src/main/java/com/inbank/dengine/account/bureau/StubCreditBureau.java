@@ -0,0 +1,62 @@
+package com.inbank.dengine.account.bureau;
+
+import com.inbank.dengine.account.model.Account;
+import com.inbank.dengine.account.store.CompactAccountIndex;
+import com.inbank.dengine.account.util.PersonalCodes;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * in process bureau answering from an account index after an injected latency, so tail latency can be measured locally.
+ * most answers take the latency +-50%, a tail share takes the tail latency and a failure share fails after the latency.
+ * answers are completed by a timer like a non-blocking client would, no thread waits for them.
+ */
+public class StubCreditBureau implements CreditBureau {
+
+    private final String name;
+    private final CompactAccountIndex accounts;
+    private final long latencyNanos;
+    private final long tailLatencyNanos;
+    private final double tailProbability;
+    private final double failureProbability;
+
+    public StubCreditBureau(String name, CompactAccountIndex accounts, Duration latency, Duration tailLatency,
+                            double tailProbability, double failureProbability) {
+        this.name = name;
+        this.accounts = accounts;
+        this.latencyNanos = latency.toNanos();
+        this.tailLatencyNanos = tailLatency.toNanos();
+        this.tailProbability = tailProbability;
+        this.failureProbability = failureProbability;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public CompletableFuture<Optional<Account>> findByPersonalCode(String personalCode) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long delay = random.nextDouble() < tailProbability ? tailLatencyNanos : latencyNanos / 2 + random.nextLong(latencyNanos + 1);
+        boolean failure = random.nextDouble() < failureProbability;
+        return CompletableFuture.supplyAsync(() -> {
+            if (failure) {
+                throw new IllegalStateException("Stub bureau " + name + " failed");
+            }
+            return lookup(personalCode);
+        }, CompletableFuture.delayedExecutor(delay, TimeUnit.NANOSECONDS));
+    }
+
+    private Optional<Account> lookup(String personalCode) {
+        long code = PersonalCodes.parse(personalCode);
+        if (code == PersonalCodes.INVALID) {
+            return Optional.empty();
+        }
+        int slot = accounts.slotOf(code);
+        return slot < 0 ? Optional.empty() : Optional.of(accounts.toAccount(slot, personalCode));
+    }
+}
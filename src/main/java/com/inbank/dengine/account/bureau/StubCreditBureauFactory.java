@@ -0,0 +1,41 @@
+package com.inbank.dengine.account.bureau;
+
+import com.inbank.dengine.account.model.Account;
+import com.inbank.dengine.account.store.CompactAccountIndex;
+import com.inbank.dengine.account.store.InMemoryAccountStore;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import java.time.Duration;
+import java.util.List;
+
+// every stub bureau answers with the demo accounts
+@Component
+@ConditionalOnProperty(name = "account.bureau.client", havingValue = "stub", matchIfMissing = true)
+public class StubCreditBureauFactory implements CreditBureauFactory {
+
+    private final CompactAccountIndex accounts;
+    private final Duration latency;
+    private final Duration tailLatency;
+    private final double tailProbability;
+    private final double failureProbability;
+
+    public StubCreditBureauFactory(@Value("${account.bureau.stub.latency:20ms}") Duration latency,
+                                   @Value("${account.bureau.stub.tail-latency:400ms}") Duration tailLatency,
+                                   @Value("${account.bureau.stub.tail-probability:0.02}") double tailProbability,
+                                   @Value("${account.bureau.stub.failure-probability:0}") double failureProbability) {
+        List<Account> demoAccounts = InMemoryAccountStore.demoAccounts();
+        CompactAccountIndex.Builder builder = CompactAccountIndex.builder(demoAccounts.size());
+        demoAccounts.forEach(builder::add);
+        this.accounts = builder.build();
+        this.latency = latency;
+        this.tailLatency = tailLatency;
+        this.tailProbability = tailProbability;
+        this.failureProbability = failureProbability;
+    }
+
+    @Override
+    public CreditBureau create(String name) {
+        return new StubCreditBureau(name, accounts, latency, tailLatency, tailProbability, failureProbability);
+    }
+}
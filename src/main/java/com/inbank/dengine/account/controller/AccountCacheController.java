@@ -0,0 +1,21 @@
+package com.inbank.dengine.account.controller;
+
+import com.inbank.dengine.account.dto.AccountCacheStatsDTO;
+import com.inbank.dengine.account.service.AccountService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@CrossOrigin
+@RestController
+@RequestMapping("api/accounts/cache")
+@RequiredArgsConstructor
+public class AccountCacheController {
+
+    private final AccountService accountService;
+
+    @GetMapping("/stats")
+    public ResponseEntity<AccountCacheStatsDTO> getAccountCacheStats () {
+        return ResponseEntity.ok().body(accountService.getAccountCacheStats());
+    }
+}
@@ -0,0 +1,24 @@
+package com.inbank.dengine.account.controller;
+
+import com.inbank.dengine.account.dto.AccountImportReportDTO;
+import com.inbank.dengine.account.service.AccountImportService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+@CrossOrigin
+@RestController
+@RequestMapping("api/accounts")
+@RequiredArgsConstructor
+public class AccountImportController {
+
+    private final AccountImportService accountImportService;
+
+    // reloads the configured export (account.import.path), the file can't be chosen by the caller
+    @PreAuthorize("hasRole('ADMIN')")
+    @PostMapping("/import")
+    public ResponseEntity<AccountImportReportDTO> importAccounts () {
+        return ResponseEntity.ok().body(accountImportService.importAccounts());
+    }
+}
@@ -0,0 +1,22 @@
+package com.inbank.dengine.account.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@Data
+public class AccountCacheStatsDTO {
+
+    private boolean enabled;
+    private long size;
+    // missing personal codes count as hits too, they are cached as negative entries
+    private long hitCount;
+    private long missCount;
+    private double hitRate;
+    private long loadFailureCount;
+    private long evictionCount;
+}
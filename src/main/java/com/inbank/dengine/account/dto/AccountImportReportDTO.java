@@ -0,0 +1,23 @@
+package com.inbank.dengine.account.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@Data
+public class AccountImportReportDTO {
+
+    private String path;
+    private long bytes;
+    private int chunks;
+    private long rows;
+    private int accounts;
+    private long parseMillis;
+    private long indexMillis;
+    private long durationMillis;
+    private long rowsPerSecond;
+}
@@ -0,0 +1,122 @@
+package com.inbank.dengine.account.importer;
+
+import com.inbank.dengine.account.util.PersonalCodes;
+import java.nio.ByteBuffer;
+
+/*
+ * parses "personalCode,isDebt,creditModifier" lines straight from the bytes of a mapped chunk, no String per line.
+ * isDebt is true/false or 1/0, creditModifier a plain decimal like 100 or 12.50.
+ * a chunk always starts at the beginning of a line; the first line of the file is a header when it doesn't start with a digit.
+ */
+public class AccountCsvParser {
+
+    // 18 digits always fit into a long
+    private static final int MAXIMUM_MODIFIER_DIGITS = 18;
+    // rough size of a line, used to presize the buffers
+    private static final int EXPECTED_LINE_LENGTH = 24;
+
+    private AccountCsvParser() {}
+
+    public static ParsedAccounts parse(ByteBuffer chunk, long chunkOffset) {
+        ParsedAccounts accounts = new ParsedAccounts(chunk.remaining() / EXPECTED_LINE_LENGTH);
+        int position = chunk.position();
+        int limit = chunk.limit();
+
+        while (position < limit) {
+            int lineStart = position;
+            byte first = chunk.get(position);
+            if (first == '\n' || first == '\r') {
+                position++;
+                continue;
+            }
+            if ((first < '0' || first > '9') && chunkOffset + lineStart == 0) {
+                position = skipLine(chunk, position, limit);
+                continue;
+            }
+
+            // personal code
+            long personalCode = 0;
+            int digits = 0;
+            byte current;
+            while (position < limit && (current = chunk.get(position)) >= '0' && current <= '9') {
+                personalCode = personalCode * 10 + (current - '0');
+                digits++;
+                position++;
+            }
+            if (digits != PersonalCodes.LENGTH) {
+                throw error("personal code is not 11 digits", chunkOffset + lineStart);
+            }
+            position = expect(chunk, position, limit, chunkOffset + lineStart);
+
+            // debt flag, only the first character decides
+            if (position >= limit) {
+                throw error("debt flag is missing", chunkOffset + lineStart);
+            }
+            boolean isDebt;
+            byte flag = chunk.get(position);
+            if (flag == 't' || flag == 'T' || flag == '1') {
+                isDebt = true;
+            } else if (flag == 'f' || flag == 'F' || flag == '0') {
+                isDebt = false;
+            } else {
+                throw error("debt flag is not true/false or 1/0", chunkOffset + lineStart);
+            }
+            while (position < limit && chunk.get(position) != ',') {
+                position++;
+            }
+            position = expect(chunk, position, limit, chunkOffset + lineStart);
+
+            // credit modifier
+            long creditModifier = 0;
+            int modifierDigits = 0;
+            int scale = -1;
+            while (position < limit) {
+                current = chunk.get(position);
+                if (current >= '0' && current <= '9') {
+                    creditModifier = creditModifier * 10 + (current - '0');
+                    modifierDigits++;
+                    if (scale >= 0) {
+                        scale++;
+                    }
+                } else if (current == '.' && scale < 0) {
+                    scale = 0;
+                } else {
+                    break;
+                }
+                position++;
+            }
+            if (modifierDigits == 0 || modifierDigits > MAXIMUM_MODIFIER_DIGITS) {
+                throw error("credit modifier is not a decimal of at most 18 digits", chunkOffset + lineStart);
+            }
+
+            if (position < limit && chunk.get(position) == '\r') {
+                position++;
+            }
+            if (position < limit && chunk.get(position) != '\n') {
+                throw error("unexpected content after credit modifier", chunkOffset + lineStart);
+            }
+            position++;
+
+            accounts.add(personalCode, isDebt, creditModifier, Math.max(scale, 0));
+        }
+        return accounts;
+    }
+
+    private static int expect(ByteBuffer chunk, int position, int limit, long lineOffset) {
+        if (position >= limit || chunk.get(position) != ',') {
+            throw error("',' expected", lineOffset);
+        }
+        return position + 1;
+    }
+
+    private static int skipLine(ByteBuffer chunk, int position, int limit) {
+        while (position < limit && chunk.get(position) != '\n') {
+            position++;
+        }
+        return position + 1;
+    }
+
+    private static IllegalArgumentException error(String message, long lineOffset) {
+        return new IllegalArgumentException("Invalid account line at byte " + lineOffset + " : " + message);
+    }
+}
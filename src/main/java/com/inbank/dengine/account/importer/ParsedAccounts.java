@@ -0,0 +1,56 @@
+package com.inbank.dengine.account.importer;
+
+import java.util.Arrays;
+
+// accounts of one parsed chunk, kept in growable primitive arrays until they are added to an index
+public class ParsedAccounts {
+
+    private long[] personalCodes;
+    private long[] creditModifiers;
+    private byte[] creditModifierScales;
+    private boolean[] debts;
+    private int size;
+
+    public ParsedAccounts(int expectedSize) {
+        int capacity = Math.max(16, expectedSize);
+        this.personalCodes = new long[capacity];
+        this.creditModifiers = new long[capacity];
+        this.creditModifierScales = new byte[capacity];
+        this.debts = new boolean[capacity];
+    }
+
+    public void add(long personalCode, boolean isDebt, long creditModifierUnscaled, int creditModifierScale) {
+        if (size == personalCodes.length) {
+            int capacity = size + (size >> 1);
+            personalCodes = Arrays.copyOf(personalCodes, capacity);
+            creditModifiers = Arrays.copyOf(creditModifiers, capacity);
+            creditModifierScales = Arrays.copyOf(creditModifierScales, capacity);
+            debts = Arrays.copyOf(debts, capacity);
+        }
+        personalCodes[size] = personalCode;
+        creditModifiers[size] = creditModifierUnscaled;
+        creditModifierScales[size] = (byte) creditModifierScale;
+        debts[size] = isDebt;
+        size++;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public long getPersonalCode(int row) {
+        return personalCodes[row];
+    }
+
+    public boolean isDebt(int row) {
+        return debts[row];
+    }
+
+    public long getCreditModifierUnscaled(int row) {
+        return creditModifiers[row];
+    }
+
+    public int getCreditModifierScale(int row) {
+        return creditModifierScales[row];
+    }
+}
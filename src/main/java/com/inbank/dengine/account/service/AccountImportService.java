@@ -0,0 +1,165 @@
+package com.inbank.dengine.account.service;
+
+import com.inbank.dengine.account.dto.AccountImportReportDTO;
+import com.inbank.dengine.account.importer.AccountCsvParser;
+import com.inbank.dengine.account.importer.ParsedAccounts;
+import com.inbank.dengine.account.store.CompactAccountIndex;
+import com.inbank.dengine.account.store.InMemoryAccountStore;
+import com.inbank.dengine.exception.exceptionType.ConflictException;
+import com.inbank.dengine.exception.exceptionType.ServerException;
+import com.inbank.dengine.util.GlobalConstant;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+
+/*
+ * loads the nightly credit modifier export into a new index next to the live one and swaps it in at the end,
+ * lookups keep using the previous index until then. chunks of the file are mapped and parsed in parallel.
+ */
+@Slf4j
+@Service
+public class AccountImportService {
+
+    private static final int LINE_SEARCH_BUFFER_SIZE = 4096;
+    private static final long MAXIMUM_CHUNK_SIZE = 1L << 30;
+
+    private final ObjectProvider<InMemoryAccountStore> inMemoryAccountStore;
+    private final AccountService accountService;
+    private final Path importPath;
+    private final long chunkSize;
+    private final boolean importOnStartup;
+    private final ReentrantLock importLock = new ReentrantLock();
+
+    public AccountImportService(ObjectProvider<InMemoryAccountStore> inMemoryAccountStore,
+                                AccountService accountService,
+                                @Value("${account.import.path:accounts.csv}") Path importPath,
+                                @Value("${account.import.chunk-size:67108864}") long chunkSize,
+                                @Value("${account.import.on-startup:false}") boolean importOnStartup) {
+        this.inMemoryAccountStore = inMemoryAccountStore;
+        this.accountService = accountService;
+        this.importPath = importPath;
+        this.chunkSize = Math.max(1, Math.min(chunkSize, MAXIMUM_CHUNK_SIZE));
+        this.importOnStartup = importOnStartup;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void importAccountsOnStartup() {
+        if (importOnStartup) {
+            importAccounts();
+        }
+    }
+
+    public AccountImportReportDTO importAccounts() {
+        return importAccounts(importPath);
+    }
+
+    public AccountImportReportDTO importAccounts(Path path) {
+        InMemoryAccountStore store = inMemoryAccountStore.getIfAvailable();
+        if (store == null) {
+            throw new ServerException(GlobalConstant.AccountImportErrors.STORE_NOT_SUPPORTED);
+        }
+        if (!importLock.tryLock()) {
+            throw new ConflictException(GlobalConstant.AccountImportErrors.IMPORT_RUNNING);
+        }
+        try {
+            long start = System.nanoTime();
+            List<ParsedAccounts> parsedChunks;
+            long bytes;
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+                bytes = channel.size();
+                List<long[]> chunks = split(channel, bytes);
+                parsedChunks = chunks.parallelStream()
+                        .map(chunk -> parse(channel, chunk[0], chunk[1]))
+                        .collect(Collectors.toList());
+            } catch (IOException | UncheckedIOException | IllegalArgumentException e) {
+                // the live index is untouched when the file can't be read
+                throw new ServerException(GlobalConstant.AccountImportErrors.IMPORT_FAILED + e.getMessage());
+            }
+            long parsed = System.nanoTime();
+
+            long rows = parsedChunks.stream().mapToLong(ParsedAccounts::size).sum();
+            CompactAccountIndex.Builder builder = CompactAccountIndex.builder((int) Math.min(rows, Integer.MAX_VALUE));
+            try {
+                // chunks are added in file order, so a personal code given twice keeps its last line
+                for (ParsedAccounts accounts : parsedChunks) {
+                    for (int row = 0; row < accounts.size(); row++) {
+                        builder.add(accounts.getPersonalCode(row), accounts.isDebt(row), accounts.getCreditModifierUnscaled(row), accounts.getCreditModifierScale(row));
+                    }
+                }
+            } catch (IllegalArgumentException e) {
+                throw new ServerException(GlobalConstant.AccountImportErrors.IMPORT_FAILED + e.getMessage());
+            }
+            CompactAccountIndex index = builder.build();
+            store.replaceIndex(index);
+            accountService.invalidateAccountCache();
+            long finished = System.nanoTime();
+
+            long durationNanos = finished - start;
+            AccountImportReportDTO report = AccountImportReportDTO.builder()
+                    .path(path.toString())
+                    .bytes(bytes)
+                    .chunks(parsedChunks.size())
+                    .rows(rows)
+                    .accounts(index.size())
+                    .parseMillis((parsed - start) / 1_000_000)
+                    .indexMillis((finished - parsed) / 1_000_000)
+                    .durationMillis(durationNanos / 1_000_000)
+                    .rowsPerSecond(durationNanos == 0 ? rows : rows * 1_000_000_000L / durationNanos)
+                    .build();
+            log.info("account import finished {}", report);
+            return report;
+        } finally {
+            importLock.unlock();
+        }
+    }
+
+    // [start, end) byte ranges, each starting at the beginning of a line
+    private List<long[]> split(FileChannel channel, long size) throws IOException {
+        List<long[]> chunks = new ArrayList<>();
+        long start = 0;
+        while (start < size) {
+            long end = start + chunkSize >= size ? size : nextLineStart(channel, start + chunkSize, size);
+            chunks.add(new long[]{start, end});
+            start = end;
+        }
+        return chunks;
+    }
+
+    private long nextLineStart(FileChannel channel, long position, long size) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(LINE_SEARCH_BUFFER_SIZE);
+        while (position < size) {
+            buffer.clear();
+            int read = channel.read(buffer, position);
+            for (int i = 0; i < read; i++) {
+                if (buffer.get(i) == '\n') {
+                    return position + i + 1;
+                }
+            }
+            position += read;
+        }
+        return size;
+    }
+
+    private ParsedAccounts parse(FileChannel channel, long start, long end) {
+        try {
+            MappedByteBuffer chunk = channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+            return AccountCsvParser.parse(chunk, start);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -1,27 +1,72 @@
 package com.inbank.dengine.account.service;
 
+import com.inbank.dengine.account.dto.AccountCacheStatsDTO;
 import com.inbank.dengine.account.model.Account;
+import com.inbank.dengine.account.store.AccountScan;
+import com.inbank.dengine.account.store.AccountStore;
+import com.inbank.dengine.account.store.CachingAccountStore;
+import com.inbank.dengine.account.store.SimulatedLatencyAccountStore;
+import com.inbank.dengine.util.SingleFlight;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
-import java.math.BigDecimal;
-import java.util.HashMap;
-import java.util.Map;
+import java.time.Duration;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 @Service
 public class AccountService {
 
-    Map<String, Account> userAccount = new HashMap<>();
+    private final AccountStore accountStore;
+    // null when account.cache.enabled=false
+    private final CachingAccountStore accountCache;
+    // concurrent lookups of one personal code share a single store call, whatever the requested loan
+    private final SingleFlight<String, Optional<Account>> lookupSingleFlight;
 
-    AccountService(){
-        userAccount.put("49002010965",Account.builder().personalCode("49002010965").isDebt(true).creditModifier(BigDecimal.valueOf(100)).build());
-        userAccount.put("49002010976",Account.builder().personalCode("49002010976").isDebt(false).creditModifier(BigDecimal.valueOf(100)).build());
-        userAccount.put("49002010987",Account.builder().personalCode("49002010987").isDebt(false).creditModifier(BigDecimal.valueOf(300)).build());
-        userAccount.put("49002010998",Account.builder().personalCode("49002010998").isDebt(false).creditModifier(BigDecimal.valueOf(1000)).build());
-        userAccount.put("49002010999",Account.builder().personalCode("49002010999").isDebt(false).creditModifier(BigDecimal.valueOf(30)).build());
+    @Autowired
+    public AccountService(AccountStore accountStore,
+                          MeterRegistry meterRegistry,
+                          @Value("${account.store.simulated-latency:0ms}") Duration simulatedLatency,
+                          @Value("${account.single-flight.enabled:false}") boolean singleFlightEnabled,
+                          @Value("${account.cache.enabled:false}") boolean cacheEnabled,
+                          @Value("${account.cache.maximum-size:100000}") long cacheMaximumSize,
+                          @Value("${account.cache.ttl:10m}") Duration cacheTtl,
+                          @Value("${account.cache.negative-ttl:30s}") Duration cacheNegativeTtl,
+                          @Value("${account.cache.refresh-after:1m}") Duration cacheRefreshAfter) {
+        AccountStore store = simulatedLatency.isZero() ? accountStore : new SimulatedLatencyAccountStore(accountStore, simulatedLatency);
+        this.accountCache = cacheEnabled
+                ? new CachingAccountStore(store, meterRegistry, cacheMaximumSize, cacheTtl, cacheNegativeTtl, cacheRefreshAfter)
+                : null;
+        this.accountStore = cacheEnabled ? accountCache : store;
+        this.lookupSingleFlight = new SingleFlight<>("account", singleFlightEnabled, meterRegistry);
+    }
 
+    public AccountService(AccountStore accountStore, Duration simulatedLatency) {
+        this(accountStore, new SimpleMeterRegistry(), simulatedLatency, false, false, 0, Duration.ZERO, Duration.ZERO, Duration.ZERO);
     }
 
     public Optional<Account> getAccountByPersonalCode (String personalCode) {
-        return Optional.ofNullable(userAccount.get(personalCode));
+        return lookupSingleFlight.call(personalCode, () -> accountStore.findByPersonalCode(personalCode));
+    }
+
+    public CompletableFuture<Optional<Account>> getAccountByPersonalCodeAsync (String personalCode) {
+        return lookupSingleFlight.callAsync(personalCode, () -> accountStore.findByPersonalCodeAsync(personalCode));
+    }
+
+    public Optional<AccountScan> scanAccounts () {
+        return accountStore.scan();
+    }
+
+    // cached accounts would outlive a replaced account book until their ttl
+    public void invalidateAccountCache () {
+        if (accountCache != null) {
+            accountCache.invalidateAll();
+        }
+    }
+
+    public AccountCacheStatsDTO getAccountCacheStats () {
+        return accountCache == null ? AccountCacheStatsDTO.builder().enabled(false).build() : accountCache.getStats();
     }
 }
@@ -0,0 +1,19 @@
+package com.inbank.dengine.account.store;
+
+/*
+ * every account of a store as primitives, for bulk jobs over the whole account book.
+ * positions [0, positions()) can be visited in ranges from several threads at once, empty positions are skipped.
+ * a scan is a fixed view, accounts replaced after it was taken are not part of it.
+ */
+public interface AccountScan {
+
+    long positions();
+
+    void visit(long fromPosition, long toPosition, AccountVisitor visitor);
+
+    @FunctionalInterface
+    interface AccountVisitor {
+
+        void visit(long personalCode, boolean isDebt, long creditModifierUnscaled, int creditModifierScale);
+    }
+}
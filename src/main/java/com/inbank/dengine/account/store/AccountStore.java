@@ -0,0 +1,21 @@
+package com.inbank.dengine.account.store;
+
+import com.inbank.dengine.account.model.Account;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+// backend of AccountService, selected with the account.store property
+public interface AccountStore {
+
+    Optional<Account> findByPersonalCode(String personalCode);
+
+    // local stores answer right away, a remote backend completes the future from its own client without holding a request thread
+    default CompletableFuture<Optional<Account>> findByPersonalCodeAsync(String personalCode) {
+        return CompletableFuture.completedFuture(findByPersonalCode(personalCode));
+    }
+
+    // empty for backends that can't list their accounts
+    default Optional<AccountScan> scan() {
+        return Optional.empty();
+    }
+}
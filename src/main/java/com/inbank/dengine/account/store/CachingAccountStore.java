@@ -0,0 +1,110 @@
+package com.inbank.dengine.account.store;
+
+import com.github.benmanes.caffeine.cache.AsyncLoadingCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.Ticker;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.inbank.dengine.account.dto.AccountCacheStatsDTO;
+import com.inbank.dengine.account.model.Account;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/*
+ * read-through cache in front of a slow account store (account.cache.enabled).
+ * found accounts live for the ttl, missing personal codes for the shorter negative ttl so a new account shows up soon.
+ * an entry older than refresh-after is still served while one reload runs in the background, hot accounts never wait for the store.
+ * concurrent misses of one personal code share a single load, failed loads are not cached.
+ */
+public class CachingAccountStore implements AccountStore {
+
+    private final AccountStore accountStore;
+    private final AsyncLoadingCache<String, Optional<Account>> cache;
+
+    public CachingAccountStore(AccountStore accountStore, MeterRegistry meterRegistry, long maximumSize, Duration ttl, Duration negativeTtl, Duration refreshAfter) {
+        this(accountStore, meterRegistry, maximumSize, ttl, negativeTtl, refreshAfter, Ticker.systemTicker());
+    }
+
+    CachingAccountStore(AccountStore accountStore, MeterRegistry meterRegistry, long maximumSize, Duration ttl, Duration negativeTtl, Duration refreshAfter, Ticker ticker) {
+        this.accountStore = accountStore;
+        Caffeine<String, Optional<Account>> builder = Caffeine.newBuilder()
+                .ticker(ticker)
+                .maximumSize(maximumSize)
+                .expireAfter(new AccountExpiry(ttl.toNanos(), negativeTtl.toNanos()))
+                .recordStats();
+        if (!refreshAfter.isZero()) {
+            builder.refreshAfterWrite(refreshAfter);
+        }
+        this.cache = builder.buildAsync((personalCode, executor) -> accountStore.findByPersonalCodeAsync(personalCode));
+        // cache_gets_total{cache="accounts"} by result, the hit ratio in prometheus
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "accounts");
+    }
+
+    @Override
+    public Optional<Account> findByPersonalCode(String personalCode) {
+        try {
+            return cache.get(personalCode).join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+        }
+    }
+
+    @Override
+    public CompletableFuture<Optional<Account>> findByPersonalCodeAsync(String personalCode) {
+        return cache.get(personalCode);
+    }
+
+    // bulk jobs read the store itself
+    @Override
+    public Optional<AccountScan> scan() {
+        return accountStore.scan();
+    }
+
+    public void invalidateAll() {
+        cache.synchronous().invalidateAll();
+    }
+
+    public AccountCacheStatsDTO getStats() {
+        CacheStats stats = cache.synchronous().stats();
+        return AccountCacheStatsDTO.builder()
+                .enabled(true)
+                .size(cache.synchronous().estimatedSize())
+                .hitCount(stats.hitCount())
+                .missCount(stats.missCount())
+                .hitRate(stats.hitRate())
+                .loadFailureCount(stats.loadFailureCount())
+                .evictionCount(stats.evictionCount())
+                .build();
+    }
+
+    private static class AccountExpiry implements Expiry<String, Optional<Account>> {
+
+        private final long ttlNanos;
+        private final long negativeTtlNanos;
+
+        private AccountExpiry(long ttlNanos, long negativeTtlNanos) {
+            this.ttlNanos = ttlNanos;
+            this.negativeTtlNanos = negativeTtlNanos;
+        }
+
+        @Override
+        public long expireAfterCreate(String personalCode, Optional<Account> account, long currentTime) {
+            return account.isPresent() ? ttlNanos : negativeTtlNanos;
+        }
+
+        // a refreshed entry starts a new lifetime, an account that disappeared gets the negative ttl
+        @Override
+        public long expireAfterUpdate(String personalCode, Optional<Account> account, long currentTime, long currentDuration) {
+            return expireAfterCreate(personalCode, account, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String personalCode, Optional<Account> account, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
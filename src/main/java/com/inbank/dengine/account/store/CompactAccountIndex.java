@@ -0,0 +1,168 @@
+package com.inbank.dengine.account.store;
+
+import com.inbank.dengine.account.model.Account;
+import com.inbank.dengine.account.util.PersonalCodes;
+import java.math.BigDecimal;
+
+/*
+ * open addressing index of accounts keyed by the personal code as long, held in three primitive arrays:
+ * 17 bytes per slot instead of the String, Account, Boolean and BigDecimal objects of a HashMap entry.
+ * Account objects are only created for the lookups that return them.
+ * an index is filled once by its builder and never changed afterwards, so it is its own scan.
+ */
+public class CompactAccountIndex implements AccountScan {
+
+    private static final float MAXIMUM_LOAD = 0.75f;
+    private static final int MAXIMUM_SCALE = 0x7f;
+    private static final byte DEBT_FLAG = (byte) 0x80;
+
+    // personal code + 1, so the default 0 marks an empty slot
+    private final long[] keys;
+    private final long[] creditModifiers;
+    // credit modifier scale in the low 7 bits, debt flag in the high bit
+    private final byte[] flags;
+    private final int mask;
+    private int size;
+
+    private CompactAccountIndex(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(2, (int) Math.ceil(expectedSize / MAXIMUM_LOAD)) - 1) << 1;
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Too many accounts for one index : " + expectedSize);
+        }
+        this.keys = new long[capacity];
+        this.creditModifiers = new long[capacity];
+        this.flags = new byte[capacity];
+        this.mask = capacity - 1;
+    }
+
+    public static Builder builder(int expectedSize) {
+        return new Builder(new CompactAccountIndex(expectedSize));
+    }
+
+    // slot of the account or -1 when there is none
+    public int slotOf(long personalCode) {
+        long key = personalCode + 1;
+        for (int slot = (int) PersonalCodes.hash(personalCode) & mask; ; slot = (slot + 1) & mask) {
+            long current = keys[slot];
+            if (current == key) {
+                return slot;
+            }
+            if (current == 0) {
+                return -1;
+            }
+        }
+    }
+
+    public boolean isDebt(int slot) {
+        return (flags[slot] & DEBT_FLAG) != 0;
+    }
+
+    public long getCreditModifierUnscaled(int slot) {
+        return creditModifiers[slot];
+    }
+
+    public int getCreditModifierScale(int slot) {
+        return flags[slot] & MAXIMUM_SCALE;
+    }
+
+    public Account toAccount(int slot, String personalCode) {
+        return Account.builder()
+                .personalCode(personalCode)
+                .isDebt(isDebt(slot))
+                .creditModifier(BigDecimal.valueOf(creditModifiers[slot], getCreditModifierScale(slot)))
+                .build();
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int capacity() {
+        return keys.length;
+    }
+
+    @Override
+    public long positions() {
+        return keys.length;
+    }
+
+    @Override
+    public void visit(long fromPosition, long toPosition, AccountVisitor visitor) {
+        for (int slot = (int) fromPosition; slot < toPosition; slot++) {
+            long key = keys[slot];
+            if (key != 0) {
+                visitor.visit(key - 1, (flags[slot] & DEBT_FLAG) != 0, creditModifiers[slot], flags[slot] & MAXIMUM_SCALE);
+            }
+        }
+    }
+
+    public static class Builder {
+
+        private CompactAccountIndex index;
+
+        private Builder(CompactAccountIndex index) {
+            this.index = index;
+        }
+
+        // a personal code added twice keeps the last account
+        public Builder add(long personalCode, boolean isDebt, long creditModifierUnscaled, int creditModifierScale) {
+            if (personalCode < 0 || personalCode >= Long.MAX_VALUE) {
+                throw new IllegalArgumentException("Invalid personal code : " + personalCode);
+            }
+            if (creditModifierScale < 0 || creditModifierScale > MAXIMUM_SCALE) {
+                throw new IllegalArgumentException("Unsupported credit modifier scale : " + creditModifierScale);
+            }
+            CompactAccountIndex target = index;
+            if (target.size + 1 > target.keys.length * MAXIMUM_LOAD) {
+                target = grow(target);
+            }
+            long key = personalCode + 1;
+            int slot = (int) PersonalCodes.hash(personalCode) & target.mask;
+            while (target.keys[slot] != 0 && target.keys[slot] != key) {
+                slot = (slot + 1) & target.mask;
+            }
+            if (target.keys[slot] == 0) {
+                target.size++;
+            }
+            target.keys[slot] = key;
+            target.creditModifiers[slot] = creditModifierUnscaled;
+            target.flags[slot] = (byte) (creditModifierScale | (isDebt ? DEBT_FLAG : 0));
+            return this;
+        }
+
+        public Builder add(Account account) {
+            long personalCode = PersonalCodes.parse(account.getPersonalCode());
+            if (personalCode == PersonalCodes.INVALID) {
+                throw new IllegalArgumentException("Personal code is not 11 digits : " + account.getPersonalCode());
+            }
+            BigDecimal creditModifier = account.getCreditModifier();
+            return add(personalCode, Boolean.TRUE.equals(account.getIsDebt()), creditModifier.unscaledValue().longValueExact(), creditModifier.scale());
+        }
+
+        public CompactAccountIndex build() {
+            CompactAccountIndex built = index;
+            // the builder can't touch the index once it is handed out
+            index = null;
+            return built;
+        }
+
+        private CompactAccountIndex grow(CompactAccountIndex current) {
+            CompactAccountIndex larger = new CompactAccountIndex(current.keys.length);
+            for (int slot = 0; slot < current.keys.length; slot++) {
+                long key = current.keys[slot];
+                if (key != 0) {
+                    int target = (int) PersonalCodes.hash(key - 1) & larger.mask;
+                    while (larger.keys[target] != 0) {
+                        target = (target + 1) & larger.mask;
+                    }
+                    larger.keys[target] = key;
+                    larger.creditModifiers[target] = current.creditModifiers[slot];
+                    larger.flags[target] = current.flags[slot];
+                }
+            }
+            larger.size = current.size;
+            index = larger;
+            return larger;
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.inbank.dengine.account.store;
+
+import com.inbank.dengine.account.model.Account;
+import com.inbank.dengine.account.util.PersonalCodes;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+
+@Component
+@ConditionalOnProperty(name = "account.store", havingValue = "memory", matchIfMissing = true)
+public class InMemoryAccountStore implements AccountStore {
+
+    // replaced as a whole by the bulk import, a lookup always reads one complete index
+    private volatile CompactAccountIndex index;
+
+    InMemoryAccountStore() {
+        List<Account> accounts = demoAccounts();
+        CompactAccountIndex.Builder builder = CompactAccountIndex.builder(accounts.size());
+        accounts.forEach(builder::add);
+        this.index = builder.build();
+    }
+
+    public static List<Account> demoAccounts() {
+        return List.of(
+                Account.builder().personalCode("49002010965").isDebt(true).creditModifier(BigDecimal.valueOf(100)).build(),
+                Account.builder().personalCode("49002010976").isDebt(false).creditModifier(BigDecimal.valueOf(100)).build(),
+                Account.builder().personalCode("49002010987").isDebt(false).creditModifier(BigDecimal.valueOf(300)).build(),
+                Account.builder().personalCode("49002010998").isDebt(false).creditModifier(BigDecimal.valueOf(1000)).build(),
+                Account.builder().personalCode("49002010999").isDebt(false).creditModifier(BigDecimal.valueOf(30)).build());
+    }
+
+    @Override
+    public Optional<Account> findByPersonalCode(String personalCode) {
+        long code = PersonalCodes.parse(personalCode);
+        if (code == PersonalCodes.INVALID) {
+            return Optional.empty();
+        }
+        CompactAccountIndex current = index;
+        int slot = current.slotOf(code);
+        return slot < 0 ? Optional.empty() : Optional.of(current.toAccount(slot, personalCode));
+    }
+
+    @Override
+    public Optional<AccountScan> scan() {
+        return Optional.of(index);
+    }
+
+    public void replaceIndex(CompactAccountIndex index) {
+        this.index = index;
+    }
+}
@@ -0,0 +1,201 @@
+package com.inbank.dengine.account.store;
+
+import com.inbank.dengine.account.model.Account;
+import com.inbank.dengine.account.util.PersonalCodes;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import java.util.Optional;
+
+/*
+ * accounts as fixed width records in a memory mapped file, with an open addressing hash index in the same file.
+ * nothing but the mappings lives on the heap, and the page cache of the file survives restarts.
+ *
+ * layout (little endian)
+ *   header  : magic, version, record count, slot count
+ *   index   : slot count ints, record number + 1 of the account hashed into the slot, 0 when empty
+ *   records : personal code (long), credit modifier unscaled value (long), credit modifier scale (byte), debt flag (byte)
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "account.store", havingValue = "mapped")
+public class MappedAccountStore implements AccountStore, AccountScan {
+
+    private static final long MAGIC = 0x44454e4741434354L;
+    private static final int VERSION = 1;
+
+    private static final int HEADER_SIZE = 64;
+    private static final int HEADER_MAGIC = 0;
+    private static final int HEADER_VERSION = 8;
+    private static final int HEADER_RECORD_COUNT = 16;
+    private static final int HEADER_SLOT_COUNT = 24;
+
+    private static final int SLOT_SIZE = Integer.BYTES;
+
+    private static final int RECORD_SIZE = 24;
+    private static final int RECORD_PERSONAL_CODE = 0;
+    private static final int RECORD_MODIFIER_UNSCALED = 8;
+    private static final int RECORD_MODIFIER_SCALE = 16;
+    private static final int RECORD_DEBT = 17;
+
+    private final long recordCount;
+    private final long slotMask;
+    private final MappedRegion index;
+    private final MappedRegion records;
+
+    public MappedAccountStore(@Value("${account.mapped.path:accounts.dat}") Path path) throws IOException {
+        if (!Files.exists(path)) {
+            log.info("no account file at {}, creating it with the demo accounts", path);
+            write(path, InMemoryAccountStore.demoAccounts());
+        }
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            channel.read(header, 0);
+            if (header.getLong(HEADER_MAGIC) != MAGIC || header.getInt(HEADER_VERSION) != VERSION) {
+                throw new IllegalStateException("Not an account file : " + path);
+            }
+            this.recordCount = header.getLong(HEADER_RECORD_COUNT);
+            long slotCount = header.getLong(HEADER_SLOT_COUNT);
+            if (Long.bitCount(slotCount) != 1 || channel.size() != fileSize(recordCount, slotCount)) {
+                throw new IllegalStateException("Account file is damaged : " + path);
+            }
+            this.slotMask = slotCount - 1;
+            // mappings stay valid after the channel is closed
+            this.index = new MappedRegion(channel, FileChannel.MapMode.READ_ONLY, HEADER_SIZE, slotCount, SLOT_SIZE);
+            this.records = new MappedRegion(channel, FileChannel.MapMode.READ_ONLY, HEADER_SIZE + slotCount * SLOT_SIZE, recordCount, RECORD_SIZE);
+        }
+        log.info("mapped {} accounts from {}", recordCount, path);
+    }
+
+    @Override
+    public Optional<Account> findByPersonalCode(String personalCode) {
+        long code = PersonalCodes.parse(personalCode);
+        if (code == PersonalCodes.INVALID) {
+            return Optional.empty();
+        }
+        for (long slot = PersonalCodes.hash(code) & slotMask; ; slot = (slot + 1) & slotMask) {
+            int reference = index.getInt(slot, 0);
+            if (reference == 0) {
+                return Optional.empty();
+            }
+            long record = reference - 1L;
+            if (records.getLong(record, RECORD_PERSONAL_CODE) == code) {
+                return Optional.of(Account.builder()
+                        .personalCode(personalCode)
+                        .isDebt(records.getByte(record, RECORD_DEBT) != 0)
+                        .creditModifier(BigDecimal.valueOf(records.getLong(record, RECORD_MODIFIER_UNSCALED), records.getByte(record, RECORD_MODIFIER_SCALE)))
+                        .build());
+            }
+        }
+    }
+
+    @Override
+    public Optional<AccountScan> scan() {
+        return Optional.of(this);
+    }
+
+    @Override
+    public long positions() {
+        return slotMask + 1;
+    }
+
+    // positions are index slots rather than records, a personal code written twice has a record that no slot points to
+    @Override
+    public void visit(long fromPosition, long toPosition, AccountVisitor visitor) {
+        for (long slot = fromPosition; slot < toPosition; slot++) {
+            int reference = index.getInt(slot, 0);
+            if (reference != 0) {
+                long record = reference - 1L;
+                visitor.visit(records.getLong(record, RECORD_PERSONAL_CODE),
+                        records.getByte(record, RECORD_DEBT) != 0,
+                        records.getLong(record, RECORD_MODIFIER_UNSCALED),
+                        records.getByte(record, RECORD_MODIFIER_SCALE));
+            }
+        }
+    }
+
+    // writes a new account file, a personal code given twice keeps the last account.
+    // an account the record can't hold is refused and the previous file is kept
+    public static void write(Path path, Collection<Account> accounts) throws IOException {
+        long recordCount = accounts.size();
+        if (recordCount >= Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Too many accounts for one file : " + recordCount);
+        }
+        // at most half full, so probe sequences stay short
+        long slotCount = Math.max(2, Long.highestOneBit(recordCount * 2 - 1) << 1);
+        long slotMask = slotCount - 1;
+
+        Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            channel.truncate(0);
+            long size = fileSize(recordCount, slotCount);
+            // grows the file to its full size before mapping it
+            channel.write(ByteBuffer.allocate(1), size - 1);
+
+            MappedRegion index = new MappedRegion(channel, FileChannel.MapMode.READ_WRITE, HEADER_SIZE, slotCount, SLOT_SIZE);
+            MappedRegion records = new MappedRegion(channel, FileChannel.MapMode.READ_WRITE, HEADER_SIZE + slotCount * SLOT_SIZE, recordCount, RECORD_SIZE);
+
+            long record = 0;
+            for (Account account : accounts) {
+                long code = PersonalCodes.parse(account.getPersonalCode());
+                if (code == PersonalCodes.INVALID) {
+                    throw new IllegalArgumentException("Personal code is not 11 digits : " + account.getPersonalCode());
+                }
+                BigDecimal creditModifier = account.getCreditModifier();
+                if (creditModifier == null) {
+                    throw new IllegalArgumentException("Credit modifier is missing : " + account.getPersonalCode());
+                }
+                if (creditModifier.scale() < Byte.MIN_VALUE || creditModifier.scale() > Byte.MAX_VALUE) {
+                    throw new IllegalArgumentException("Unsupported credit modifier scale : " + creditModifier.scale() + " for " + account.getPersonalCode());
+                }
+                if (creditModifier.unscaledValue().bitLength() > Long.SIZE - 1) {
+                    throw new IllegalArgumentException("Credit modifier has too many digits : " + account.getPersonalCode());
+                }
+                records.putLong(record, RECORD_PERSONAL_CODE, code);
+                records.putLong(record, RECORD_MODIFIER_UNSCALED, creditModifier.unscaledValue().longValueExact());
+                records.putByte(record, RECORD_MODIFIER_SCALE, (byte) creditModifier.scale());
+                records.putByte(record, RECORD_DEBT, (byte) (Boolean.TRUE.equals(account.getIsDebt()) ? 1 : 0));
+
+                long slot = PersonalCodes.hash(code) & slotMask;
+                while (true) {
+                    int reference = index.getInt(slot, 0);
+                    if (reference == 0 || records.getLong(reference - 1L, RECORD_PERSONAL_CODE) == code) {
+                        index.putInt(slot, 0, (int) (record + 1));
+                        break;
+                    }
+                    slot = (slot + 1) & slotMask;
+                }
+                record++;
+            }
+            index.force();
+            records.force();
+
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            header.putLong(HEADER_MAGIC, MAGIC);
+            header.putInt(HEADER_VERSION, VERSION);
+            header.putLong(HEADER_RECORD_COUNT, recordCount);
+            header.putLong(HEADER_SLOT_COUNT, slotCount);
+            channel.write(header, 0);
+            channel.force(true);
+        }
+        // readers only ever see a complete file
+        Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static long fileSize(long recordCount, long slotCount) {
+        return HEADER_SIZE + slotCount * SLOT_SIZE + recordCount * RECORD_SIZE;
+    }
+}
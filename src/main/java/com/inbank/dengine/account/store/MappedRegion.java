@@ -0,0 +1,74 @@
+package com.inbank.dengine.account.store;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/*
+ * fixed size elements of a file region, mapped in chunks because a single mapping can't exceed 2GB.
+ * chunks hold a power of two number of elements, so an element never spans two chunks and is found with a shift.
+ */
+class MappedRegion {
+
+    private static final long MAXIMUM_CHUNK_SIZE = 1L << 30;
+
+    private final MappedByteBuffer[] chunks;
+    private final int elementSize;
+    private final int chunkShift;
+    private final long chunkMask;
+
+    MappedRegion(FileChannel channel, FileChannel.MapMode mapMode, long offset, long elementCount, int elementSize) throws IOException {
+        this(channel, mapMode, offset, elementCount, elementSize, MAXIMUM_CHUNK_SIZE);
+    }
+
+    MappedRegion(FileChannel channel, FileChannel.MapMode mapMode, long offset, long elementCount, int elementSize, long maximumChunkSize) throws IOException {
+        this.elementSize = elementSize;
+        this.chunkShift = 63 - Long.numberOfLeadingZeros(maximumChunkSize / elementSize);
+        this.chunkMask = (1L << chunkShift) - 1;
+
+        long elementsPerChunk = 1L << chunkShift;
+        int chunkCount = (int) ((elementCount + elementsPerChunk - 1) / elementsPerChunk);
+        this.chunks = new MappedByteBuffer[chunkCount];
+        for (int i = 0; i < chunkCount; i++) {
+            long first = i * elementsPerChunk;
+            long size = Math.min(elementsPerChunk, elementCount - first) * elementSize;
+            chunks[i] = channel.map(mapMode, offset + first * elementSize, size);
+            chunks[i].order(ByteOrder.LITTLE_ENDIAN);
+        }
+    }
+
+    long getLong(long element, int field) {
+        return chunks[(int) (element >>> chunkShift)].getLong(position(element, field));
+    }
+
+    int getInt(long element, int field) {
+        return chunks[(int) (element >>> chunkShift)].getInt(position(element, field));
+    }
+
+    byte getByte(long element, int field) {
+        return chunks[(int) (element >>> chunkShift)].get(position(element, field));
+    }
+
+    void putLong(long element, int field, long value) {
+        chunks[(int) (element >>> chunkShift)].putLong(position(element, field), value);
+    }
+
+    void putInt(long element, int field, int value) {
+        chunks[(int) (element >>> chunkShift)].putInt(position(element, field), value);
+    }
+
+    void putByte(long element, int field, byte value) {
+        chunks[(int) (element >>> chunkShift)].put(position(element, field), value);
+    }
+
+    void force() {
+        for (MappedByteBuffer chunk : chunks) {
+            chunk.force();
+        }
+    }
+
+    private int position(long element, int field) {
+        return (int) (element & chunkMask) * elementSize + field;
+    }
+}
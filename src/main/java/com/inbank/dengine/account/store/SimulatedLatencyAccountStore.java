@@ -0,0 +1,47 @@
+package com.inbank.dengine.account.store;
+
+import com.inbank.dengine.account.model.Account;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * stands in for a remote account backend in benchmarks and load tests (account.store.simulated-latency).
+ * a blocking lookup holds the calling thread for the latency, an async one is completed later by a timer
+ * like a non-blocking client would.
+ */
+public class SimulatedLatencyAccountStore implements AccountStore {
+
+    private final AccountStore accountStore;
+    private final Duration latency;
+    private final Executor delayedExecutor;
+
+    public SimulatedLatencyAccountStore(AccountStore accountStore, Duration latency) {
+        this.accountStore = accountStore;
+        this.latency = latency;
+        this.delayedExecutor = CompletableFuture.delayedExecutor(latency.toNanos(), TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public Optional<Account> findByPersonalCode(String personalCode) {
+        try {
+            TimeUnit.NANOSECONDS.sleep(latency.toNanos());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return accountStore.findByPersonalCode(personalCode);
+    }
+
+    @Override
+    public CompletableFuture<Optional<Account>> findByPersonalCodeAsync(String personalCode) {
+        return CompletableFuture.supplyAsync(() -> accountStore.findByPersonalCode(personalCode), delayedExecutor);
+    }
+
+    // bulk jobs read the backend in place, without the per lookup latency
+    @Override
+    public Optional<AccountScan> scan() {
+        return accountStore.scan();
+    }
+}
@@ -0,0 +1,46 @@
+package com.inbank.dengine.account.util;
+
+// personal codes are 11 digit numbers, stores that key accounts by long use these conversions
+public class PersonalCodes {
+
+    public static final int LENGTH = 11;
+    public static final long INVALID = -1;
+
+    private PersonalCodes() {}
+
+    // INVALID for anything that isn't exactly 11 digits, so leading zeros can't make two codes collide
+    public static long parse(String personalCode) {
+        if (personalCode == null || personalCode.length() != LENGTH) {
+            return INVALID;
+        }
+        long value = 0;
+        for (int i = 0; i < LENGTH; i++) {
+            char c = personalCode.charAt(i);
+            if (c < '0' || c > '9') {
+                return INVALID;
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+
+    public static String format(long personalCode) {
+        char[] digits = new char[LENGTH];
+        for (int i = LENGTH - 1; i >= 0; i--) {
+            digits[i] = (char) ('0' + personalCode % 10);
+            personalCode /= 10;
+        }
+        return new String(digits);
+    }
+
+    // murmur3 finalizer, personal codes are sequential enough to cluster with a plain modulo
+    public static long hash(long personalCode) {
+        long h = personalCode;
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -0,0 +1,185 @@
+package com.inbank.dengine.config.filter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.inbank.dengine.exception.model.ErrorDetails;
+import com.inbank.dengine.util.GlobalConstant;
+import com.inbank.dengine.util.GradientConcurrencyLimit;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.time.Instant;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/*
+ * requests over the concurrency limit are answered 503 right away instead of queueing in tomcat, where every request
+ * would slow down together. the limit follows the latency of the loan decisions (GradientConcurrencyLimit).
+ * runs after JwtFilter : authenticated decision requests may use the whole limit, any other request only the
+ * best-effort share of it, so under load the other requests are shed first. actuator endpoints are never limited,
+ * health probes and scrapes are needed most when the service is overloaded.
+ */
+@Component
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+
+    public static final String LIMIT = "dengine.concurrency.limit";
+    public static final String IN_FLIGHT = "dengine.concurrency.in.flight";
+    public static final String SHED = "dengine.concurrency.shed";
+
+    private static final String DECISION_PATH = "/api/decisions/loans";
+    // the requests that run LoanDecisionService.getLoanDecision, their latency drives the limit
+    private static final Set<String> SAMPLED_PATHS = Set.of(DECISION_PATH, DECISION_PATH + "/async");
+    private static final String ACTUATOR_PATH = "/actuator/";
+    // windows averaged into the long term latency the recent windows are compared to
+    private static final int LONG_WINDOWS = 30;
+
+    private final boolean enabled;
+    private final GradientConcurrencyLimit limit;
+    private final double bestEffortShare;
+    private final ObjectMapper objectMapper;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final Counter decisionsShed;
+    private final Counter othersShed;
+
+    public ConcurrencyLimitFilter(@Value("${concurrency.limit.enabled:true}") boolean enabled,
+                                  @Value("${concurrency.limit.initial:20}") int initialLimit,
+                                  @Value("${concurrency.limit.minimum:4}") int minimumLimit,
+                                  @Value("${concurrency.limit.maximum:200}") int maximumLimit,
+                                  @Value("${concurrency.limit.smoothing:0.2}") double smoothing,
+                                  @Value("${concurrency.limit.tolerance:1.5}") double tolerance,
+                                  @Value("${concurrency.limit.window-size:20}") int windowSize,
+                                  @Value("${concurrency.limit.best-effort-share:0.5}") double bestEffortShare,
+                                  ObjectMapper objectMapper,
+                                  MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.limit = new GradientConcurrencyLimit(initialLimit, minimumLimit, maximumLimit, smoothing, tolerance, windowSize, LONG_WINDOWS);
+        this.bestEffortShare = bestEffortShare;
+        this.objectMapper = objectMapper;
+        Gauge.builder(LIMIT, limit, GradientConcurrencyLimit::getLimit)
+                .description("Current concurrency limit of the requests")
+                .register(meterRegistry);
+        Gauge.builder(IN_FLIGHT, inFlight, AtomicInteger::get)
+                .description("Requests holding a concurrency limit slot")
+                .register(meterRegistry);
+        this.decisionsShed = shedCounter(meterRegistry, "decision");
+        this.othersShed = shedCounter(meterRegistry, "other");
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled || path(request).startsWith(ACTUATOR_PATH);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+
+        String path = path(request);
+        boolean priority = path.startsWith(DECISION_PATH) && SecurityContextHolder.getContext().getAuthentication() != null;
+        int started = acquire(priority ? limit.getLimit() : Math.max(1, (int) (limit.getLimit() * bestEffortShare)));
+        if (started < 0) {
+            (priority ? decisionsShed : othersShed).increment();
+            reject(request, response);
+            return;
+        }
+
+        boolean sampled = SAMPLED_PATHS.contains(path);
+        long start = System.nanoTime();
+        boolean async = false;
+        try {
+            filterChain.doFilter(request, response);
+            if (request.isAsyncStarted()) {
+                // the slot is held until the async response is written
+                request.getAsyncContext().addListener(new Release(sampled, start, started));
+                async = true;
+            }
+        } finally {
+            if (!async) {
+                release(sampled, start, started);
+            }
+        }
+    }
+
+    // the in-flight count before this request, or -1 when the request is over the given limit
+    private int acquire(int maximum) {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= maximum) {
+                return -1;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return current;
+            }
+        }
+    }
+
+    private void release(boolean sampled, long start, int started) {
+        inFlight.decrementAndGet();
+        if (sampled) {
+            limit.record(System.nanoTime() - start, started + 1);
+        }
+    }
+
+    private void reject(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(),
+                new ErrorDetails(Instant.now(), GlobalConstant.ConcurrencyLimitErrors.OVERLOADED, "uri=" + request.getRequestURI()));
+    }
+
+    private static String path(HttpServletRequest request) {
+        return request.getRequestURI().substring(request.getContextPath().length());
+    }
+
+    private static Counter shedCounter(MeterRegistry meterRegistry, String traffic) {
+        return Counter.builder(SHED)
+                .description("Requests answered 503 because the concurrency limit was reached")
+                .tag("traffic", traffic)
+                .register(meterRegistry);
+    }
+
+    private class Release implements AsyncListener {
+
+        private final boolean sampled;
+        private final long start;
+        private final int started;
+
+        private Release(boolean sampled, long start, int started) {
+            this.sampled = sampled;
+            this.start = start;
+            this.started = started;
+        }
+
+        // called once whatever the outcome, timeouts and errors end with a complete too
+        @Override
+        public void onComplete(AsyncEvent event) {
+            release(sampled, start, started);
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+        }
+    }
+}
@@ -2,6 +2,8 @@ package com.inbank.dengine.config.filter;
 
 import com.inbank.dengine.config.user.AppUserDetailsService;
 import com.inbank.dengine.config.util.JwtUtil;
+import com.inbank.dengine.config.util.VerifiedToken;
+import com.inbank.dengine.config.util.VerifiedTokenCache;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -21,6 +23,7 @@ public class JwtFilter extends OncePerRequestFilter {
 
 
     private final JwtUtil jwtUtil;
+    private final VerifiedTokenCache verifiedTokenCache;
     private final AppUserDetailsService appUserDetailsService;
 
     @Override
@@ -31,18 +34,19 @@ public class JwtFilter extends OncePerRequestFilter {
 
         // extract username and token from auth headers
         String username = null;
-        String token = null;
+        VerifiedToken verifiedToken = null;
 
         if (authorizationHeaders != null && authorizationHeaders.startsWith("Bearer ")) {
-            token = authorizationHeaders.substring(7);
-            username = jwtUtil.getUsernameForToken(token);
+            // the signature is only verified the first time a token is seen
+            verifiedToken = verifiedTokenCache.getVerifiedToken(authorizationHeaders.substring(7));
+            username = verifiedToken.subject();
         }
 
         // check existing security context
         if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
             UserDetails userDetails = appUserDetailsService.loadUserByUsername(username);
 
-            if (jwtUtil.validateToken(token, userDetails)) {
+            if (jwtUtil.validateVerifiedToken(verifiedToken, userDetails)) {
                 UsernamePasswordAuthenticationToken usernamePasswordAuthenticationToken =
                         new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
 
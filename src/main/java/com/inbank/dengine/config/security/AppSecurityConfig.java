@@ -1,26 +1,33 @@
 package com.inbank.dengine.config.security;
 
+import com.inbank.dengine.config.filter.ConcurrencyLimitFilter;
 import com.inbank.dengine.config.filter.JwtFilter;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
+import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
-import org.springframework.security.crypto.password.NoOpPasswordEncoder;
+import org.springframework.security.crypto.factory.PasswordEncoderFactories;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import java.time.Duration;
 
 @Configuration
 @EnableWebSecurity
+// operations endpoints are restricted with @PreAuthorize on the controller methods
+@EnableMethodSecurity
 @RequiredArgsConstructor
 public class AppSecurityConfig implements WebMvcConfigurer {
 
     private final JwtFilter jwtFilter;
+    private final ConcurrencyLimitFilter concurrencyLimitFilter;
 
     // authentication
     @Bean
@@ -37,9 +44,15 @@ public class AppSecurityConfig implements WebMvcConfigurer {
 
         httpSecurity.authorizeRequests()
                 .antMatchers("/api/authenticate").permitAll()
+                // probed by the orchestrator without a token
+                .antMatchers("/actuator/health").permitAll()
+                // metrics show latencies, caches, bureaus and limits : prometheus scrapes with an admin token
+                .antMatchers("/actuator/**").hasRole("ADMIN")
                 .anyRequest().authenticated();
 
         httpSecurity.addFilterBefore(jwtFilter, UsernamePasswordAuthenticationFilter.class);
+        // after the token is verified, authenticated decision requests are the last ones shed
+        httpSecurity.addFilterAfter(concurrencyLimitFilter, JwtFilter.class);
 
 
         /*
@@ -53,10 +66,20 @@ public class AppSecurityConfig implements WebMvcConfigurer {
     }
 
 
-    // password encoder
+    // password encoder, the algorithm is picked from the {id} prefix of the stored hash
     @Bean
-    public PasswordEncoder initPasswordEncoder() {
-        return NoOpPasswordEncoder.getInstance();
+    public PasswordEncoder initPasswordEncoder(@Value("${security.hashing.threads:0}") int hashingThreads,
+                                               @Value("${security.hashing.queue-size:64}") int hashingQueueSize,
+                                               @Value("${security.hashing.timeout:2s}") Duration hashingTimeout,
+                                               @Value("${security.credential-cache.ttl:60s}") Duration verifiedCredentialTtl,
+                                               @Value("${security.credential-cache.maximum-size:1000}") long verifiedCredentialMaximumSize) {
+        return new CredentialCachingPasswordEncoder(
+                PasswordEncoderFactories.createDelegatingPasswordEncoder(),
+                hashingThreads > 0 ? hashingThreads : Runtime.getRuntime().availableProcessors(),
+                hashingQueueSize,
+                hashingTimeout,
+                verifiedCredentialTtl,
+                verifiedCredentialMaximumSize);
     }
 
 
@@ -5,9 +5,12 @@ import com.inbank.dengine.config.model.AuthenticationResponse;
 import com.inbank.dengine.config.user.AppUserDetailsService;
 import com.inbank.dengine.config.util.JwtUtil;
 import com.inbank.dengine.exception.exceptionType.BadCredentialException;
+import com.inbank.dengine.exception.exceptionType.ServerException;
+import com.inbank.dengine.exception.exceptionType.ServiceUnavailableException;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.AuthenticationServiceException;
 import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -32,6 +35,11 @@ public class AuthenticationController {
                     jwtRequest.getUsername(), jwtRequest.getPassword()));
         } catch (BadCredentialsException e) {
             throw new BadCredentialException("INVALID CREDENTIALS");
+        } catch (HashingSaturatedException e) {
+            // password hashing is saturated, the credentials were not checked : the client retries like a shed request
+            throw new ServiceUnavailableException(e.getMessage());
+        } catch (AuthenticationServiceException e) {
+            throw new ServerException(e.getMessage());
         }
 
         // if authenticated
@@ -0,0 +1,141 @@
+package com.inbank.dengine.config.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.inbank.dengine.util.GlobalConstant;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.security.authentication.InternalAuthenticationServiceException;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import javax.crypto.KeyGenerator;
+import javax.crypto.Mac;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.Key;
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/*
+ * password hashes are slow on purpose, so a login storm would keep every tomcat thread busy hashing.
+ * matching runs on a small executor with a bounded queue instead, logins above that are refused right away and a
+ * queued login waits at most the hashing timeout : either way the request thread is released with a 503 (Retry-After).
+ * a successful match is remembered for a short time under an hmac of the hash and the password, keyed with a
+ * random per process key, so a service account logging in again doesn't hash again and the cache is useless outside the process.
+ */
+public class CredentialCachingPasswordEncoder implements PasswordEncoder, DisposableBean {
+
+    private final PasswordEncoder delegate;
+    private final ThreadPoolExecutor hashingExecutor;
+    private final long hashingTimeoutNanos;
+    private final Cache<Credential, Boolean> verifiedCredentials;
+    private final ThreadLocal<Mac> hmac;
+
+    public CredentialCachingPasswordEncoder(PasswordEncoder delegate, int hashingThreads, int hashingQueueSize, Duration hashingTimeout,
+                                            Duration verifiedCredentialTtl, long verifiedCredentialMaximumSize) {
+        this.delegate = delegate;
+        this.hashingTimeoutNanos = hashingTimeout.toNanos();
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.hashingExecutor = new ThreadPoolExecutor(hashingThreads, hashingThreads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(hashingQueueSize), runnable -> {
+                    Thread thread = new Thread(runnable, "password-hashing-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.AbortPolicy());
+        this.verifiedCredentials = verifiedCredentialTtl.isZero() ? null : Caffeine.newBuilder()
+                .maximumSize(verifiedCredentialMaximumSize)
+                .expireAfterWrite(verifiedCredentialTtl)
+                .build();
+        Key key = newHmacKey();
+        this.hmac = ThreadLocal.withInitial(() -> {
+            try {
+                Mac mac = Mac.getInstance("HmacSHA256");
+                mac.init(key);
+                return mac;
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return delegate.encode(rawPassword);
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        if (rawPassword == null || encodedPassword == null) {
+            return delegate.matches(rawPassword, encodedPassword);
+        }
+        Credential credential = verifiedCredentials == null ? null : credentialOf(rawPassword, encodedPassword);
+        if (credential != null && verifiedCredentials.getIfPresent(credential) != null) {
+            return true;
+        }
+
+        boolean matched = matchOnHashingExecutor(rawPassword, encodedPassword);
+        // failed attempts are never cached, every wrong password pays the full hash
+        if (matched && credential != null) {
+            verifiedCredentials.put(credential, Boolean.TRUE);
+        }
+        return matched;
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+
+    @Override
+    public void destroy() {
+        hashingExecutor.shutdownNow();
+    }
+
+    private boolean matchOnHashingExecutor(CharSequence rawPassword, String encodedPassword) {
+        Future<Boolean> match;
+        try {
+            match = hashingExecutor.submit(() -> delegate.matches(rawPassword, encodedPassword));
+        } catch (RejectedExecutionException e) {
+            throw new HashingSaturatedException();
+        }
+        try {
+            return match.get(hashingTimeoutNanos, TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            // still queued behind other logins, its slot is given back to the queue
+            match.cancel(true);
+            hashingExecutor.remove((Runnable) match);
+            throw new HashingSaturatedException();
+        } catch (InterruptedException e) {
+            match.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new InternalAuthenticationServiceException(GlobalConstant.AuthenticationErrors.TOO_MANY_LOGINS, e);
+        } catch (ExecutionException e) {
+            throw new InternalAuthenticationServiceException(e.getCause().getMessage(), e.getCause());
+        }
+    }
+
+    private Credential credentialOf(CharSequence rawPassword, String encodedPassword) {
+        Mac mac = hmac.get();
+        mac.update(encodedPassword.getBytes(StandardCharsets.UTF_8));
+        mac.update((byte) 0);
+        ByteBuffer hash = ByteBuffer.wrap(mac.doFinal(rawPassword.toString().getBytes(StandardCharsets.UTF_8)));
+        return new Credential(hash.getLong(), hash.getLong(), hash.getLong(), hash.getLong());
+    }
+
+    private static Key newHmacKey() {
+        try {
+            return KeyGenerator.getInstance("HmacSHA256").generateKey();
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private record Credential(long first, long second, long third, long fourth) {
+    }
+}
@@ -0,0 +1,11 @@
+package com.inbank.dengine.config.security;
+
+import com.inbank.dengine.util.GlobalConstant;
+import org.springframework.security.authentication.InternalAuthenticationServiceException;
+
+// the password was not checked, the hashing pool had no room for it in time. answered 503 like any other overload
+public class HashingSaturatedException extends InternalAuthenticationServiceException {
+    public HashingSaturatedException() {
+        super(GlobalConstant.AuthenticationErrors.TOO_MANY_LOGINS);
+    }
+}
@@ -0,0 +1,36 @@
+package com.inbank.dengine.config.startup;
+
+import com.inbank.dengine.decision.loan.dto.LoanDecisionRequestDTO;
+import com.inbank.dengine.decision.loan.service.LoanDecisionService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import java.math.BigDecimal;
+
+/*
+ * training run of the class data sharing archive (maven cds profile) : once started the application makes one loan
+ * decision, so the classes of the decision path are archived too, then stops. the jvm writes the archive on exit.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "startup.training-run", havingValue = "true")
+public class CdsTrainingRun {
+
+    private final LoanDecisionService loanDecisionService;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void decideAndExit(ApplicationReadyEvent event) {
+        loanDecisionService.getLoanDecisionResult(LoanDecisionRequestDTO.builder()
+                .personalCode("49002010976")
+                .loanAmount(BigDecimal.valueOf(2000))
+                .loanPeriod(20)
+                .build());
+        log.info("training run done, stopping");
+        System.exit(SpringApplication.exit(event.getApplicationContext()));
+    }
+}
@@ -1,27 +1,24 @@
 package com.inbank.dengine.config.user;
 
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import lombok.RequiredArgsConstructor;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 
-import java.util.Arrays;
-
 @Service
+@RequiredArgsConstructor
 public class AppUserDetailsService implements UserDetailsService {
 
+    private final UserRepository userRepository;
+
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
 
         if (username == null) return null;
 
-        if (username.equals("inbank")) {
-            return new AppUserDetails(username, "inbank@123", Arrays.asList(new SimpleGrantedAuthority("ROLE_USER")));
-        } else if (username.equals("test-user")) {
-            return new AppUserDetails(username, "test@123", Arrays.asList(new SimpleGrantedAuthority("ROLE_USER")));
-        }
-        throw new UsernameNotFoundException("User not Found");
+        return userRepository.findByUsername(username)
+                .orElseThrow(() -> new UsernameNotFoundException("User not Found"));
     }
 
 }
@@ -0,0 +1,67 @@
+package com.inbank.dengine.config.user;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.Resource;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.stereotype.Component;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+/*
+ * stand-in for a real user database, "username:password hash:roles" lines are read once and indexed by username.
+ * only hashes are stored, the algorithm is given by the {id} prefix of the hash.
+ */
+@Component
+@ConditionalOnProperty(name = "user.store", havingValue = "file", matchIfMissing = true)
+public class FileUserRepository implements UserRepository {
+
+    private final Map<String, AppUserDetails> users;
+
+    public FileUserRepository(@Value("${user.file:classpath:users.txt}") Resource file) {
+        this.users = read(file);
+    }
+
+    @Override
+    public Optional<AppUserDetails> findByUsername(String username) {
+        return Optional.ofNullable(users.get(username));
+    }
+
+    private static Map<String, AppUserDetails> read(Resource file) {
+        Map<String, AppUserDetails> users = new HashMap<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(file.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                String[] fields = line.split(":", -1);
+                if (fields.length != 3 || fields[0].isEmpty() || fields[1].isEmpty()) {
+                    throw new IllegalStateException("Invalid user at line " + lineNumber + " of " + file.getDescription());
+                }
+                List<GrantedAuthority> authorities = Arrays.stream(fields[2].split(","))
+                        .map(String::trim)
+                        .filter(role -> !role.isEmpty())
+                        .map(SimpleGrantedAuthority::new)
+                        .collect(Collectors.toList());
+                users.put(fields[0], new AppUserDetails(fields[0], fields[1], authorities));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return Map.copyOf(users);
+    }
+}
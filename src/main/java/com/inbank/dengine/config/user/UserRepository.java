@@ -0,0 +1,8 @@
+package com.inbank.dengine.config.user;
+
+import java.util.Optional;
+
+public interface UserRepository {
+
+    Optional<AppUserDetails> findByUsername(String username);
+}
@@ -1,23 +1,55 @@
 package com.inbank.dengine.config.util;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.impl.TextCodec;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 
+import javax.crypto.spec.SecretKeySpec;
+import java.security.Key;
+import java.time.Instant;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 
 @Component
 public class JwtUtil {
     public static final long JWT_VALIDITY = 5*60*60;
 
-    @Value("${jwt.secret}")
-    private String secret;
+    private static final SignatureAlgorithm SIGNATURE_ALGORITHM = SignatureAlgorithm.HS512;
+
+    /*
+     * jjwt decodes a base64 string key and wraps key bytes into a new key on every call, the key is built once instead.
+     * a configured parser is never modified while parsing, the same parser is shared by every request.
+     */
+    private final Key signingKey;
+    private final JwtParser parser;
+
+    private final Timer generateTimer;
+    private final Timer verifyTimer;
+
+    public JwtUtil(@Value("${jwt.secret}") String secret, MeterRegistry meterRegistry) {
+        this.signingKey = new SecretKeySpec(TextCodec.BASE64.decode(secret), SIGNATURE_ALGORITHM.getJcaName());
+        this.parser = Jwts.parser().setSigningKey(signingKey);
+        this.generateTimer = timer(meterRegistry, "generate");
+        this.verifyTimer = timer(meterRegistry, "verify");
+    }
+
+    private static Timer timer(MeterRegistry meterRegistry, String operation) {
+        return Timer.builder("dengine.jwt")
+                .description("Jwt token signing and verification")
+                .tag("operation", operation)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
 
     public String getUsernameForToken(String tokenString) {
         return getClaimForToken(tokenString, Claims::getSubject);
@@ -32,37 +64,58 @@ public class JwtUtil {
         return claimResolver.apply(claims);
     }
 
-    private Claims getAllClaimsFromToken(String tokenString) {
-        return
-                Jwts.parser().setSigningKey(secret).parseClaimsJws(tokenString).getBody();
+    // verifies the signature and the expiration once, the subject and expiration can then be checked without parsing again
+    public VerifiedToken getVerifiedToken(String tokenString) {
+        return VerifiedToken.of(getAllClaimsFromToken(tokenString));
     }
 
-    private Boolean isTokenExpired(String tokenStirng) {
-        final Date expirationDate = getExpirationDateForToken(tokenStirng);
-        return expirationDate.before(new Date());
+    private Claims getAllClaimsFromToken(String tokenString) {
+        long start = System.nanoTime();
+        try {
+            return parser.parseClaimsJws(tokenString).getBody();
+        } finally {
+            verifyTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
     }
 
-
     public String generateToken(UserDetails userDetails) {
         Map<String, Object> claims = new HashMap<>();
         return generateTokenFromClaims(claims, userDetails.getUsername());
     }
 
     private String generateTokenFromClaims(Map<String, Object> claims, String subject) {
-        return
+        long start = System.nanoTime();
+        long now = System.currentTimeMillis();
+        String token =
                 Jwts
                         .builder()
                         .setClaims(claims)
                         .setSubject(subject)
-                        .setIssuedAt(new Date(System.currentTimeMillis()))
-                        .setExpiration(new Date(System.currentTimeMillis() + JWT_VALIDITY * 1000))
-                        .signWith(SignatureAlgorithm.HS512, secret)
+                        .setIssuedAt(new Date(now))
+                        .setExpiration(new Date(now + JWT_VALIDITY * 1000))
+                        .signWith(SIGNATURE_ALGORITHM, signingKey)
                         .compact();
+        generateTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        return token;
     }
 
+    // a single parse checks the signature and the expiration, the subject is then checked on the parsed claims
     public Boolean validateToken(String tokenString, UserDetails userDetails) {
-        final String username = getUsernameForToken(tokenString);
-        boolean isUsernameMatchedAndNotExpired = username.equals(userDetails.getUsername()) && !isTokenExpired(tokenString);
-        return isUsernameMatchedAndNotExpired;
+        return validateClaims(getAllClaimsFromToken(tokenString), userDetails);
+    }
+
+    // a token without subject or expiration is never valid
+    public Boolean validateClaims(Claims claims, UserDetails userDetails) {
+        final Date expiration = claims.getExpiration();
+        return isUsernameMatchedAndNotExpired(claims.getSubject(), expiration == null ? null : expiration.toInstant(), userDetails);
+    }
+
+    public Boolean validateVerifiedToken(VerifiedToken verifiedToken, UserDetails userDetails) {
+        return isUsernameMatchedAndNotExpired(verifiedToken.subject(), verifiedToken.expiration(), userDetails);
+    }
+
+    private static boolean isUsernameMatchedAndNotExpired(String username, Instant expiration, UserDetails userDetails) {
+        return username != null && expiration != null
+                && username.equals(userDetails.getUsername()) && !expiration.isBefore(Instant.now());
     }
 }
@@ -0,0 +1,12 @@
+package com.inbank.dengine.config.util;
+
+import io.jsonwebtoken.Claims;
+import java.time.Instant;
+
+// what is left of a verified token once its signature is checked, immutable so it can be shared between requests
+public record VerifiedToken(String subject, Instant expiration) {
+
+    static VerifiedToken of(Claims claims) {
+        return new VerifiedToken(claims.getSubject(), claims.getExpiration() == null ? null : claims.getExpiration().toInstant());
+    }
+}
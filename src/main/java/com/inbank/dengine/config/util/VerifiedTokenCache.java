@@ -0,0 +1,93 @@
+package com.inbank.dengine.config.util;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * a client sends the same token with every request for its whole validity, the signature only needs to be checked once.
+ * entries are keyed by the sha-256 of the token, so the cache never holds a usable token, and expire with the token itself.
+ * only the immutable subject and expiration are kept, never the claims jjwt parsed, which any caller could modify.
+ * a token that fails verification is never cached and keeps throwing the jjwt exception.
+ */
+@Component
+public class VerifiedTokenCache {
+
+    private static final ThreadLocal<MessageDigest> SHA_256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    });
+
+    private final JwtUtil jwtUtil;
+    private final boolean enabled;
+    private final Cache<Key, VerifiedToken> cache;
+
+    public VerifiedTokenCache(JwtUtil jwtUtil,
+                              @Value("${jwt.token-cache.enabled:true}") boolean enabled,
+                              @Value("${jwt.token-cache.maximum-size:10000}") long maximumSize) {
+        this.jwtUtil = jwtUtil;
+        this.enabled = enabled;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(new TokenExpiry())
+                .build();
+    }
+
+    public VerifiedToken getVerifiedToken(String tokenString) {
+        if (!enabled) {
+            return jwtUtil.getVerifiedToken(tokenString);
+        }
+        Key key = Key.of(tokenString);
+        VerifiedToken verifiedToken = cache.getIfPresent(key);
+        if (verifiedToken == null) {
+            verifiedToken = jwtUtil.getVerifiedToken(tokenString);
+            // a token without expiration would stay valid in the cache forever
+            if (verifiedToken.expiration() != null) {
+                cache.put(key, verifiedToken);
+            }
+        }
+        return verifiedToken;
+    }
+
+    public long size() {
+        return cache.estimatedSize();
+    }
+
+    private static class TokenExpiry implements Expiry<Key, VerifiedToken> {
+
+        @Override
+        public long expireAfterCreate(Key key, VerifiedToken verifiedToken, long currentTime) {
+            long remainingMillis = verifiedToken.expiration().toEpochMilli() - System.currentTimeMillis();
+            return TimeUnit.MILLISECONDS.toNanos(Math.max(0, remainingMillis));
+        }
+
+        @Override
+        public long expireAfterUpdate(Key key, VerifiedToken verifiedToken, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, verifiedToken, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(Key key, VerifiedToken verifiedToken, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+
+    private record Key(long first, long second, long third, long fourth) {
+
+        static Key of(String tokenString) {
+            MessageDigest digest = SHA_256.get();
+            ByteBuffer hash = ByteBuffer.wrap(digest.digest(tokenString.getBytes(StandardCharsets.UTF_8)));
+            return new Key(hash.getLong(), hash.getLong(), hash.getLong(), hash.getLong());
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package com.inbank.dengine.decision.loan.audit;
+
+import com.inbank.dengine.decision.loan.dto.DecisionAuditRecordDTO;
+import com.inbank.dengine.decision.loan.dto.LoanDecisionRequestDTO;
+import com.inbank.dengine.decision.loan.dto.LoanDecisionResponseDTO;
+import com.inbank.dengine.decision.loan.model.LoanDecisionResult;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+
+/*
+ * binary form of one audited request and its answer (little endian buffers)
+ *   timestamp millis (long), kind (byte, decision or error), personal code, loan amount, loan period (int), policy version
+ *   decision : decision message, decided loan amount
+ *   error    : error message
+ * strings are a short byte length (-1 for null) and utf-8 bytes, decimals are the scale (byte), a byte length (0 for null)
+ * and the two's complement bytes of the unscaled value.
+ */
+final class DecisionAuditCodec {
+
+    // longest record : fixed fields, three capped strings and two decimals of at most 127 bytes
+    static final int MAXIMUM_RECORD_SIZE = 32 + 3 * (Short.BYTES + Short.MAX_VALUE) + 2 * (2 + Byte.MAX_VALUE);
+
+    private static final byte KIND_DECISION = 0;
+    private static final byte KIND_ERROR = 1;
+    private static final int NULL_PERIOD = Integer.MIN_VALUE;
+
+    private DecisionAuditCodec() {
+    }
+
+    static void encode(ByteBuffer buffer, long timestampMillis, String policyVersion, LoanDecisionRequestDTO request, LoanDecisionResult result) {
+        buffer.putLong(timestampMillis);
+        buffer.put(result.isError() ? KIND_ERROR : KIND_DECISION);
+        putString(buffer, request.getPersonalCode());
+        putDecimal(buffer, request.getLoanAmount());
+        buffer.putInt(request.getLoanPeriod() == null ? NULL_PERIOD : request.getLoanPeriod());
+        putString(buffer, policyVersion);
+        if (result.isError()) {
+            putString(buffer, result.getError());
+        } else {
+            LoanDecisionResponseDTO response = result.getResponse();
+            putString(buffer, response.getDecision());
+            putDecimal(buffer, response.getLoanAmount());
+        }
+    }
+
+    static DecisionAuditRecordDTO decode(ByteBuffer buffer) {
+        DecisionAuditRecordDTO.DecisionAuditRecordDTOBuilder record = DecisionAuditRecordDTO.builder()
+                .timestamp(Instant.ofEpochMilli(buffer.getLong()));
+        byte kind = buffer.get();
+        record.personalCode(getString(buffer))
+                .loanAmount(getDecimal(buffer));
+        int loanPeriod = buffer.getInt();
+        record.loanPeriod(loanPeriod == NULL_PERIOD ? null : loanPeriod)
+                .policyVersion(getString(buffer));
+        if (kind == KIND_ERROR) {
+            record.error(getString(buffer));
+        } else {
+            record.decision(getString(buffer))
+                    .decidedLoanAmount(getDecimal(buffer));
+        }
+        return record.build();
+    }
+
+    // personal codes are checked by the record filter before the whole record is decoded
+    static String getPersonalCode(ByteBuffer buffer) {
+        buffer.position(buffer.position() + Long.BYTES + 1);
+        return getString(buffer);
+    }
+
+    static long getTimestampMillis(ByteBuffer buffer) {
+        return buffer.getLong(buffer.position());
+    }
+
+    // strings longer than Short.MAX_VALUE bytes are cut, a cut multi byte character decodes as a replacement character.
+    // personal codes, policy versions and decision messages are ascii and are copied char by char without a byte array
+    private static void putString(ByteBuffer buffer, String value) {
+        if (value == null) {
+            buffer.putShort((short) -1);
+            return;
+        }
+        int length = value.length();
+        if (length <= Short.MAX_VALUE && isAscii(value)) {
+            buffer.putShort((short) length);
+            for (int i = 0; i < length; i++) {
+                buffer.put((byte) value.charAt(i));
+            }
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        length = Math.min(bytes.length, Short.MAX_VALUE);
+        buffer.putShort((short) length);
+        buffer.put(bytes, 0, length);
+    }
+
+    private static boolean isAscii(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            if (value.charAt(i) >= 0x80) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String getString(ByteBuffer buffer) {
+        int length = buffer.getShort();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    // amounts of any size can reach the journal, out of range requests are audited too. scales outside a byte are stored as null.
+    // whole amounts, the usual request, are written from their long value without creating the BigInteger
+    private static void putDecimal(ByteBuffer buffer, BigDecimal value) {
+        if (value != null && value.scale() == 0 && value.precision() < 19) {
+            long unscaled = value.longValue();
+            int length = Long.BYTES - (Long.numberOfLeadingZeros(unscaled < 0 ? ~unscaled : unscaled) - 1) / Byte.SIZE;
+            buffer.put((byte) 0);
+            buffer.put((byte) length);
+            for (int i = length - 1; i >= 0; i--) {
+                buffer.put((byte) (unscaled >> (i * Byte.SIZE)));
+            }
+            return;
+        }
+        byte[] unscaled = value == null ? null : value.unscaledValue().toByteArray();
+        if (unscaled == null || unscaled.length > Byte.MAX_VALUE || value.scale() != (byte) value.scale()) {
+            buffer.put((byte) 0);
+            buffer.put((byte) 0);
+            return;
+        }
+        buffer.put((byte) value.scale());
+        buffer.put((byte) unscaled.length);
+        buffer.put(unscaled);
+    }
+
+    private static BigDecimal getDecimal(ByteBuffer buffer) {
+        int scale = buffer.get();
+        int length = buffer.get();
+        if (length == 0) {
+            return null;
+        }
+        byte[] unscaled = new byte[length];
+        buffer.get(unscaled);
+        return new BigDecimal(new BigInteger(unscaled), scale);
+    }
+}
@@ -0,0 +1,424 @@
+package com.inbank.dengine.decision.loan.audit;
+
+import com.inbank.dengine.decision.loan.dto.DecisionAuditRecordDTO;
+import com.inbank.dengine.decision.loan.dto.LoanDecisionRequestDTO;
+import com.inbank.dengine.decision.loan.model.LoanDecisionResult;
+import com.inbank.dengine.exception.exceptionType.ServiceUnavailableException;
+import com.inbank.dengine.util.GlobalConstant;
+import com.inbank.dengine.util.MpscRingBuffer;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.zip.CRC32;
+
+/*
+ * every decided request and its answer, appended to pre-allocated memory mapped segments (audit.journal.directory).
+ * request threads only put a reference into a lock-free ring, one writer thread encodes the records into the current
+ * segment and forces the written range to disk every commit interval : one fsync for all the records of the interval,
+ * a crash loses at most the last interval.
+ *
+ * a decision is never served without its record : a full ring makes the request wait up to offer-timeout for the writer
+ * to free a slot, then fails it (503). while the writer can't open a segment it keeps its record and retries, new requests
+ * fail at once. a record that can't be encoded is replaced by an error record of the same request. dropping the records
+ * the ring can't take instead (audit.journal.drop-when-full) is an explicit choice.
+ *
+ * a restarted journal appends to its last segment when that one was closed cleanly and has room left, otherwise (crash,
+ * full segment, other segment size) it starts a new one : the tail of a segment that wasn't closed may hold torn records.
+ *
+ * segment : 64 byte header (magic, version, sequence, creation millis, end position of a cleanly closed segment or 0
+ *           while it is written), then records until the first zero length
+ * record  : body length (int), crc32 of the body (int), body (DecisionAuditCodec). the length is written last, a reader
+ *           never sees a length before its body
+ */
+@Slf4j
+@Component
+public class DecisionAuditJournal implements DisposableBean {
+
+    public static final String RECORDS = "dengine.audit.records";
+    public static final String COMMIT = "dengine.audit.commit";
+
+    static final long MAGIC = 0x444e474155444954L;
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 64;
+    static final int HEADER_MAGIC = 0;
+    static final int HEADER_VERSION = 8;
+    static final int HEADER_SEQUENCE = 16;
+    static final int HEADER_CREATED = 24;
+    static final int HEADER_END = 32;
+    static final int RECORD_HEADER_SIZE = 8;
+    static final String SEGMENT_PREFIX = "decisions-";
+    static final String SEGMENT_SUFFIX = ".journal";
+    static final String LOCK_FILE = "journal.lock";
+
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+    // a request waiting for a free slot spins a little, the writer usually frees one within microseconds, then parks
+    private static final int OFFER_SPINS = 100;
+    private static final long OFFER_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+    private static final long MINIMUM_SEGMENT_SIZE = HEADER_SIZE + RECORD_HEADER_SIZE + DecisionAuditCodec.MAXIMUM_RECORD_SIZE;
+
+    private final boolean enabled;
+    private final Path directory;
+    private final long segmentSize;
+    private final long commitIntervalNanos;
+    private final MpscRingBuffer<Entry> ring;
+    private final boolean dropWhenFull;
+    private final long offerTimeoutNanos;
+    private final Counter written;
+    private final Counter dropped;
+    private final Counter rejected;
+    private final Counter replaced;
+    private final Timer commits;
+    private final FileLock lock;
+    private final Clock clock;
+
+    // writer thread only
+    private final ByteBuffer body = ByteBuffer.allocate(DecisionAuditCodec.MAXIMUM_RECORD_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+    private final CRC32 crc = new CRC32();
+    private long sequence;
+    private FileChannel channel;
+    private MappedByteBuffer segment;
+    private int position;
+    private int committedPosition;
+
+    private final Thread writer;
+    private volatile boolean closing;
+    // set by the writer while it can't write its records, requests are rejected instead of queueing behind it
+    private volatile boolean writerFailed;
+
+    @Autowired
+    public DecisionAuditJournal(@Value("${audit.journal.enabled:true}") boolean enabled,
+                                @Value("${audit.journal.directory:audit}") Path directory,
+                                @Value("${audit.journal.segment-size:16MB}") DataSize segmentSize,
+                                @Value("${audit.journal.commit-interval:100ms}") Duration commitInterval,
+                                @Value("${audit.journal.ring-size:65536}") int ringSize,
+                                @Value("${audit.journal.offer-timeout:100ms}") Duration offerTimeout,
+                                @Value("${audit.journal.drop-when-full:false}") boolean dropWhenFull,
+                                MeterRegistry meterRegistry) {
+        this(enabled, directory, segmentSize, commitInterval, ringSize, offerTimeout, dropWhenFull, meterRegistry, Clock.systemUTC());
+    }
+
+    // record timestamps and segment creation times are read from the clock
+    public DecisionAuditJournal(boolean enabled, Path directory, DataSize segmentSize, Duration commitInterval, int ringSize,
+                                Duration offerTimeout, boolean dropWhenFull, MeterRegistry meterRegistry, Clock clock) {
+        this.enabled = enabled;
+        this.clock = clock;
+        this.directory = directory;
+        this.segmentSize = Math.min(Integer.MAX_VALUE, Math.max(MINIMUM_SEGMENT_SIZE, segmentSize.toBytes()));
+        this.commitIntervalNanos = commitInterval.toNanos();
+        this.ring = new MpscRingBuffer<>(ringSize);
+        this.dropWhenFull = dropWhenFull;
+        this.offerTimeoutNanos = offerTimeout.toNanos();
+        this.written = recordCounter(meterRegistry, "written");
+        this.dropped = recordCounter(meterRegistry, "dropped");
+        this.rejected = recordCounter(meterRegistry, "rejected");
+        this.replaced = recordCounter(meterRegistry, "replaced");
+        this.commits = Timer.builder(COMMIT)
+                .description("Forces of the records written during one commit interval to disk")
+                .register(meterRegistry);
+        if (!enabled) {
+            this.lock = null;
+            this.writer = null;
+            return;
+        }
+        try {
+            Files.createDirectories(directory);
+            this.lock = lock(directory);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Audit journal can't be opened in " + directory, e);
+        }
+        try {
+            this.sequence = DecisionAuditReader.segments(directory).stream().mapToLong(DecisionAuditReader::sequenceOf).max().orElse(0);
+            if (sequence == 0 || !reopenLastSegment()) {
+                openNextSegment();
+            }
+        } catch (IOException | RuntimeException e) {
+            // the directory is released, a journal opened after this failure must not find it locked
+            closeQuietly(channel, e);
+            closeQuietly(lock.channel(), e);
+            throw e instanceof IOException ? new UncheckedIOException("Audit journal can't be opened in " + directory, (IOException) e) : (RuntimeException) e;
+        }
+        this.writer = new Thread(this::writeLoop, "decision-audit-writer");
+        writer.setDaemon(true);
+        writer.start();
+        log.info("decision audit journal in {}, segments of {} bytes, commit every {}", directory.toAbsolutePath(), this.segmentSize, commitInterval);
+    }
+
+    // the reader skips segments by the creation time of the next one, which only holds with a single writer per directory
+    private static FileLock lock(Path directory) throws IOException {
+        FileChannel lockChannel = FileChannel.open(directory.resolve(LOCK_FILE), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        FileLock lock;
+        try {
+            lock = lockChannel.tryLock();
+        } catch (OverlappingFileLockException e) {
+            lock = null;
+        }
+        if (lock == null) {
+            lockChannel.close();
+            throw new IllegalStateException("Audit journal directory " + directory + " is already used by another journal");
+        }
+        return lock;
+    }
+
+    // called on the request thread, waits at most offer-timeout for a free slot. the request fails when its record can't be kept
+    public void record(String policyVersion, LoanDecisionRequestDTO request, LoanDecisionResult result) {
+        if (!enabled) {
+            return;
+        }
+        Entry entry = new Entry(clock.millis(), policyVersion, request, result);
+        if (dropWhenFull) {
+            if (!ring.offer(entry)) {
+                dropped.increment();
+            }
+            return;
+        }
+        if (!writerFailed && (ring.offer(entry) || offer(entry))) {
+            return;
+        }
+        rejected.increment();
+        throw new ServiceUnavailableException(GlobalConstant.AuditErrors.JOURNAL_UNAVAILABLE);
+    }
+
+    private boolean offer(Entry entry) {
+        long deadline = System.nanoTime() + offerTimeoutNanos;
+        for (int spins = 0; System.nanoTime() - deadline < 0 && !writerFailed; spins++) {
+            if (spins < OFFER_SPINS) {
+                Thread.onSpinWait();
+            } else {
+                LockSupport.parkNanos(OFFER_PARK_NANOS);
+            }
+            if (ring.offer(entry)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // records of the time range, from inclusive and to exclusive, both optional. records still in the ring aren't seen yet
+    public List<DecisionAuditRecordDTO> read(Instant from, Instant to, String personalCode, int limit) {
+        return DecisionAuditReader.read(directory, from, to, personalCode, limit);
+    }
+
+    private void writeLoop() {
+        long lastCommit = System.nanoTime();
+        Entry pending = null;
+        while (true) {
+            Entry entry = pending != null ? pending : ring.poll();
+            // a record that couldn't be appended is kept and tried again after a commit interval
+            pending = entry != null && !append(entry) ? entry : null;
+            long now = System.nanoTime();
+            if (position != committedPosition && now - lastCommit >= commitIntervalNanos) {
+                try {
+                    commit();
+                } catch (RuntimeException e) {
+                    // the records stay in the page cache, the next commit forces them again
+                    log.error("audit journal can't be forced to disk", e);
+                }
+                lastCommit = now;
+            }
+            if (pending != null && !closing) {
+                LockSupport.parkNanos(commitIntervalNanos);
+            } else if (entry == null || pending != null) {
+                if (closing) {
+                    // records offered between the empty poll and the closing flag are still in the ring
+                    int lost = pending == null || append(pending) ? 0 : 1;
+                    for (Entry last = ring.poll(); last != null; last = ring.poll()) {
+                        if (lost > 0 || !append(last)) {
+                            lost++;
+                        }
+                    }
+                    if (lost > 0) {
+                        log.error("audit journal closed with {} records it couldn't write", lost);
+                        dropped.increment(lost);
+                    }
+                    commit();
+                    markClosed();
+                    return;
+                }
+                LockSupport.parkNanos(IDLE_PARK_NANOS);
+            }
+        }
+    }
+
+    // false when the record can't be written now (no segment to write it to), it stays with the writer
+    private boolean append(Entry entry) {
+        int length = encode(entry);
+        try {
+            if (position + RECORD_HEADER_SIZE + length > segmentSize) {
+                commit();
+                openNextSegment();
+            }
+        } catch (IOException | RuntimeException e) {
+            if (!writerFailed) {
+                log.error("audit segment can't be opened, decision requests are rejected until it can", e);
+                writerFailed = true;
+            }
+            return false;
+        }
+        if (writerFailed) {
+            log.info("audit segment {} opened, decision requests are accepted again", sequence);
+            writerFailed = false;
+        }
+        crc.reset();
+        crc.update(body.array(), 0, length);
+        segment.put(position + RECORD_HEADER_SIZE, body.array(), 0, length);
+        segment.putInt(position + Integer.BYTES, (int) crc.getValue());
+        segment.putInt(position, length);
+        position += RECORD_HEADER_SIZE + length;
+        written.increment();
+        return true;
+    }
+
+    // the request of a record that can't be encoded is still kept, with the reason in place of its answer
+    private int encode(Entry entry) {
+        body.clear();
+        try {
+            DecisionAuditCodec.encode(body, entry.timestampMillis, entry.policyVersion, entry.request, entry.result);
+        } catch (RuntimeException e) {
+            log.error("audit record can't be encoded, it is replaced by an error record", e);
+            replaced.increment();
+            body.clear();
+            LoanDecisionRequestDTO request = LoanDecisionRequestDTO.builder()
+                    .personalCode(entry.request == null ? null : entry.request.getPersonalCode())
+                    .build();
+            DecisionAuditCodec.encode(body, entry.timestampMillis, entry.policyVersion, request,
+                    LoanDecisionResult.error(GlobalConstant.AuditErrors.RECORD_NOT_ENCODABLE + e));
+        }
+        return body.position();
+    }
+
+    private void commit() {
+        if (position == committedPosition) {
+            return;
+        }
+        long start = System.nanoTime();
+        segment.force(committedPosition, position - committedPosition);
+        commits.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        committedPosition = position;
+    }
+
+    // the end position in the header tells a restarted journal where to append, it is cleared before the next record
+    private void markClosed() {
+        segment.putLong(HEADER_END, position);
+        segment.force(0, HEADER_SIZE);
+    }
+
+    private boolean reopenLastSegment() throws IOException {
+        Path path = directory.resolve(DecisionAuditReader.segmentName(sequence));
+        FileChannel reopened = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            if (reopened.size() != segmentSize) {
+                reopened.close();
+                return false;
+            }
+            MappedByteBuffer mapped = reopened.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+            mapped.order(ByteOrder.LITTLE_ENDIAN);
+            long end = mapped.getLong(HEADER_END);
+            if (mapped.getLong(HEADER_MAGIC) != MAGIC || mapped.getInt(HEADER_VERSION) != VERSION
+                    || end < HEADER_SIZE || end + RECORD_HEADER_SIZE + DecisionAuditCodec.MAXIMUM_RECORD_SIZE > segmentSize) {
+                reopened.close();
+                return false;
+            }
+            mapped.putLong(HEADER_END, 0);
+            mapped.force(0, HEADER_SIZE);
+            channel = reopened;
+            segment = mapped;
+            position = (int) end;
+            committedPosition = position;
+            return true;
+        } catch (IOException | RuntimeException e) {
+            reopened.close();
+            throw e;
+        }
+    }
+
+    // the current segment is kept until the next one is ready, a failed attempt leaves no file and is tried again
+    private void openNextSegment() throws IOException {
+        long next = sequence + 1;
+        Path path = directory.resolve(DecisionAuditReader.segmentName(next));
+        FileChannel opened = FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        MappedByteBuffer mapped;
+        try {
+            mapped = opened.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+            mapped.order(ByteOrder.LITTLE_ENDIAN);
+            mapped.putLong(HEADER_MAGIC, MAGIC);
+            mapped.putInt(HEADER_VERSION, VERSION);
+            mapped.putLong(HEADER_SEQUENCE, next);
+            mapped.putLong(HEADER_CREATED, clock.millis());
+            mapped.force(0, HEADER_SIZE);
+        } catch (IOException | RuntimeException e) {
+            closeQuietly(opened, e);
+            try {
+                Files.deleteIfExists(path);
+            } catch (IOException deleteFailure) {
+                e.addSuppressed(deleteFailure);
+            }
+            throw e;
+        }
+        if (channel != null) {
+            channel.close();
+        }
+        channel = opened;
+        segment = mapped;
+        sequence = next;
+        position = HEADER_SIZE;
+        committedPosition = HEADER_SIZE;
+    }
+
+    // the records left in the ring are written and forced before the application stops
+    @Override
+    public void destroy() throws Exception {
+        if (writer == null) {
+            return;
+        }
+        closing = true;
+        LockSupport.unpark(writer);
+        writer.join(TimeUnit.SECONDS.toMillis(10));
+        channel.close();
+        lock.channel().close();
+    }
+
+    private static void closeQuietly(Closeable closeable, Exception failure) {
+        if (closeable == null) {
+            return;
+        }
+        try {
+            closeable.close();
+        } catch (IOException e) {
+            failure.addSuppressed(e);
+        }
+    }
+
+    private static Counter recordCounter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder(RECORDS)
+                .description("Decisions written to the audit journal, rejected (503) or dropped because the journal couldn't take them, or replaced by an error record")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    private record Entry(long timestampMillis, String policyVersion, LoanDecisionRequestDTO request, LoanDecisionResult result) {
+    }
+}
@@ -0,0 +1,124 @@
+package com.inbank.dengine.decision.loan.audit;
+
+import com.inbank.dengine.decision.loan.dto.DecisionAuditRecordDTO;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/*
+ * scans the segments of an audit journal directory in order, while the journal is being written too.
+ * a segment only holds records made before the next segment was created, segments created before the start
+ * of the range are skipped without reading them. a segment ends at the first zero length or damaged record.
+ */
+public final class DecisionAuditReader {
+
+    private DecisionAuditReader() {
+    }
+
+    public static List<DecisionAuditRecordDTO> read(Path directory, Instant from, Instant to, String personalCode, int limit) {
+        long fromMillis = from == null ? Long.MIN_VALUE : from.toEpochMilli();
+        long toMillis = to == null ? Long.MAX_VALUE : to.toEpochMilli();
+        List<DecisionAuditRecordDTO> records = new ArrayList<>();
+        try {
+            List<Path> segments = segments(directory);
+            for (int i = 0; i < segments.size() && records.size() < limit; i++) {
+                if (i + 1 < segments.size() && createdMillis(segments.get(i + 1)) < fromMillis) {
+                    continue;
+                }
+                read(segments.get(i), fromMillis, toMillis, personalCode, limit, records);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return records;
+    }
+
+    static List<Path> segments(Path directory) throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> isSegmentName(path.getFileName().toString()))
+                    .sorted(Comparator.comparingLong(DecisionAuditReader::sequenceOf))
+                    .collect(Collectors.toList());
+        }
+    }
+
+    static String segmentName(long sequence) {
+        return String.format("%s%016d%s", DecisionAuditJournal.SEGMENT_PREFIX, sequence, DecisionAuditJournal.SEGMENT_SUFFIX);
+    }
+
+    static long sequenceOf(Path segment) {
+        String name = segment.getFileName().toString();
+        return Long.parseLong(name.substring(DecisionAuditJournal.SEGMENT_PREFIX.length(), name.length() - DecisionAuditJournal.SEGMENT_SUFFIX.length()));
+    }
+
+    private static boolean isSegmentName(String name) {
+        if (!name.startsWith(DecisionAuditJournal.SEGMENT_PREFIX) || !name.endsWith(DecisionAuditJournal.SEGMENT_SUFFIX)) {
+            return false;
+        }
+        String sequence = name.substring(DecisionAuditJournal.SEGMENT_PREFIX.length(), name.length() - DecisionAuditJournal.SEGMENT_SUFFIX.length());
+        return !sequence.isEmpty() && sequence.chars().allMatch(Character::isDigit);
+    }
+
+    private static long createdMillis(Path segment) throws IOException {
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(DecisionAuditJournal.HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            channel.read(header, 0);
+            return header.getLong(DecisionAuditJournal.HEADER_CREATED);
+        }
+    }
+
+    private static void read(Path path, long fromMillis, long toMillis, String personalCode, int limit, List<DecisionAuditRecordDTO> records) throws IOException {
+        MappedByteBuffer segment;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() < DecisionAuditJournal.HEADER_SIZE) {
+                return;
+            }
+            segment = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        segment.order(ByteOrder.LITTLE_ENDIAN);
+        if (segment.getLong(DecisionAuditJournal.HEADER_MAGIC) != DecisionAuditJournal.MAGIC
+                || segment.getInt(DecisionAuditJournal.HEADER_VERSION) != DecisionAuditJournal.VERSION) {
+            throw new IllegalStateException("Not an audit journal segment : " + path);
+        }
+
+        CRC32 crc = new CRC32();
+        int position = DecisionAuditJournal.HEADER_SIZE;
+        while (records.size() < limit && position + DecisionAuditJournal.RECORD_HEADER_SIZE <= segment.limit()) {
+            int length = segment.getInt(position);
+            if (length <= 0 || position + DecisionAuditJournal.RECORD_HEADER_SIZE + length > segment.limit()) {
+                return;
+            }
+            ByteBuffer body = segment.slice(position + DecisionAuditJournal.RECORD_HEADER_SIZE, length).order(ByteOrder.LITTLE_ENDIAN);
+            crc.reset();
+            crc.update(body.duplicate());
+            if ((int) crc.getValue() != segment.getInt(position + Integer.BYTES)) {
+                return;
+            }
+            position += DecisionAuditJournal.RECORD_HEADER_SIZE + length;
+
+            long timestampMillis = DecisionAuditCodec.getTimestampMillis(body);
+            if (timestampMillis < fromMillis || timestampMillis >= toMillis) {
+                continue;
+            }
+            if (personalCode != null && !personalCode.equals(DecisionAuditCodec.getPersonalCode(body.duplicate().order(ByteOrder.LITTLE_ENDIAN)))) {
+                continue;
+            }
+            records.add(DecisionAuditCodec.decode(body));
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.inbank.dengine.decision.loan.binary;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+
+/*
+ * frames of the binary decision protocol, big endian : frame length (int, type byte included), type (byte), body
+ *
+ * client frames
+ *   AUTH      token (utf)                                              first frame of a connection, a jwt from api/authenticate
+ *   DECISION  request id (int), personal code (utf), loan amount (decimal), loan period (int)
+ * server frames
+ *   AUTH_OK
+ *   DECISION  request id (int), decision (utf), loan amount (decimal)
+ *   ERROR     request id (int, 0 for the connection itself), message (utf)
+ *
+ * utf : length (unsigned short) and modified utf-8 bytes (DataOutput.writeUTF)
+ * decimal : scale (byte) and unscaled value (long), a null amount has the scale NULL_SCALE
+ * requests can be pipelined, answers come back in request order. an ERROR about the connection closes it.
+ */
+public final class BinaryDecisionProtocol {
+
+    public static final byte AUTH = 1;
+    public static final byte AUTH_OK = 2;
+    public static final byte DECISION = 3;
+    public static final byte ERROR = 4;
+
+    public static final int CONNECTION = 0;
+    public static final int MAXIMUM_FRAME_SIZE = 8 * 1024;
+    public static final byte NULL_SCALE = Byte.MIN_VALUE;
+
+    private static final BigInteger MINIMUM_UNSCALED = BigInteger.valueOf(Long.MIN_VALUE);
+    private static final BigInteger MAXIMUM_UNSCALED = BigInteger.valueOf(Long.MAX_VALUE);
+
+    private BinaryDecisionProtocol() {}
+
+    public static void writeDecimal(DataOutput output, BigDecimal value) throws IOException {
+        if (value == null) {
+            output.writeByte(NULL_SCALE);
+            output.writeLong(0);
+            return;
+        }
+        BigInteger unscaled = value.unscaledValue();
+        if (value.scale() <= NULL_SCALE || value.scale() > Byte.MAX_VALUE
+                || unscaled.compareTo(MINIMUM_UNSCALED) < 0 || unscaled.compareTo(MAXIMUM_UNSCALED) > 0) {
+            throw new IllegalArgumentException("Amount can't be encoded as a scale byte and a long : " + value);
+        }
+        output.writeByte(value.scale());
+        output.writeLong(unscaled.longValue());
+    }
+
+    public static BigDecimal readDecimal(DataInput input) throws IOException {
+        byte scale = input.readByte();
+        long unscaled = input.readLong();
+        return scale == NULL_SCALE ? null : BigDecimal.valueOf(unscaled, scale);
+    }
+}
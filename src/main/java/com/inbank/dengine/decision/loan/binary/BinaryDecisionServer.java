@@ -0,0 +1,359 @@
+package com.inbank.dengine.decision.loan.binary;
+
+import com.inbank.dengine.config.user.AppUserDetailsService;
+import com.inbank.dengine.config.util.JwtUtil;
+import com.inbank.dengine.config.util.VerifiedToken;
+import com.inbank.dengine.config.util.VerifiedTokenCache;
+import com.inbank.dengine.decision.loan.dto.LoanDecisionRequestDTO;
+import com.inbank.dengine.decision.loan.model.LoanDecisionResult;
+import com.inbank.dengine.decision.loan.service.LoanDecisionService;
+import com.inbank.dengine.exception.exceptionType.ServerException;
+import com.inbank.dengine.util.GlobalConstant;
+import io.jsonwebtoken.JwtException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.stereotype.Component;
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.net.SocketTimeoutException;
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/*
+ * loan decisions over a plain tcp socket (BinaryDecisionProtocol) for internal callers sending many requests : no http
+ * parsing, no json and one token check per connection instead of one per request. requests go through
+ * LoanDecisionService like the http ones, validation messages and answers are the same.
+ * one pooled thread per connection with blocking io, answers are buffered and flushed once the pipelined requests
+ * already received are answered. connections over decision.binary.maximum-connections are closed right away.
+ * a connection that doesn't authenticate within decision.binary.authentication-timeout or stays silent for
+ * decision.binary.idle-timeout is closed, silent clients would otherwise keep every connection thread.
+ * the port only listens on decision.binary.address, the loopback interface unless configured otherwise.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "decision.binary.enabled", havingValue = "true")
+// the port has to be open once the application started, also with spring.main.lazy-initialization
+@Lazy(false)
+public class BinaryDecisionServer implements DisposableBean {
+
+    public static final String CONNECTIONS = "dengine.binary.connections";
+    public static final String REQUESTS = "dengine.binary.requests";
+
+    private static final int BUFFER_SIZE = 16 * 1024;
+
+    private final LoanDecisionService loanDecisionService;
+    private final Validator validator;
+    private final VerifiedTokenCache verifiedTokenCache;
+    private final JwtUtil jwtUtil;
+    private final AppUserDetailsService appUserDetailsService;
+    private final ServerSocket serverSocket;
+    private final ExecutorService connections;
+    // closed on shutdown, a thread blocked on a socket read can't be interrupted
+    private final Set<Socket> openSockets = ConcurrentHashMap.newKeySet();
+    private final Counter decided;
+    private final Counter failed;
+    private final Counter refused;
+    private final Counter timedOut;
+    private final int authenticationTimeoutMillis;
+    private final int idleTimeoutMillis;
+    private final Thread acceptor;
+
+    public BinaryDecisionServer(LoanDecisionService loanDecisionService,
+                                Validator validator,
+                                VerifiedTokenCache verifiedTokenCache,
+                                JwtUtil jwtUtil,
+                                AppUserDetailsService appUserDetailsService,
+                                MeterRegistry meterRegistry,
+                                @Value("${decision.binary.address:127.0.0.1}") String address,
+                                @Value("${decision.binary.port:9090}") int port,
+                                @Value("${decision.binary.maximum-connections:64}") int maximumConnections,
+                                @Value("${decision.binary.authentication-timeout:5s}") Duration authenticationTimeout,
+                                @Value("${decision.binary.idle-timeout:5m}") Duration idleTimeout) {
+        this.loanDecisionService = loanDecisionService;
+        this.validator = validator;
+        this.verifiedTokenCache = verifiedTokenCache;
+        this.jwtUtil = jwtUtil;
+        this.appUserDetailsService = appUserDetailsService;
+        this.authenticationTimeoutMillis = timeoutMillis(authenticationTimeout);
+        this.idleTimeoutMillis = timeoutMillis(idleTimeout);
+        AtomicInteger threads = new AtomicInteger();
+        this.connections = new ThreadPoolExecutor(0, maximumConnections, 60, TimeUnit.SECONDS, new SynchronousQueue<>(), runnable -> {
+            Thread thread = new Thread(runnable, "binary-decision-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        Gauge.builder(CONNECTIONS, openSockets, Set::size)
+                .description("Open connections of the binary decision protocol")
+                .register(meterRegistry);
+        this.decided = requestCounter(meterRegistry, "decided");
+        this.failed = requestCounter(meterRegistry, "error");
+        this.refused = Counter.builder(CONNECTIONS + ".refused")
+                .description("Binary protocol connections closed because every connection thread was taken")
+                .register(meterRegistry);
+        this.timedOut = Counter.builder(CONNECTIONS + ".timed.out")
+                .description("Binary protocol connections closed because the client didn't authenticate or stayed silent for too long")
+                .register(meterRegistry);
+        try {
+            this.serverSocket = new ServerSocket();
+            serverSocket.bind(new InetSocketAddress(InetAddress.getByName(address), port));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Binary decision protocol can't listen on " + address + ":" + port, e);
+        }
+        this.acceptor = new Thread(this::acceptLoop, "binary-decision-acceptor");
+        acceptor.setDaemon(true);
+        acceptor.start();
+        log.info("binary decision protocol on {}:{}, {} connections at most", address, getPort(), maximumConnections);
+    }
+
+    // 0 would be no timeout at all for a socket
+    private static int timeoutMillis(Duration timeout) {
+        return (int) Math.max(1, Math.min(Integer.MAX_VALUE, timeout.toMillis()));
+    }
+
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    private void acceptLoop() {
+        while (!serverSocket.isClosed()) {
+            Socket socket;
+            try {
+                socket = serverSocket.accept();
+            } catch (IOException e) {
+                if (!serverSocket.isClosed()) {
+                    log.error("binary decision connection can't be accepted", e);
+                }
+                continue;
+            }
+            try {
+                connections.execute(() -> serve(socket));
+            } catch (RejectedExecutionException e) {
+                refused.increment();
+                close(socket);
+            }
+        }
+    }
+
+    private void serve(Socket socket) {
+        openSockets.add(socket);
+        try (socket) {
+            socket.setTcpNoDelay(true);
+            socket.setSoTimeout(authenticationTimeoutMillis);
+            DataInputStream input = new DataInputStream(new BufferedInputStream(socket.getInputStream(), BUFFER_SIZE));
+            DataOutputStream output = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream(), BUFFER_SIZE));
+            Connection connection = new Connection(input, output);
+            if (connection.authenticate()) {
+                socket.setSoTimeout(idleTimeoutMillis);
+                connection.answer();
+            }
+        } catch (SocketTimeoutException e) {
+            timedOut.increment();
+        } catch (EOFException | SocketException e) {
+            // the client went away, between frames or in the middle of one
+        } catch (IOException e) {
+            log.warn("binary decision connection failed", e);
+        } catch (RuntimeException e) {
+            log.error("binary decision connection failed, it is closed", e);
+        } finally {
+            openSockets.remove(socket);
+        }
+    }
+
+    @Override
+    public void destroy() throws IOException {
+        serverSocket.close();
+        connections.shutdown();
+        openSockets.forEach(BinaryDecisionServer::close);
+    }
+
+    private static void close(Socket socket) {
+        try {
+            socket.close();
+        } catch (IOException e) {
+            // nothing left to release
+        }
+    }
+
+    private static Counter requestCounter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder(REQUESTS)
+                .description("Decision requests received over the binary protocol")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    private class Connection {
+
+        private final DataInputStream input;
+        private final DataOutputStream output;
+        // a frame is read whole before it is parsed, a body shorter or longer than its length can't shift the next frames
+        private final byte[] bodyBytes = new byte[BinaryDecisionProtocol.MAXIMUM_FRAME_SIZE];
+        private final ByteArrayInputStream bodyInput = new ByteArrayInputStream(bodyBytes);
+        private final DataInputStream body = new DataInputStream(bodyInput);
+        private int bodyLength;
+        // frames are built here first, the length goes before them
+        private final ByteArrayOutputStream frameBytes = new ByteArrayOutputStream(256);
+        private final DataOutputStream frame = new DataOutputStream(frameBytes);
+        private long tokenExpirationMillis;
+
+        private Connection(DataInputStream input, DataOutputStream output) {
+            this.input = input;
+            this.output = output;
+        }
+
+        // the first frame has to carry a token of an existing user, the connection is closed otherwise
+        private boolean authenticate() throws IOException {
+            if (readFrame() != BinaryDecisionProtocol.AUTH) {
+                return fail(GlobalConstant.BinaryProtocolErrors.AUTHENTICATION_EXPECTED);
+            }
+            String token = body.readUTF();
+            if (!bodyRead()) {
+                return false;
+            }
+            try {
+                VerifiedToken verifiedToken = verifiedTokenCache.getVerifiedToken(token);
+                if (verifiedToken.expiration() == null || !jwtUtil.validateVerifiedToken(verifiedToken, appUserDetailsService.loadUserByUsername(verifiedToken.subject()))) {
+                    return fail(GlobalConstant.BinaryProtocolErrors.INVALID_TOKEN);
+                }
+                tokenExpirationMillis = verifiedToken.expiration().toEpochMilli();
+            } catch (JwtException | AuthenticationException | IllegalArgumentException e) {
+                return fail(GlobalConstant.BinaryProtocolErrors.INVALID_TOKEN);
+            }
+            frame.writeByte(BinaryDecisionProtocol.AUTH_OK);
+            writeFrame();
+            output.flush();
+            return true;
+        }
+
+        private void answer() throws IOException {
+            while (true) {
+                if (readFrame() != BinaryDecisionProtocol.DECISION) {
+                    fail(GlobalConstant.BinaryProtocolErrors.DECISION_EXPECTED);
+                    return;
+                }
+                // the token was checked once, the connection ends with it
+                if (System.currentTimeMillis() >= tokenExpirationMillis) {
+                    fail(GlobalConstant.BinaryProtocolErrors.TOKEN_EXPIRED);
+                    return;
+                }
+                int requestId = body.readInt();
+                LoanDecisionRequestDTO request = LoanDecisionRequestDTO.builder()
+                        .personalCode(body.readUTF())
+                        .loanAmount(BinaryDecisionProtocol.readDecimal(body))
+                        .loanPeriod(body.readInt())
+                        .build();
+                if (!bodyRead()) {
+                    return;
+                }
+                decide(requestId, request);
+                writeFrame();
+                // pipelined requests already received are answered before the answers are sent
+                if (input.available() == 0) {
+                    output.flush();
+                }
+            }
+        }
+
+        private void decide(int requestId, LoanDecisionRequestDTO request) throws IOException {
+            Set<ConstraintViolation<LoanDecisionRequestDTO>> violations = validator.validate(request);
+            if (!violations.isEmpty()) {
+                error(requestId, violations.stream().map(ConstraintViolation::getMessage).sorted().collect(Collectors.joining(",")));
+                return;
+            }
+            LoanDecisionResult result;
+            try {
+                result = loanDecisionService.getLoanDecisionResult(request);
+            } catch (ServerException e) {
+                error(requestId, e.getMessage());
+                return;
+            }
+            if (result.isError()) {
+                error(requestId, result.getError());
+                return;
+            }
+            frame.writeByte(BinaryDecisionProtocol.DECISION);
+            frame.writeInt(requestId);
+            frame.writeUTF(result.getResponse().getDecision());
+            try {
+                BinaryDecisionProtocol.writeDecimal(frame, result.getResponse().getLoanAmount());
+            } catch (IllegalArgumentException e) {
+                // the decision written so far is replaced by the error
+                log.error("binary decision answer of request {} can't be encoded", requestId, e);
+                frameBytes.reset();
+                error(requestId, GlobalConstant.BinaryProtocolErrors.AMOUNT_NOT_ENCODABLE);
+                return;
+            }
+            decided.increment();
+        }
+
+        private void error(int requestId, String message) throws IOException {
+            failed.increment();
+            frame.writeByte(BinaryDecisionProtocol.ERROR);
+            frame.writeInt(requestId);
+            frame.writeUTF(message);
+        }
+
+        // an error about the connection itself, it is closed after it
+        private boolean fail(String message) throws IOException {
+            frameBytes.reset();
+            frame.writeByte(BinaryDecisionProtocol.ERROR);
+            frame.writeInt(BinaryDecisionProtocol.CONNECTION);
+            frame.writeUTF(message);
+            writeFrame();
+            output.flush();
+            return false;
+        }
+
+        // the type of the next frame, its body is parsed by the caller
+        private byte readFrame() throws IOException {
+            bodyLength = input.readInt();
+            if (bodyLength < 1 || bodyLength > BinaryDecisionProtocol.MAXIMUM_FRAME_SIZE) {
+                fail(GlobalConstant.BinaryProtocolErrors.INVALID_FRAME + bodyLength);
+                throw new EOFException("frame length " + bodyLength);
+            }
+            input.readFully(bodyBytes, 0, bodyLength);
+            bodyInput.reset();
+            return body.readByte();
+        }
+
+        // false when the parsed fields didn't take the whole frame, the connection is closed then
+        private boolean bodyRead() throws IOException {
+            int parsed = bodyBytes.length - bodyInput.available();
+            return parsed == bodyLength || fail(GlobalConstant.BinaryProtocolErrors.INVALID_FRAME + bodyLength);
+        }
+
+        private void writeFrame() throws IOException {
+            output.writeInt(frameBytes.size());
+            frameBytes.writeTo(output);
+            frameBytes.reset();
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.inbank.dengine.decision.loan.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.inbank.dengine.account.model.Account;
+import com.inbank.dengine.decision.loan.dto.LoanDecisionCacheStatsDTO;
+import com.inbank.dengine.decision.loan.engine.LoanDecisionEngine;
+import com.inbank.dengine.decision.loan.model.LoanDecision;
+import com.inbank.dengine.decision.loan.policy.LoanPolicy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import java.math.BigDecimal;
+
+/*
+ * a decision only depends on the credit modifier and the requested amount and period, so customers with the same
+ * modifier share entries. caffeine bounds the size with W-TinyLFU, which keeps the popular slider combinations.
+ * entries are keyed by the policy instance too, decisions of a replaced policy are never served and age out of the cache.
+ */
+@Component
+public class LoanDecisionCache {
+
+    private final boolean enabled;
+    private final Cache<Key, LoanDecision> cache;
+
+    public LoanDecisionCache(@Value("${decision.cache.enabled:true}") boolean enabled,
+                             @Value("${decision.cache.maximum-size:10000}") long maximumSize) {
+        this.enabled = enabled;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .recordStats()
+                .build();
+    }
+
+    public LoanDecision getLoanDecision(Account account, BigDecimal loanAmount, int loanPeriod, LoanDecisionEngine loanDecisionEngine) {
+        return getLoanDecision(LoanPolicy.BUILT_IN, account, loanAmount, loanPeriod, loanDecisionEngine);
+    }
+
+    public LoanDecision getLoanDecision(LoanPolicy loanPolicy, Account account, BigDecimal loanAmount, int loanPeriod, LoanDecisionEngine loanDecisionEngine) {
+        // debt decisions are constant and invalid modifiers must keep failing, neither is worth an entry
+        if (!enabled || account.getIsDebt() || account.getCreditModifier() == null) {
+            return loanDecisionEngine.evaluate(loanPolicy, account, loanAmount, loanPeriod);
+        }
+        // BigDecimal equals compares the scale too, so a cached amount is serialized exactly like a computed one
+        return cache.get(new Key(loanPolicy, account.getCreditModifier(), loanAmount, loanPeriod),
+                key -> loanDecisionEngine.evaluate(loanPolicy, account, loanAmount, loanPeriod));
+    }
+
+    public LoanDecisionCacheStatsDTO getStats() {
+        CacheStats stats = cache.stats();
+        return LoanDecisionCacheStatsDTO.builder()
+                .enabled(enabled)
+                .size(cache.estimatedSize())
+                .hitCount(stats.hitCount())
+                .missCount(stats.missCount())
+                .hitRate(stats.hitRate())
+                .evictionCount(stats.evictionCount())
+                .build();
+    }
+
+    // LoanPolicy has identity equality, so the key compares the policy with a reference check
+    private record Key(LoanPolicy loanPolicy, BigDecimal creditModifier, BigDecimal loanAmount, int loanPeriod) {
+    }
+}
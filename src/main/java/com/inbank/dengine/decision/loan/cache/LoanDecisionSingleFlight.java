@@ -0,0 +1,45 @@
+package com.inbank.dengine.decision.loan.cache;
+
+import com.inbank.dengine.decision.loan.dto.LoanDecisionRequestDTO;
+import com.inbank.dengine.decision.loan.model.LoanDecisionResult;
+import com.inbank.dengine.decision.loan.policy.LoanPolicy;
+import com.inbank.dengine.util.SingleFlight;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import java.math.BigDecimal;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+/*
+ * identical decision requests in flight at the same time (a customer's browser firing the same request several times)
+ * share one account lookup and one evaluation. unlike the decision cache the key has the personal code, and nothing
+ * is kept once the decision is made. decision metrics count the shared evaluation once.
+ * off unless decision.single-flight.enabled : on the in memory store the shared call costs more than the decision.
+ */
+@Component
+public class LoanDecisionSingleFlight {
+
+    private final SingleFlight<Key, LoanDecisionResult> singleFlight;
+
+    public LoanDecisionSingleFlight(@Value("${decision.single-flight.enabled:false}") boolean enabled, MeterRegistry meterRegistry) {
+        this.singleFlight = new SingleFlight<>("decision", enabled, meterRegistry);
+    }
+
+    public LoanDecisionResult getLoanDecisionResult(LoanPolicy loanPolicy, LoanDecisionRequestDTO loanDecisionRequestDTO, Supplier<LoanDecisionResult> decision) {
+        return singleFlight.call(key(loanPolicy, loanDecisionRequestDTO), decision);
+    }
+
+    public CompletableFuture<LoanDecisionResult> getLoanDecisionResultAsync(LoanPolicy loanPolicy, LoanDecisionRequestDTO loanDecisionRequestDTO,
+                                                                            Supplier<CompletableFuture<LoanDecisionResult>> decision) {
+        return singleFlight.callAsync(key(loanPolicy, loanDecisionRequestDTO), decision);
+    }
+
+    private static Key key(LoanPolicy loanPolicy, LoanDecisionRequestDTO loanDecisionRequestDTO) {
+        return new Key(loanPolicy, loanDecisionRequestDTO.getPersonalCode(), loanDecisionRequestDTO.getLoanAmount(), loanDecisionRequestDTO.getLoanPeriod());
+    }
+
+    // BigDecimal equals compares the scale too, 2000 and 2000.00 are answered with differently scaled amounts
+    private record Key(LoanPolicy loanPolicy, String personalCode, BigDecimal loanAmount, int loanPeriod) {
+    }
+}
@@ -1,12 +1,35 @@
 package com.inbank.dengine.decision.loan.controller;
 
+import com.inbank.dengine.decision.loan.audit.DecisionAuditJournal;
+import com.inbank.dengine.decision.loan.cache.LoanDecisionCache;
+import com.inbank.dengine.decision.loan.dto.DecisionAuditRecordDTO;
+import com.inbank.dengine.decision.loan.dto.LoanDecisionCacheStatsDTO;
 import com.inbank.dengine.decision.loan.dto.LoanDecisionRequestDTO;
 import com.inbank.dengine.decision.loan.dto.LoanDecisionResponseDTO;
+import com.inbank.dengine.decision.loan.dto.LoanOfferMatrixDTO;
+import com.inbank.dengine.decision.loan.dto.LoanOfferRequestDTO;
+import com.inbank.dengine.decision.loan.dto.PreApprovedOfferDTO;
+import com.inbank.dengine.decision.loan.dto.PreApprovedOfferReportDTO;
+import com.inbank.dengine.decision.loan.service.LoanDecisionBatchService;
+import com.inbank.dengine.decision.loan.model.LoanDecisionResult;
 import com.inbank.dengine.decision.loan.service.LoanDecisionService;
+import com.inbank.dengine.decision.loan.service.LoanOfferService;
+import com.inbank.dengine.decision.loan.service.PreApprovedOfferService;
+import com.inbank.dengine.exception.model.ErrorDetails;
+import com.inbank.dengine.util.GlobalConstant;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
 import javax.validation.Valid;
+import java.io.IOException;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 @CrossOrigin
 @RestController
@@ -15,9 +38,74 @@ import javax.validation.Valid;
 
 public class LoanDecisionController {
     private final LoanDecisionService loanDecisionService;
+    private final LoanDecisionBatchService loanDecisionBatchService;
+    private final LoanDecisionCache loanDecisionCache;
+    private final LoanOfferService loanOfferService;
+    private final PreApprovedOfferService preApprovedOfferService;
+    private final DecisionAuditJournal decisionAuditJournal;
+    private final LoanRequestErrorBodies loanRequestErrorBodies;
 
+    // rejected requests get the same body as GlobalExceptionHandler writes, without going through an exception.
+    // out of range requests get their pre-encoded body with only the timestamp added
     @GetMapping()
-    public ResponseEntity<LoanDecisionResponseDTO> getLoanDecision (@Valid LoanDecisionRequestDTO loanDecisionRequestDTO ) {
-        return ResponseEntity.ok().body(loanDecisionService.getLoanDecision(loanDecisionRequestDTO));
+    public ResponseEntity<?> getLoanDecision (@Valid LoanDecisionRequestDTO loanDecisionRequestDTO, HttpServletRequest request) {
+        LoanDecisionResult loanDecisionResult = loanDecisionService.getLoanDecisionResult(loanDecisionRequestDTO);
+        if (loanDecisionResult.getRequestError() != null) {
+            return ResponseEntity.badRequest().contentType(MediaType.APPLICATION_JSON).body(loanRequestErrorBodies.body(
+                    loanDecisionResult.getRequestError(), loanDecisionResult.getError(), request.getRequestURI(), Instant.now()));
+        }
+        if (loanDecisionResult.isError()) {
+            return ResponseEntity.badRequest().body(new ErrorDetails(Instant.now(), loanDecisionResult.getError(), "uri=" + request.getRequestURI()));
+        }
+        return ResponseEntity.ok().body(loanDecisionResult.getResponse());
+    }
+
+    // the request thread is released while the account is looked up, the response is written when the future completes
+    @GetMapping("/async")
+    public CompletableFuture<ResponseEntity<LoanDecisionResponseDTO>> getLoanDecisionAsync (@Valid LoanDecisionRequestDTO loanDecisionRequestDTO ) {
+        return loanDecisionService.getLoanDecisionAsync(loanDecisionRequestDTO)
+                .thenApply(loanDecisionResponseDTO -> ResponseEntity.ok().body(loanDecisionResponseDTO));
+    }
+
+    @PostMapping(value = "/batch", consumes = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.APPLICATION_JSON_VALUE})
+    public void getLoanDecisions (HttpServletRequest request, HttpServletResponse response) throws IOException {
+        boolean jsonArray = MediaType.APPLICATION_JSON.includes(MediaType.parseMediaType(request.getContentType()));
+        response.setContentType(jsonArray ? MediaType.APPLICATION_JSON_VALUE : MediaType.APPLICATION_NDJSON_VALUE);
+        loanDecisionBatchService.getLoanDecisions(request.getInputStream(), response.getOutputStream(), jsonArray);
+    }
+
+    // maximum amount for every loan period, and the shortest period for the amount when one is given
+    @GetMapping("/offers")
+    public ResponseEntity<LoanOfferMatrixDTO> getLoanOffers (@Valid LoanOfferRequestDTO loanOfferRequestDTO ) {
+        return ResponseEntity.ok().body(loanOfferService.getLoanOffers(loanOfferRequestDTO));
+    }
+
+    // answered from the last rebuild of the offer index, the account itself is not read
+    @GetMapping("/pre-approved")
+    public ResponseEntity<PreApprovedOfferDTO> getPreApprovedOffer (@RequestParam String personalCode ) {
+        return ResponseEntity.ok().body(preApprovedOfferService.getPreApprovedOffer(personalCode));
+    }
+
+    // runs every night (offer.pre-approved.cron) and after an account import or a policy change, this starts one right away
+    @PreAuthorize("hasRole('ADMIN')")
+    @PostMapping("/pre-approved/rebuild")
+    public ResponseEntity<PreApprovedOfferReportDTO> rebuildPreApprovedOffers () {
+        return ResponseEntity.ok().body(preApprovedOfferService.rebuild());
+    }
+
+    @GetMapping("/cache/stats")
+    public ResponseEntity<LoanDecisionCacheStatsDTO> getLoanDecisionCacheStats () {
+        return ResponseEntity.ok().body(loanDecisionCache.getStats());
+    }
+
+    // audited decisions in journal order, from inclusive and to exclusive (iso instants), a scan of the journal segments
+    @PreAuthorize("hasRole('ADMIN')")
+    @GetMapping("/audit")
+    public ResponseEntity<List<DecisionAuditRecordDTO>> getAuditedDecisions (@RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+                                                                             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to,
+                                                                             @RequestParam(required = false) String personalCode,
+                                                                             @RequestParam(defaultValue = "" + GlobalConstant.AuditConstraints.DEFAULT_READ_LIMIT) int limit) {
+        int recordLimit = Math.max(1, Math.min(limit, GlobalConstant.AuditConstraints.MAXIMUM_READ_LIMIT));
+        return ResponseEntity.ok().body(decisionAuditJournal.read(from, to, personalCode, recordLimit));
     }
 }
@@ -0,0 +1,158 @@
+package com.inbank.dengine.decision.loan.controller;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.inbank.dengine.decision.loan.dto.LoanDecisionResponseDTO;
+import com.inbank.dengine.decision.loan.model.LoanDecisionOutcome;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.stereotype.Component;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+
+/*
+ * writes decision responses without going through jackson for every response. everything before the loan amount only
+ * depends on the outcome (and the suggested period), it is encoded once per outcome and period and copied as is,
+ * the encoded policy version is kept until the policy changes. the bytes are the ones jackson writes for the dto,
+ * a response without an outcome (built by hand, or a period past the cached ones) is still written by jackson.
+ */
+@Component
+public class LoanDecisionResponseConverter extends AbstractHttpMessageConverter<LoanDecisionResponseDTO> {
+
+    private static final byte[] DECISION = "{\"decision\":".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] LOAN_AMOUNT = ",\"loanAmount\":".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] POLICY_VERSION = ",\"policyVersion\":".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] NULL = "null".getBytes(StandardCharsets.US_ASCII);
+    private static final byte END = '}';
+
+    private final ObjectMapper objectMapper;
+    private final ObjectWriter responseWriter;
+    private final boolean plainAmounts;
+    // by outcome ordinal and suggested period : {"decision":"...","loanAmount":
+    private final byte[][][] prefixes;
+    private volatile EncodedVersion policyVersion = new EncodedVersion(null, NULL);
+
+    public LoanDecisionResponseConverter(ObjectMapper objectMapper) {
+        super(MediaType.APPLICATION_JSON);
+        this.objectMapper = objectMapper;
+        this.responseWriter = objectMapper.writerFor(LoanDecisionResponseDTO.class).without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        this.plainAmounts = objectMapper.getFactory().isEnabled(JsonGenerator.Feature.WRITE_BIGDECIMAL_AS_PLAIN);
+        LoanDecisionOutcome[] outcomes = LoanDecisionOutcome.values();
+        this.prefixes = new byte[outcomes.length][][];
+        for (LoanDecisionOutcome outcome : outcomes) {
+            byte[][] periods = new byte[outcome.hasSuggestedPeriod() ? LoanDecisionOutcome.CACHED_PERIODS : 1][];
+            for (int period = 0; period < periods.length; period++) {
+                periods[period] = concat(DECISION, encode(outcome.getMessage(period)), LOAN_AMOUNT);
+            }
+            prefixes[outcome.ordinal()] = periods;
+        }
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return LoanDecisionResponseDTO.class == clazz;
+    }
+
+    // only responses are written by this converter
+    @Override
+    protected boolean canRead(MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    protected LoanDecisionResponseDTO readInternal(Class<? extends LoanDecisionResponseDTO> clazz, HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("Loan decision responses are not read", inputMessage);
+    }
+
+    @Override
+    protected Long getContentLength(LoanDecisionResponseDTO response, MediaType contentType) {
+        byte[] prefix = prefix(response);
+        if (prefix == null) {
+            return null;
+        }
+        return (long) prefix.length + amount(response.getLoanAmount()).length() + POLICY_VERSION.length
+                + policyVersion(response.getPolicyVersion()).length + 1;
+    }
+
+    @Override
+    protected void writeInternal(LoanDecisionResponseDTO response, HttpOutputMessage outputMessage) throws IOException {
+        write(response, outputMessage.getBody());
+    }
+
+    public void write(LoanDecisionResponseDTO response, OutputStream outputStream) throws IOException {
+        byte[] prefix = prefix(response);
+        if (prefix == null) {
+            responseWriter.writeValue(outputStream, response);
+            return;
+        }
+        outputStream.write(prefix);
+        String amount = amount(response.getLoanAmount());
+        for (int i = 0; i < amount.length(); i++) {
+            outputStream.write(amount.charAt(i));
+        }
+        outputStream.write(POLICY_VERSION);
+        outputStream.write(policyVersion(response.getPolicyVersion()));
+        outputStream.write(END);
+    }
+
+    private byte[] prefix(LoanDecisionResponseDTO response) {
+        LoanDecisionOutcome outcome = response.getOutcome();
+        if (outcome == null) {
+            return null;
+        }
+        byte[][] periods = prefixes[outcome.ordinal()];
+        int period = outcome.hasSuggestedPeriod() ? response.getSuggestedLoanPeriod() : 0;
+        return period >= 0 && period < periods.length ? periods[period] : null;
+    }
+
+    // big decimals keep their string, a cached decision encodes its amount once
+    private String amount(BigDecimal loanAmount) {
+        if (loanAmount == null) {
+            return "null";
+        }
+        return plainAmounts ? loanAmount.toPlainString() : loanAmount.toString();
+    }
+
+    private byte[] policyVersion(String version) {
+        EncodedVersion encoded = policyVersion;
+        if (encoded.version == version || (version != null && version.equals(encoded.version))) {
+            return encoded.bytes;
+        }
+        encoded = new EncodedVersion(version, version == null ? NULL : encode(version));
+        policyVersion = encoded;
+        return encoded.bytes;
+    }
+
+    private byte[] encode(String value) {
+        try {
+            return objectMapper.writeValueAsBytes(value);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static byte[] concat(byte[]... parts) {
+        int length = 0;
+        for (byte[] part : parts) {
+            length += part.length;
+        }
+        byte[] bytes = new byte[length];
+        int position = 0;
+        for (byte[] part : parts) {
+            System.arraycopy(part, 0, bytes, position, part.length);
+            position += part.length;
+        }
+        return bytes;
+    }
+
+    private record EncodedVersion(String version, byte[] bytes) {
+    }
+}
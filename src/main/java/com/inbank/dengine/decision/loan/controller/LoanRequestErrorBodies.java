@@ -0,0 +1,92 @@
+package com.inbank.dengine.decision.loan.controller;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.inbank.dengine.decision.loan.model.LoanRequestError;
+import org.springframework.stereotype.Component;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/*
+ * bodies of out of range loan requests, the ErrorDetails json GlobalExceptionHandler writes, without an ErrorDetails
+ * and jackson for every rejected request. only the timestamp changes between two rejections with the same error, the
+ * message and the details after it are encoded once per request error and kept until the policy (so the message) changes.
+ */
+@Component
+public class LoanRequestErrorBodies {
+
+    private static final byte[] TIMESTAMP = "{\"timestamp\":".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] MESSAGE = ",\"message\":".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] DETAILS = ",\"details\":".getBytes(StandardCharsets.US_ASCII);
+    private static final byte END = '}';
+
+    private final ObjectMapper objectMapper;
+    // instants are written as iso strings unless the mapper writes dates as numbers
+    private final boolean isoTimestamps;
+    // by request error ordinal
+    private final AtomicReferenceArray<EncodedError> encodedErrors = new AtomicReferenceArray<>(LoanRequestError.values().length);
+
+    public LoanRequestErrorBodies(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+        this.isoTimestamps = !objectMapper.isEnabled(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+    }
+
+    // details as request.getDescription(false) gives them : uri=<request uri>
+    public byte[] body(LoanRequestError error, String message, String requestUri, Instant timestamp) {
+        byte[] suffix = suffix(error, message, requestUri);
+        byte[] body;
+        int position;
+        if (isoTimestamps) {
+            String iso = timestamp.toString();
+            body = new byte[TIMESTAMP.length + iso.length() + 2 + suffix.length];
+            System.arraycopy(TIMESTAMP, 0, body, 0, TIMESTAMP.length);
+            position = TIMESTAMP.length;
+            body[position++] = '"';
+            for (int i = 0; i < iso.length(); i++) {
+                body[position++] = (byte) iso.charAt(i);
+            }
+            body[position++] = '"';
+        } else {
+            byte[] encoded = encode(timestamp);
+            body = new byte[TIMESTAMP.length + encoded.length + suffix.length];
+            System.arraycopy(TIMESTAMP, 0, body, 0, TIMESTAMP.length);
+            System.arraycopy(encoded, 0, body, TIMESTAMP.length, encoded.length);
+            position = TIMESTAMP.length + encoded.length;
+        }
+        System.arraycopy(suffix, 0, body, position, suffix.length);
+        return body;
+    }
+
+    // ,"message":"...","details":"uri=..."}
+    private byte[] suffix(LoanRequestError error, String message, String requestUri) {
+        EncodedError encoded = encodedErrors.get(error.ordinal());
+        if (encoded != null && encoded.message.equals(message) && encoded.requestUri.equals(requestUri)) {
+            return encoded.suffix;
+        }
+        byte[] encodedMessage = encode(message);
+        byte[] encodedDetails = encode("uri=" + requestUri);
+        byte[] suffix = new byte[MESSAGE.length + encodedMessage.length + DETAILS.length + encodedDetails.length + 1];
+        int position = 0;
+        for (byte[] part : new byte[][]{MESSAGE, encodedMessage, DETAILS, encodedDetails}) {
+            System.arraycopy(part, 0, suffix, position, part.length);
+            position += part.length;
+        }
+        suffix[position] = END;
+        encodedErrors.set(error.ordinal(), new EncodedError(message, requestUri, suffix));
+        return suffix;
+    }
+
+    private byte[] encode(Object value) {
+        try {
+            return objectMapper.writeValueAsBytes(value);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private record EncodedError(String message, String requestUri, byte[] suffix) {
+    }
+}
@@ -0,0 +1,28 @@
+package com.inbank.dengine.decision.loan.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.math.BigDecimal;
+import java.time.Instant;
+
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@Data
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class DecisionAuditRecordDTO {
+
+    private Instant timestamp;
+    // request
+    private String personalCode;
+    private BigDecimal loanAmount;
+    private Integer loanPeriod;
+    private String policyVersion;
+    // response, a decision or the error the request was answered with
+    private String decision;
+    private BigDecimal decidedLoanAmount;
+    private String error;
+}
@@ -0,0 +1,23 @@
+package com.inbank.dengine.decision.loan.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.math.BigDecimal;
+
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@Data
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class LoanDecisionBatchItemDTO {
+
+    // zero based position of the row in the request body
+    private Long row;
+    private String personalCode;
+    private String decision;
+    private BigDecimal loanAmount;
+    private String error;
+}
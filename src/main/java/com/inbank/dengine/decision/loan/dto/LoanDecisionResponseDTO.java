@@ -1,5 +1,7 @@
 package com.inbank.dengine.decision.loan.dto;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.inbank.dengine.decision.loan.model.LoanDecisionOutcome;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -14,4 +16,11 @@ public class LoanDecisionResponseDTO {
 
     private String decision;
     private BigDecimal loanAmount;
+    // version of the loan policy the decision was made with
+    private String policyVersion;
+    // the decision as a code, LoanDecisionResponseConverter writes the pre-encoded decision of the outcome from it
+    @JsonIgnore
+    private LoanDecisionOutcome outcome;
+    @JsonIgnore
+    private int suggestedLoanPeriod;
 }
@@ -0,0 +1,20 @@
+package com.inbank.dengine.decision.loan.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.math.BigDecimal;
+
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@Data
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class LoanOfferDTO {
+
+    private Integer loanPeriod;
+    // not set when less than the minimum loan amount can be given for this period
+    private BigDecimal maximumLoanAmount;
+}
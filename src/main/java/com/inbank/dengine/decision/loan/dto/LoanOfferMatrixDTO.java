@@ -0,0 +1,25 @@
+package com.inbank.dengine.decision.loan.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.math.BigDecimal;
+import java.util.List;
+
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@Data
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class LoanOfferMatrixDTO {
+
+    private String personalCode;
+    // only set when nothing can be offered for any period
+    private String decision;
+    private BigDecimal loanAmount;
+    // shortest period in which the requested loan amount is approved, not set when it can't be approved
+    private Integer minimumLoanPeriod;
+    private List<LoanOfferDTO> offers;
+}
@@ -0,0 +1,22 @@
+package com.inbank.dengine.decision.loan.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Positive;
+import java.math.BigDecimal;
+
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@Data
+public class LoanOfferRequestDTO {
+    @NotNull(message = "Personal Code is mandatory for Loan Offer Operation")
+    private String personalCode;
+
+    // optional, the minimum loan period is only computed when an amount is given
+    @Positive(message = "Loan Amount  should be greater than 0")
+    private BigDecimal loanAmount;
+}
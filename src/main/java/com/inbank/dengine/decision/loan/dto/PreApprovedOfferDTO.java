@@ -0,0 +1,27 @@
+package com.inbank.dengine.decision.loan.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.math.BigDecimal;
+import java.time.Instant;
+
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@Data
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class PreApprovedOfferDTO {
+
+    private String personalCode;
+    private boolean preApproved;
+    // highest amount of any period and the shortest period that approves it, only set when pre-approved
+    private BigDecimal loanAmount;
+    private Integer loanPeriod;
+    // time of the rebuild the answer comes from
+    private Instant builtAt;
+    // accounts were imported or the policy changed since, a rebuild is pending
+    private boolean stale;
+}
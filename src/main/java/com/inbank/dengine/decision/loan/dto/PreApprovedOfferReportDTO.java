@@ -0,0 +1,23 @@
+package com.inbank.dengine.decision.loan.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.Instant;
+
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@Data
+public class PreApprovedOfferReportDTO {
+
+    private long accounts;
+    private int offers;
+    private int partitions;
+    private long evaluateMillis;
+    private long indexMillis;
+    private long durationMillis;
+    private long accountsPerSecond;
+    private Instant builtAt;
+}
@@ -0,0 +1,56 @@
+package com.inbank.dengine.decision.loan.engine;
+
+import com.inbank.dengine.account.model.Account;
+import com.inbank.dengine.decision.loan.model.LoanDecision;
+import com.inbank.dengine.decision.loan.model.LoanDecisionOutcome;
+import com.inbank.dengine.decision.loan.policy.LoanPolicy;
+import com.inbank.dengine.exception.exceptionType.ServerException;
+import com.inbank.dengine.util.GlobalConstant;
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.math.RoundingMode;
+
+public class BigDecimalLoanDecisionEngine implements LoanDecisionEngine {
+
+    @Override
+    public LoanDecision evaluate(LoanPolicy loanPolicy, Account account, BigDecimal loanAmount, int loanPeriod) {
+        if (account.getIsDebt()) {
+            return LoanDecision.REJECTED_DEBT;
+        }
+
+        boolean creditModifierShouldValidAndLargerThanZero = account.getCreditModifier() != null && account.getCreditModifier().compareTo(BigDecimal.ZERO) > 0;
+
+        if (!creditModifierShouldValidAndLargerThanZero) {
+            throw new ServerException(GlobalConstant.LoanDecisionErrors.INTERNAL_DATA_ERROR + account.getPersonalCode());
+
+        }
+        BigDecimal eligibleLoanAmount = account.getCreditModifier().multiply(BigDecimal.valueOf(loanPeriod));
+        BigDecimal creditScore = (eligibleLoanAmount.divide(loanAmount, MathContext.DECIMAL128));
+
+        if (creditScore.compareTo(BigDecimal.ONE) >= 0) {
+
+            //eligible loan amount can't be exceeded the maximum loan amount
+            eligibleLoanAmount = eligibleLoanAmount.compareTo(loanPolicy.getMaximumSum()) >= 0 ? loanPolicy.getMaximumSum() : eligibleLoanAmount;
+            return new LoanDecision(LoanDecisionOutcome.APPROVED, eligibleLoanAmount, 0);
+        }
+
+        // eligible amount can be given as loan amount if it is greater than minimum sum
+        if (loanPolicy.isSuggestAmount() && eligibleLoanAmount.compareTo(loanPolicy.getMinimumSum()) >= 0) {
+            return new LoanDecision(LoanDecisionOutcome.SUGGESTED_AMOUNT, eligibleLoanAmount, 0);
+        }
+        // eligible amount is less than minimum amount. then user requested value is needed to be adjusted based on months
+        int suggestedLoanPeriod = (loanAmount.divide(account.getCreditModifier(), MathContext.DECIMAL128)).setScale(0, RoundingMode.UP).intValue();
+        // requested amount can be paid within valid period, user is notified with new loan period
+        if (loanPolicy.isSuggestPeriod() && suggestedLoanPeriod <= loanPolicy.getMaximumPeriod()) {
+            return new LoanDecision(LoanDecisionOutcome.SUGGESTED_PERIOD, loanAmount, suggestedLoanPeriod);
+        }
+
+        // try to give maximum loan amount , in maximum eligible period
+        BigDecimal suggestedMaximumLoanAmount = BigDecimal.valueOf(loanPolicy.getMaximumPeriod()).multiply(account.getCreditModifier());
+        if (loanPolicy.isSuggestAmount() && loanPolicy.isSuggestPeriod() && suggestedMaximumLoanAmount.compareTo(loanPolicy.getMinimumSum()) >= 0) {
+            return new LoanDecision(LoanDecisionOutcome.SUGGESTED_AMOUNT_AND_PERIOD, suggestedMaximumLoanAmount, loanPolicy.getMaximumPeriod());
+        }
+        // no suitable loan amount found for requested user
+        return LoanDecision.REJECTED;
+    }
+}
@@ -0,0 +1,96 @@
+package com.inbank.dengine.decision.loan.engine;
+
+import com.inbank.dengine.account.model.Account;
+import com.inbank.dengine.decision.loan.model.LoanDecision;
+import com.inbank.dengine.decision.loan.model.LoanDecisionOutcome;
+import com.inbank.dengine.decision.loan.policy.LoanPolicy;
+import com.inbank.dengine.exception.exceptionType.ServerException;
+import com.inbank.dengine.util.GlobalConstant;
+import java.math.BigDecimal;
+
+/*
+ * same decision as BigDecimalLoanDecisionEngine, calculated on long cents without any division.
+ *
+ * why the results are identical:
+ *  - creditScore >= 1 is eligible / amount >= 1. amounts have at most 18 digits in cents, so when eligible < amount the exact
+ *    ratio is at most 1 - 1e-18, far away from the 34 digits DECIMAL128 could round up to 1.
+ *    the comparison is therefore eligibleCents >= amountCents.
+ *  - a non integer amount / modifier is at least 1 / modifierCents >= 1e-18 away from the next integer, again more than
+ *    DECIMAL128 could round away, so rounding the quotient up is the exact ceiling division of the cents.
+ *  - returned amounts keep the scale of the BigDecimal path: the credit modifier scale, the request amount itself or the policy limits.
+ *  - policy limits are whole cents, checked when the policy is compiled.
+ * values that don't fit (more than 2 decimals or too many digits) are delegated to the BigDecimal path.
+ */
+public class FixedPointLoanDecisionEngine implements LoanDecisionEngine {
+
+    private static final int CENTS_SCALE = 2;
+    // 16 digits times 100 still fits into a long
+    private static final int MAXIMUM_PRECISION = 16;
+    private static final long[] POWERS_OF_TEN = {1, 10, 100};
+
+    private final BigDecimalLoanDecisionEngine bigDecimalLoanDecisionEngine = new BigDecimalLoanDecisionEngine();
+
+    @Override
+    public LoanDecision evaluate(LoanPolicy loanPolicy, Account account, BigDecimal loanAmount, int loanPeriod) {
+        if (account.getIsDebt()) {
+            return LoanDecision.REJECTED_DEBT;
+        }
+
+        BigDecimal creditModifier = account.getCreditModifier();
+        if (creditModifier == null || creditModifier.signum() <= 0) {
+            throw new ServerException(GlobalConstant.LoanDecisionErrors.INTERNAL_DATA_ERROR + account.getPersonalCode());
+        }
+
+        long creditModifierCents = toCents(creditModifier);
+        long loanAmountCents = toCents(loanAmount);
+        if (creditModifierCents < 0 || loanAmountCents <= 0 || loanPeriod <= 0 || creditModifierCents > Long.MAX_VALUE / loanPeriod) {
+            return bigDecimalLoanDecisionEngine.evaluate(loanPolicy, account, loanAmount, loanPeriod);
+        }
+
+        long eligibleLoanAmountCents = creditModifierCents * loanPeriod;
+        if (eligibleLoanAmountCents >= loanAmountCents) {
+            if (eligibleLoanAmountCents >= loanPolicy.getMaximumSumCents()) {
+                return loanPolicy.getApprovedMaximumSum();
+            }
+            return new LoanDecision(LoanDecisionOutcome.APPROVED, toAmount(eligibleLoanAmountCents, creditModifier.scale()), 0);
+        }
+
+        if (loanPolicy.isSuggestAmount() && eligibleLoanAmountCents >= loanPolicy.getMinimumSumCents()) {
+            return new LoanDecision(LoanDecisionOutcome.SUGGESTED_AMOUNT, toAmount(eligibleLoanAmountCents, creditModifier.scale()), 0);
+        }
+
+        long suggestedLoanPeriod = (loanAmountCents + creditModifierCents - 1) / creditModifierCents;
+        if (suggestedLoanPeriod > Integer.MAX_VALUE) {
+            // the BigDecimal path narrows the period with intValue(), keep its answer for such inputs
+            return bigDecimalLoanDecisionEngine.evaluate(loanPolicy, account, loanAmount, loanPeriod);
+        }
+        if (loanPolicy.isSuggestPeriod() && suggestedLoanPeriod <= loanPolicy.getMaximumPeriod()) {
+            return new LoanDecision(LoanDecisionOutcome.SUGGESTED_PERIOD, loanAmount, (int) suggestedLoanPeriod);
+        }
+
+        if (creditModifierCents > Long.MAX_VALUE / loanPolicy.getMaximumPeriod()) {
+            // only for amounts far outside the policy limits, validated requests never get here
+            return bigDecimalLoanDecisionEngine.evaluate(loanPolicy, account, loanAmount, loanPeriod);
+        }
+        long suggestedMaximumLoanAmountCents = creditModifierCents * loanPolicy.getMaximumPeriod();
+        if (loanPolicy.isSuggestAmount() && loanPolicy.isSuggestPeriod() && suggestedMaximumLoanAmountCents >= loanPolicy.getMinimumSumCents()) {
+            return new LoanDecision(LoanDecisionOutcome.SUGGESTED_AMOUNT_AND_PERIOD, toAmount(suggestedMaximumLoanAmountCents, creditModifier.scale()), loanPolicy.getMaximumPeriod());
+        }
+        return LoanDecision.REJECTED;
+    }
+
+    // -1 when the value can't be represented as whole cents in a long
+    private static long toCents(BigDecimal value) {
+        int scale = value.scale();
+        if (scale < 0 || scale > CENTS_SCALE || value.precision() > MAXIMUM_PRECISION) {
+            return -1;
+        }
+        // longValueExact doesn't allocate for scale 0, which is what requests and accounts use
+        long unscaled = scale == 0 ? value.longValueExact() : value.unscaledValue().longValueExact();
+        return unscaled * POWERS_OF_TEN[CENTS_SCALE - scale];
+    }
+
+    private static BigDecimal toAmount(long cents, int scale) {
+        return BigDecimal.valueOf(cents / POWERS_OF_TEN[CENTS_SCALE - scale], scale);
+    }
+}
@@ -0,0 +1,16 @@
+package com.inbank.dengine.decision.loan.engine;
+
+import com.inbank.dengine.account.model.Account;
+import com.inbank.dengine.decision.loan.model.LoanDecision;
+import com.inbank.dengine.decision.loan.policy.LoanPolicy;
+import java.math.BigDecimal;
+
+// calculates the decision for an existing account and a loan request already validated against the same policy
+public interface LoanDecisionEngine {
+
+    LoanDecision evaluate(LoanPolicy loanPolicy, Account account, BigDecimal loanAmount, int loanPeriod);
+
+    default LoanDecision evaluate(Account account, BigDecimal loanAmount, int loanPeriod) {
+        return evaluate(LoanPolicy.BUILT_IN, account, loanAmount, loanPeriod);
+    }
+}
@@ -0,0 +1,21 @@
+package com.inbank.dengine.decision.loan.engine;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
+
+@Configuration
+@EnableConfigurationProperties(LoanDecisionEngineProperties.class)
+public class LoanDecisionEngineConfig {
+
+    // created at startup also with spring.main.lazy-initialization, a misconfigured engine must not wait for the first request
+    @Bean
+    @Lazy(false)
+    public LoanDecisionEngine loanDecisionEngine(LoanDecisionEngineProperties loanDecisionEngineProperties) {
+        return switch (loanDecisionEngineProperties.getEngine()) {
+            case BIG_DECIMAL -> new BigDecimalLoanDecisionEngine();
+            case FIXED_POINT -> new FixedPointLoanDecisionEngine();
+        };
+    }
+}
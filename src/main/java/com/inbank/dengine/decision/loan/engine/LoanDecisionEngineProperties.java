@@ -0,0 +1,14 @@
+package com.inbank.dengine.decision.loan.engine;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+// an unknown decision.engine fails the binding at startup, the failure lists the valid engines
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "decision")
+public class LoanDecisionEngineProperties {
+
+    private LoanDecisionEngineType engine = LoanDecisionEngineType.BIG_DECIMAL;
+}
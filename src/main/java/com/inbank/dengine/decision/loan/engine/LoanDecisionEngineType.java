@@ -0,0 +1,9 @@
+package com.inbank.dengine.decision.loan.engine;
+
+// decision.engine values, big-decimal and fixed-point in the properties
+public enum LoanDecisionEngineType {
+    // BigDecimal arithmetic, the reference calculation
+    BIG_DECIMAL,
+    // long cents, same results as BIG_DECIMAL
+    FIXED_POINT
+}
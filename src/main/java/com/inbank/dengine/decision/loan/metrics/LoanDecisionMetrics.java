@@ -0,0 +1,127 @@
+package com.inbank.dengine.decision.loan.metrics;
+
+import com.inbank.dengine.decision.loan.model.LoanDecisionOutcome;
+import com.inbank.dengine.decision.loan.model.LoanRequestError;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/*
+ * every meter is registered up front and kept in an enum map, recording is then a counter increment or a
+ * histogram update with no tag lookup. timers only publish histogram buckets, percentiles are computed by prometheus
+ * (histogram_quantile), client side percentiles would cost more than a cached decision itself.
+ * only one call in decision.metrics.timing-sample is timed, the others skip the clock reads and the histogram update :
+ * timed on every call they more than doubled the bare in memory decision. the timers count the sampled calls,
+ * the outcome and rejected request counters count every decision.
+ */
+@Slf4j
+@Component
+public class LoanDecisionMetrics {
+
+    public static final String OUTCOME = "dengine.decision.outcome";
+    public static final String REJECTED_REQUEST = "dengine.decision.rejected.request";
+    public static final String ACCOUNT_LOOKUP = "dengine.account.lookup";
+    public static final String COMPUTATION = "dengine.decision.computation";
+    public static final String FIRST_DECISION_COMPUTED = "dengine.startup.first.decision.computed";
+
+    private final Map<LoanDecisionOutcome, Counter> outcomes = new EnumMap<>(LoanDecisionOutcome.class);
+    private final Map<LoanRequestError, Counter> rejectedRequests = new EnumMap<>(LoanRequestError.class);
+    private final Counter accountNotFound;
+    private final Timer accountLookup;
+    private final Timer computation;
+    private final int timingSample;
+    // time from the jvm start to the first decision computed, -1 until then. it is taken when the outcome is known,
+    // before the response is written : the time to the first served decision adds its serialization and write
+    private final AtomicLong firstDecisionMillis = new AtomicLong(-1);
+
+    public LoanDecisionMetrics(MeterRegistry meterRegistry, @Value("${decision.metrics.timing-sample:64}") int timingSample) {
+        this.timingSample = Math.max(1, timingSample);
+        for (LoanDecisionOutcome outcome : LoanDecisionOutcome.values()) {
+            outcomes.put(outcome, Counter.builder(OUTCOME)
+                    .description("Loan decisions by branch of the decision")
+                    .tag("outcome", tagValue(outcome))
+                    .register(meterRegistry));
+        }
+        for (LoanRequestError error : LoanRequestError.values()) {
+            rejectedRequests.put(error, rejectedRequestCounter(meterRegistry, tagValue(error)));
+        }
+        this.accountNotFound = rejectedRequestCounter(meterRegistry, "account_not_found");
+        this.accountLookup = timer(meterRegistry, ACCOUNT_LOOKUP, "Account lookups by personal code");
+        this.computation = timer(meterRegistry, COMPUTATION, "Loan decision computation, decision cache included");
+        TimeGauge.builder(FIRST_DECISION_COMPUTED, firstDecisionMillis, TimeUnit.MILLISECONDS, millis -> millis.get() < 0 ? Double.NaN : millis.get())
+                .description("Time from the start of the jvm to the first loan decision computed, before its response is written")
+                .register(meterRegistry);
+    }
+
+    public void recordOutcome(LoanDecisionOutcome outcome) {
+        outcomes.get(outcome).increment();
+        if (firstDecisionMillis.get() < 0) {
+            recordFirstDecision();
+        }
+    }
+
+    private void recordFirstDecision() {
+        long millis = System.currentTimeMillis() - ManagementFactory.getRuntimeMXBean().getStartTime();
+        if (firstDecisionMillis.compareAndSet(-1, millis)) {
+            log.info("first loan decision computed {} ms after the jvm start", millis);
+        }
+    }
+
+    public void recordRejectedRequest(LoanRequestError error) {
+        rejectedRequests.get(error).increment();
+    }
+
+    public void recordAccountNotFound() {
+        accountNotFound.increment();
+    }
+
+    // System.nanoTime() when the call is one of the sampled ones, 0 when it isn't timed
+    public long startTiming() {
+        return timingSample == 1 || ThreadLocalRandom.current().nextInt(timingSample) == 0 ? System.nanoTime() : 0;
+    }
+
+    public void recordAccountLookup(long start) {
+        if (start != 0) {
+            accountLookup.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    public void recordComputation(long start) {
+        if (start != 0) {
+            computation.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private static Counter rejectedRequestCounter(MeterRegistry meterRegistry, String error) {
+        return Counter.builder(REJECTED_REQUEST)
+                .description("Loan requests answered with an error instead of a decision")
+                .tag("error", error)
+                .register(meterRegistry);
+    }
+
+    private static Timer timer(MeterRegistry meterRegistry, String name, String description) {
+        return Timer.builder(name)
+                .description(description)
+                .publishPercentileHistogram()
+                // in memory lookups and decisions take microseconds, the default range starts at 1ms
+                .minimumExpectedValue(Duration.ofNanos(1_000))
+                .maximumExpectedValue(Duration.ofSeconds(10))
+                .register(meterRegistry);
+    }
+
+    private static String tagValue(Enum<?> value) {
+        return value.name().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,35 @@
+package com.inbank.dengine.decision.loan.model;
+
+import com.inbank.dengine.decision.loan.dto.LoanDecisionResponseDTO;
+import lombok.Value;
+import java.math.BigDecimal;
+
+@Value
+public class LoanDecision {
+
+    public static final LoanDecision REJECTED_DEBT = new LoanDecision(LoanDecisionOutcome.REJECTED_DEBT, BigDecimal.ZERO, 0);
+    public static final LoanDecision REJECTED = new LoanDecision(LoanDecisionOutcome.REJECTED, BigDecimal.ZERO, 0);
+
+    LoanDecisionOutcome outcome;
+    BigDecimal loanAmount;
+    // only set for SUGGESTED_PERIOD and SUGGESTED_AMOUNT_AND_PERIOD decisions
+    int suggestedLoanPeriod;
+
+    public String getDecision() {
+        return outcome.getMessage(suggestedLoanPeriod);
+    }
+
+    public LoanDecisionResponseDTO toResponseDTO() {
+        return toResponseDTO(null);
+    }
+
+    // decisions are cached and shared, the version of the policy that made one is only added to its response
+    public LoanDecisionResponseDTO toResponseDTO(String policyVersion) {
+        return LoanDecisionResponseDTO.builder().decision(getDecision())
+                .loanAmount(loanAmount)
+                .policyVersion(policyVersion)
+                .outcome(outcome)
+                .suggestedLoanPeriod(suggestedLoanPeriod)
+                .build();
+    }
+}
@@ -0,0 +1,43 @@
+package com.inbank.dengine.decision.loan.model;
+
+import com.inbank.dengine.util.GlobalConstant;
+import com.inbank.dengine.util.GlobalConstant.LoanDecisionMessages;
+
+public enum LoanDecisionOutcome {
+
+    APPROVED(LoanDecisionMessages.LOAN_APPROVED, false),
+    REJECTED_DEBT(GlobalConstant.LoanDecisionErrors.USER_IS_HAVING_DEBT + LoanDecisionMessages.LOAN_REJECTED, false),
+    SUGGESTED_AMOUNT(LoanDecisionMessages.LOAN_REJECTED + LoanDecisionMessages.SUGGESTED_AMOUNT, false),
+    SUGGESTED_PERIOD(LoanDecisionMessages.LOAN_REJECTED + LoanDecisionMessages.SUGGESTED_PERIOD, true),
+    SUGGESTED_AMOUNT_AND_PERIOD(LoanDecisionMessages.LOAN_REJECTED + LoanDecisionMessages.SUGGESTED_AMOUNT + " and " + LoanDecisionMessages.SUGGESTED_PERIOD, true),
+    REJECTED(LoanDecisionMessages.LOAN_REJECTED, false);
+
+    // periods up to the longest a loan policy can allow have their messages built once instead of concatenated on every decision
+    public static final int CACHED_PERIODS = 128;
+
+    private final String message;
+    private final String[] periodMessages;
+
+    // the suggested outcomes end with the period, the maximum period of the policy for SUGGESTED_AMOUNT_AND_PERIOD
+    LoanDecisionOutcome(String message, boolean withPeriod) {
+        this.message = message;
+        this.periodMessages = withPeriod ? new String[CACHED_PERIODS] : null;
+        for (int period = 0; withPeriod && period < CACHED_PERIODS; period++) {
+            periodMessages[period] = message + period;
+        }
+    }
+
+    public boolean hasSuggestedPeriod() {
+        return periodMessages != null;
+    }
+
+    public String getMessage(int suggestedLoanPeriod) {
+        if (periodMessages == null) {
+            return message;
+        }
+        if (suggestedLoanPeriod >= 0 && suggestedLoanPeriod < CACHED_PERIODS) {
+            return periodMessages[suggestedLoanPeriod];
+        }
+        return message + suggestedLoanPeriod;
+    }
+}
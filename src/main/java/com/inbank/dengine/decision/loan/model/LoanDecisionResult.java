@@ -0,0 +1,33 @@
+package com.inbank.dengine.decision.loan.model;
+
+import com.inbank.dengine.decision.loan.dto.LoanDecisionResponseDTO;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Value;
+
+// either a decision or the reason the request can't be decided, without throwing for the common client errors
+@Value
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+public class LoanDecisionResult {
+
+    LoanDecisionResponseDTO response;
+    // set when the request is out of the policy's range, null for the other errors
+    LoanRequestError requestError;
+    String error;
+
+    public static LoanDecisionResult of(LoanDecisionResponseDTO response) {
+        return new LoanDecisionResult(response, null, null);
+    }
+
+    public static LoanDecisionResult error(String error) {
+        return new LoanDecisionResult(null, null, error);
+    }
+
+    public static LoanDecisionResult error(LoanRequestError requestError, String error) {
+        return new LoanDecisionResult(null, requestError, error);
+    }
+
+    public boolean isError() {
+        return error != null;
+    }
+}
@@ -0,0 +1,19 @@
+package com.inbank.dengine.decision.loan.model;
+
+import com.inbank.dengine.util.GlobalConstant;
+import lombok.Getter;
+
+// out of range requests, LoanPolicy builds the message and rejection result of each one with its own limits
+@Getter
+public enum LoanRequestError {
+    LESS_THAN_MINIMUM_AMOUNT(GlobalConstant.LoanDecisionErrors.AMOUNT_LESS_THAN),
+    HIGHER_THAN_MAXIMUM_AMOUNT(GlobalConstant.LoanDecisionErrors.AMOUNT_HIGHER_THAN),
+    MORE_THAN_MAXIMUM_PERIOD(GlobalConstant.LoanDecisionErrors.PERIOD_HIGHER_THAN),
+    LESS_THAN_MINIMUM_PERIOD(GlobalConstant.LoanDecisionErrors.PERIOD_LESS_THAN);
+
+    private final String messagePrefix;
+
+    LoanRequestError(String messagePrefix) {
+        this.messagePrefix = messagePrefix;
+    }
+}
@@ -0,0 +1,120 @@
+package com.inbank.dengine.decision.loan.offer;
+
+import com.inbank.dengine.account.util.PersonalCodes;
+import java.math.BigDecimal;
+import java.time.Instant;
+
+/*
+ * pre-approved offers keyed by the personal code as long, same open addressing layout as CompactAccountIndex:
+ * 13 bytes per slot for the key, the amount in cents and the period.
+ * the builder is given the exact number of offers, an index never grows and is never changed once built.
+ */
+public class PreApprovedOfferIndex {
+
+    public static final PreApprovedOfferIndex EMPTY = builder(0).build(null);
+
+    private static final float MAXIMUM_LOAD = 0.75f;
+
+    // personal code + 1, so the default 0 marks an empty slot
+    private final long[] keys;
+    private final int[] loanAmountCents;
+    private final byte[] loanPeriods;
+    private final int mask;
+    private int size;
+    private Instant builtAt;
+
+    private PreApprovedOfferIndex(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(2, (int) Math.ceil(expectedSize / MAXIMUM_LOAD)) - 1) << 1;
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Too many offers for one index : " + expectedSize);
+        }
+        this.keys = new long[capacity];
+        this.loanAmountCents = new int[capacity];
+        this.loanPeriods = new byte[capacity];
+        this.mask = capacity - 1;
+    }
+
+    public static Builder builder(int expectedSize) {
+        return new Builder(new PreApprovedOfferIndex(expectedSize));
+    }
+
+    // slot of the offer or -1 when there is none
+    public int slotOf(long personalCode) {
+        long key = personalCode + 1;
+        for (int slot = (int) PersonalCodes.hash(personalCode) & mask; ; slot = (slot + 1) & mask) {
+            long current = keys[slot];
+            if (current == key) {
+                return slot;
+            }
+            if (current == 0) {
+                return -1;
+            }
+        }
+    }
+
+    public BigDecimal getLoanAmount(int slot) {
+        int cents = loanAmountCents[slot];
+        return cents % 100 == 0 ? BigDecimal.valueOf(cents / 100) : BigDecimal.valueOf(cents, 2);
+    }
+
+    public int getLoanPeriod(int slot) {
+        return loanPeriods[slot];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int capacity() {
+        return keys.length;
+    }
+
+    // null until the first rebuild
+    public Instant getBuiltAt() {
+        return builtAt;
+    }
+
+    public static class Builder {
+
+        private PreApprovedOfferIndex index;
+        private final int expectedSize;
+
+        private Builder(PreApprovedOfferIndex index) {
+            this.index = index;
+            this.expectedSize = (int) (index.keys.length * MAXIMUM_LOAD);
+        }
+
+        // a personal code added twice keeps the last offer
+        public Builder add(long personalCode, int loanAmountCents, int loanPeriod) {
+            if (personalCode < 0 || personalCode >= Long.MAX_VALUE) {
+                throw new IllegalArgumentException("Invalid personal code : " + personalCode);
+            }
+            if (loanPeriod <= 0 || loanPeriod > Byte.MAX_VALUE) {
+                throw new IllegalArgumentException("Unsupported loan period : " + loanPeriod);
+            }
+            long key = personalCode + 1;
+            int slot = (int) PersonalCodes.hash(personalCode) & index.mask;
+            while (index.keys[slot] != 0 && index.keys[slot] != key) {
+                slot = (slot + 1) & index.mask;
+            }
+            if (index.keys[slot] == 0) {
+                if (index.size == expectedSize) {
+                    throw new IllegalStateException("More offers than the index was built for : " + expectedSize);
+                }
+                index.size++;
+            }
+            index.keys[slot] = key;
+            index.loanAmountCents[slot] = loanAmountCents;
+            index.loanPeriods[slot] = (byte) loanPeriod;
+            return this;
+        }
+
+        public PreApprovedOfferIndex build(Instant builtAt) {
+            PreApprovedOfferIndex built = index;
+            built.builtAt = builtAt;
+            // the builder can't touch the index once it is handed out
+            index = null;
+            return built;
+        }
+    }
+}
@@ -0,0 +1,170 @@
+package com.inbank.dengine.decision.loan.policy;
+
+import com.inbank.dengine.decision.loan.model.LoanDecision;
+import com.inbank.dengine.decision.loan.model.LoanDecisionOutcome;
+import com.inbank.dengine.decision.loan.model.LoanDecisionResult;
+import com.inbank.dengine.decision.loan.model.LoanRequestError;
+import com.inbank.dengine.util.GlobalConstant;
+import lombok.AccessLevel;
+import lombok.Getter;
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+
+/*
+ * limits and enabled suggestions of the loan decision, read from a properties file:
+ *
+ *   version=2024-06-01
+ *   amount.minimum=2000
+ *   amount.maximum=10000
+ *   period.minimum=12
+ *   period.maximum=60
+ *   suggest.amount=true
+ *   suggest.period=true
+ *
+ * only the version is required, missing keys keep the built-in value. everything a decision needs is computed when the
+ * policy is compiled (cents limits, rejection results and messages), so evaluating against a policy costs the same field reads
+ * as the constants did. a policy is immutable, a new file is a new policy.
+ */
+@Getter
+public final class LoanPolicy {
+
+    public static final String BUILT_IN_VERSION = "built-in";
+    public static final LoanPolicy BUILT_IN = new LoanPolicy(BUILT_IN_VERSION,
+            GlobalConstant.LoanConstraints.MINIMUM_SUM, GlobalConstant.LoanConstraints.MAXIMUM_SUM,
+            GlobalConstant.LoanConstraints.MINIMUM_PERIOD, GlobalConstant.LoanConstraints.MAXIMUM_PERIOD, true, true);
+
+    private static final int CENTS_SCALE = 2;
+    private static final Set<String> KEYS = Set.of("version", "amount.minimum", "amount.maximum", "period.minimum", "period.maximum", "suggest.amount", "suggest.period");
+
+    private final String version;
+    private final BigDecimal minimumSum;
+    private final BigDecimal maximumSum;
+    private final int minimumPeriod;
+    private final int maximumPeriod;
+    private final boolean suggestAmount;
+    private final boolean suggestPeriod;
+
+    private final long minimumSumCents;
+    private final long maximumSumCents;
+    private final LoanDecision approvedMaximumSum;
+    @Getter(AccessLevel.NONE)
+    private final String[] requestErrorMessages;
+    @Getter(AccessLevel.NONE)
+    private final LoanDecisionResult[] requestErrorResults;
+
+    private LoanPolicy(String version, BigDecimal minimumSum, BigDecimal maximumSum, int minimumPeriod, int maximumPeriod,
+                       boolean suggestAmount, boolean suggestPeriod) {
+        if (version == null || version.isBlank()) {
+            throw new IllegalArgumentException("version is required");
+        }
+        if (minimumSum.signum() <= 0 || minimumSum.compareTo(maximumSum) > 0) {
+            throw new IllegalArgumentException("amount.minimum must be positive and not above amount.maximum");
+        }
+        // whole cents that fit an int, so the fixed point engine and the offer index can hold any amount
+        if (maximumSum.scale() > CENTS_SCALE || minimumSum.scale() > CENTS_SCALE || maximumSum.movePointRight(CENTS_SCALE).compareTo(BigDecimal.valueOf(Integer.MAX_VALUE)) > 0) {
+            throw new IllegalArgumentException("amounts must have at most 2 decimals and be below " + BigDecimal.valueOf(Integer.MAX_VALUE, CENTS_SCALE));
+        }
+        if (minimumPeriod <= 0 || minimumPeriod > maximumPeriod || maximumPeriod >= LoanDecisionOutcome.CACHED_PERIODS) {
+            throw new IllegalArgumentException("periods must be between 1 and " + (LoanDecisionOutcome.CACHED_PERIODS - 1) + " and period.minimum not above period.maximum");
+        }
+        this.version = version.trim();
+        this.minimumSum = minimumSum;
+        this.maximumSum = maximumSum;
+        this.minimumPeriod = minimumPeriod;
+        this.maximumPeriod = maximumPeriod;
+        this.suggestAmount = suggestAmount;
+        this.suggestPeriod = suggestPeriod;
+
+        this.minimumSumCents = minimumSum.movePointRight(CENTS_SCALE).longValueExact();
+        this.maximumSumCents = maximumSum.movePointRight(CENTS_SCALE).longValueExact();
+        this.approvedMaximumSum = new LoanDecision(LoanDecisionOutcome.APPROVED, maximumSum, 0);
+
+        LoanRequestError[] errors = LoanRequestError.values();
+        this.requestErrorMessages = new String[errors.length];
+        this.requestErrorResults = new LoanDecisionResult[errors.length];
+        for (LoanRequestError error : errors) {
+            Object limit = switch (error) {
+                case LESS_THAN_MINIMUM_AMOUNT -> minimumSum;
+                case HIGHER_THAN_MAXIMUM_AMOUNT -> maximumSum;
+                case MORE_THAN_MAXIMUM_PERIOD -> maximumPeriod;
+                case LESS_THAN_MINIMUM_PERIOD -> minimumPeriod;
+            };
+            requestErrorMessages[error.ordinal()] = error.getMessagePrefix() + limit;
+            requestErrorResults[error.ordinal()] = LoanDecisionResult.error(error, requestErrorMessages[error.ordinal()]);
+        }
+    }
+
+    // IllegalArgumentException with the reason when the definition is not a valid policy
+    public static LoanPolicy compile(Properties definition) {
+        for (String key : definition.stringPropertyNames()) {
+            if (!KEYS.contains(key)) {
+                throw new IllegalArgumentException("unknown key " + key);
+            }
+        }
+        Map<String, String> values = Map.of(
+                "amount.minimum", BUILT_IN.minimumSum.toPlainString(),
+                "amount.maximum", BUILT_IN.maximumSum.toPlainString(),
+                "period.minimum", Integer.toString(BUILT_IN.minimumPeriod),
+                "period.maximum", Integer.toString(BUILT_IN.maximumPeriod),
+                "suggest.amount", Boolean.toString(BUILT_IN.suggestAmount),
+                "suggest.period", Boolean.toString(BUILT_IN.suggestPeriod));
+        try {
+            return new LoanPolicy(definition.getProperty("version"),
+                    amount(value(definition, values, "amount.minimum")),
+                    amount(value(definition, values, "amount.maximum")),
+                    Integer.parseInt(value(definition, values, "period.minimum")),
+                    Integer.parseInt(value(definition, values, "period.maximum")),
+                    parseBoolean(value(definition, values, "suggest.amount")),
+                    parseBoolean(value(definition, values, "suggest.period")));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("invalid number " + e.getMessage());
+        }
+    }
+
+    // null when the request is within the limits
+    public LoanRequestError getLoanRequestError(BigDecimal loanAmount, int loanPeriod) {
+        if (minimumSum.compareTo(loanAmount) > 0) {
+            return LoanRequestError.LESS_THAN_MINIMUM_AMOUNT;
+        } else if (maximumSum.compareTo(loanAmount) < 0) {
+            return LoanRequestError.HIGHER_THAN_MAXIMUM_AMOUNT;
+        } else if (maximumPeriod < loanPeriod) {
+            return LoanRequestError.MORE_THAN_MAXIMUM_PERIOD;
+        } else if (minimumPeriod > loanPeriod) {
+            return LoanRequestError.LESS_THAN_MINIMUM_PERIOD;
+        }
+        return null;
+    }
+
+    public String getMessage(LoanRequestError error) {
+        return requestErrorMessages[error.ordinal()];
+    }
+
+    public LoanDecisionResult getResult(LoanRequestError error) {
+        return requestErrorResults[error.ordinal()];
+    }
+
+    private static String value(Properties definition, Map<String, String> defaults, String key) {
+        return definition.getProperty(key, defaults.get(key)).trim();
+    }
+
+    // 1E+4 is written as 10000 in responses
+    private static BigDecimal amount(String value) {
+        BigDecimal amount = new BigDecimal(value);
+        return amount.scale() < 0 ? amount.setScale(0) : amount;
+    }
+
+    private static boolean parseBoolean(String value) {
+        if (!value.equalsIgnoreCase("true") && !value.equalsIgnoreCase("false")) {
+            throw new IllegalArgumentException("invalid boolean " + value);
+        }
+        return Boolean.parseBoolean(value);
+    }
+
+    @Override
+    public String toString() {
+        return "LoanPolicy(version=" + version + ", amount=" + minimumSum.toPlainString() + ".." + maximumSum.toPlainString()
+                + ", period=" + minimumPeriod + ".." + maximumPeriod + ", suggestAmount=" + suggestAmount + ", suggestPeriod=" + suggestPeriod + ")";
+    }
+}
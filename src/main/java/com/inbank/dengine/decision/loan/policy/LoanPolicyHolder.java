@@ -0,0 +1,95 @@
+package com.inbank.dengine.decision.loan.policy;
+
+import com.inbank.dengine.exception.exceptionType.ServerException;
+import com.inbank.dengine.util.GlobalConstant;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Objects;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicReference;
+
+/*
+ * current loan policy, compiled from decision.policy.file and swapped as a whole when the file changes.
+ * a request reads the policy once and uses that instance for validation, decision and response, so it never mixes two versions.
+ * without a file the built-in policy is used, a file that doesn't compile keeps the previous policy.
+ */
+@Slf4j
+@Component
+// the policy file is polled from startup, also with spring.main.lazy-initialization
+@Lazy(false)
+public class LoanPolicyHolder {
+
+    private final Path path;
+    private final AtomicReference<LoanPolicy> policy = new AtomicReference<>(LoanPolicy.BUILT_IN);
+    // modification time and size of the file the current policy was read from, null for the built-in policy
+    private volatile String loadedFileKey;
+
+    public LoanPolicyHolder(@Value("${decision.policy.file:loan-policy.properties}") Path path) {
+        this.path = path;
+        // a broken policy at startup stops the application instead of silently deciding with the built-in limits
+        if (Files.exists(path)) {
+            reload();
+        }
+        log.info("loan policy {}", policy.get());
+    }
+
+    public LoanPolicy get() {
+        return policy.get();
+    }
+
+    @Scheduled(fixedDelayString = "${decision.policy.check-interval-ms:5000}", initialDelayString = "${decision.policy.check-interval-ms:5000}")
+    public void reloadIfChanged() {
+        try {
+            String fileKey = fileKey();
+            if (!Objects.equals(fileKey, loadedFileKey)) {
+                reload();
+            }
+        } catch (ServerException e) {
+            log.error(e.getMessage());
+        }
+    }
+
+    public LoanPolicy reload() {
+        if (!Files.exists(path)) {
+            loadedFileKey = null;
+            LoanPolicy previous = policy.getAndSet(LoanPolicy.BUILT_IN);
+            if (previous != LoanPolicy.BUILT_IN) {
+                log.info("loan policy file {} removed, using {}", path, LoanPolicy.BUILT_IN);
+            }
+            return LoanPolicy.BUILT_IN;
+        }
+        String fileKey = fileKey();
+        LoanPolicy loaded;
+        try (Reader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            Properties definition = new Properties();
+            definition.load(reader);
+            loaded = LoanPolicy.compile(definition);
+        } catch (IOException | IllegalArgumentException e) {
+            // not retried until the file changes again
+            loadedFileKey = fileKey;
+            throw new ServerException(GlobalConstant.LoanPolicyErrors.INVALID_POLICY + path + " : " + e.getMessage());
+        }
+        loadedFileKey = fileKey;
+        LoanPolicy previous = policy.getAndSet(loaded);
+        log.info("loan policy {} loaded from {}, replaces version {}", loaded, path, previous.getVersion());
+        return loaded;
+    }
+
+    private String fileKey() {
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+            return attributes.lastModifiedTime().toMillis() + ":" + attributes.size();
+        } catch (IOException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package com.inbank.dengine.decision.loan.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.inbank.dengine.decision.loan.dto.LoanDecisionBatchItemDTO;
+import com.inbank.dengine.decision.loan.dto.LoanDecisionRequestDTO;
+import com.inbank.dengine.decision.loan.model.LoanDecisionResult;
+import com.inbank.dengine.exception.exceptionType.ServerException;
+import com.inbank.dengine.util.GlobalConstant;
+import org.springframework.stereotype.Service;
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+@Service
+public class LoanDecisionBatchService {
+
+    private final LoanDecisionService loanDecisionService;
+    private final Validator validator;
+    private final ObjectReader requestReader;
+    private final ObjectWriter itemWriter;
+
+    public LoanDecisionBatchService(LoanDecisionService loanDecisionService, Validator validator, ObjectMapper objectMapper) {
+        this.loanDecisionService = loanDecisionService;
+        this.validator = validator;
+        this.requestReader = objectMapper.readerFor(LoanDecisionRequestDTO.class);
+        // flushing is driven by the batch loop, not by every written row
+        this.itemWriter = objectMapper.writerFor(LoanDecisionBatchItemDTO.class).without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    }
+
+    /*
+     * rows are read one at a time from the request stream and written back as soon as they are decided,
+     * so memory stays constant whatever the size of the batch.
+     * a json array body is answered with a json array, anything else with new line delimited json
+     */
+    public void getLoanDecisions(InputStream inputStream, OutputStream outputStream, boolean jsonArray) throws IOException {
+        try (MappingIterator<LoanDecisionRequestDTO> rows = requestReader.readValues(inputStream);
+             JsonGenerator generator = itemWriter.createGenerator(outputStream)) {
+
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            if (jsonArray) {
+                generator.writeStartArray();
+            } else {
+                generator.setRootValueSeparator(null);
+            }
+
+            long row = 0;
+            try {
+                while (rows.hasNextValue()) {
+                    LoanDecisionBatchItemDTO item;
+                    try {
+                        item = getLoanDecision(row, rows.nextValue());
+                    } catch (JsonParseException e) {
+                        throw e;
+                    } catch (JsonMappingException e) {
+                        // a row with wrong field types is skipped, the stream itself is still readable
+                        item = LoanDecisionBatchItemDTO.builder().row(row).error(GlobalConstant.LoanDecisionErrors.INVALID_BATCH_ROW + e.getOriginalMessage()).build();
+                    }
+                    writeItem(generator, item, jsonArray);
+                    row++;
+                    if (row % GlobalConstant.BatchConstraints.FLUSH_INTERVAL == 0) {
+                        generator.flush();
+                    }
+                }
+            } catch (JsonParseException e) {
+                // malformed json can't be resynchronized, report it and stop at this row
+                writeItem(generator, LoanDecisionBatchItemDTO.builder().row(row).error(GlobalConstant.LoanDecisionErrors.MALFORMED_BATCH_BODY + e.getOriginalMessage()).build(), jsonArray);
+            }
+
+            if (jsonArray) {
+                generator.writeEndArray();
+            }
+            generator.flush();
+        }
+    }
+
+    private LoanDecisionBatchItemDTO getLoanDecision(long row, LoanDecisionRequestDTO loanDecisionRequestDTO) {
+        LoanDecisionBatchItemDTO.LoanDecisionBatchItemDTOBuilder item = LoanDecisionBatchItemDTO.builder()
+                .row(row)
+                .personalCode(loanDecisionRequestDTO.getPersonalCode());
+
+        Set<ConstraintViolation<LoanDecisionRequestDTO>> violations = validator.validate(loanDecisionRequestDTO);
+        if (!violations.isEmpty()) {
+            return item.error(violations.stream().map(ConstraintViolation::getMessage).sorted().collect(Collectors.joining(","))).build();
+        }
+
+        try {
+            LoanDecisionResult loanDecisionResult = loanDecisionService.getLoanDecisionResult(loanDecisionRequestDTO);
+            if (loanDecisionResult.isError()) {
+                return item.error(loanDecisionResult.getError()).build();
+            }
+            return item.decision(loanDecisionResult.getResponse().getDecision())
+                    .loanAmount(loanDecisionResult.getResponse().getLoanAmount())
+                    .build();
+        } catch (ServerException e) {
+            return item.error(e.getMessage()).build();
+        }
+    }
+
+    private void writeItem(JsonGenerator generator, LoanDecisionBatchItemDTO item, boolean jsonArray) throws IOException {
+        itemWriter.writeValue(generator, item);
+        if (!jsonArray) {
+            generator.writeRaw('\n');
+        }
+    }
+}
@@ -2,93 +2,129 @@ package com.inbank.dengine.decision.loan.service;
 
 import com.inbank.dengine.account.model.Account;
 import com.inbank.dengine.account.service.AccountService;
+import com.inbank.dengine.decision.loan.audit.DecisionAuditJournal;
+import com.inbank.dengine.decision.loan.cache.LoanDecisionCache;
+import com.inbank.dengine.decision.loan.cache.LoanDecisionSingleFlight;
 import com.inbank.dengine.decision.loan.dto.LoanDecisionRequestDTO;
 import com.inbank.dengine.decision.loan.dto.LoanDecisionResponseDTO;
+import com.inbank.dengine.decision.loan.engine.LoanDecisionEngine;
+import com.inbank.dengine.decision.loan.metrics.LoanDecisionMetrics;
+import com.inbank.dengine.decision.loan.model.LoanDecision;
+import com.inbank.dengine.decision.loan.model.LoanDecisionResult;
+import com.inbank.dengine.decision.loan.model.LoanRequestError;
+import com.inbank.dengine.decision.loan.policy.LoanPolicy;
+import com.inbank.dengine.decision.loan.policy.LoanPolicyHolder;
 import com.inbank.dengine.exception.exceptionType.BadClientException;
-import com.inbank.dengine.exception.exceptionType.ServerException;
 import com.inbank.dengine.util.GlobalConstant;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
-import java.math.BigDecimal;
-import java.math.MathContext;
-import java.math.RoundingMode;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 @Service
 @RequiredArgsConstructor
 public class LoanDecisionService {
 
     private final AccountService accountService;
+    private final LoanDecisionEngine loanDecisionEngine;
+    private final LoanDecisionCache loanDecisionCache;
+    private final LoanDecisionMetrics loanDecisionMetrics;
+    private final LoanPolicyHolder loanPolicyHolder;
+    private final LoanDecisionSingleFlight loanDecisionSingleFlight;
+    private final DecisionAuditJournal decisionAuditJournal;
 
     public LoanDecisionResponseDTO getLoanDecision(LoanDecisionRequestDTO loanDecisionRequestDTO) {
-        Optional<Account> userAccountOptional = accountService.getAccountByPersonalCode(loanDecisionRequestDTO.getPersonalCode());
-        validateLoanRequest(loanDecisionRequestDTO);
+        return getOrThrow(getLoanDecisionResult(loanDecisionRequestDTO));
+    }
 
-        if (!userAccountOptional.isPresent()) {
-            throw new BadClientException(GlobalConstant.LoanDecisionErrors.INVALID_USER_ACCOUNT + loanDecisionRequestDTO.getPersonalCode());
+    // every answered request is audited, collapsed requests and failures too
+    public LoanDecisionResult getLoanDecisionResult(LoanDecisionRequestDTO loanDecisionRequestDTO) {
+        LoanPolicy loanPolicy = loanPolicyHolder.get();
+        LoanDecisionResult loanDecisionResult;
+        try {
+            loanDecisionResult = decideLoanRequest(loanPolicy, loanDecisionRequestDTO);
+        } catch (RuntimeException e) {
+            decisionAuditJournal.record(loanPolicy.getVersion(), loanDecisionRequestDTO, failure(e));
+            throw e;
         }
+        decisionAuditJournal.record(loanPolicy.getVersion(), loanDecisionRequestDTO, loanDecisionResult);
+        return loanDecisionResult;
+    }
 
-        if (userAccountOptional.get().getIsDebt()) {
-            return LoanDecisionResponseDTO.builder().decision(GlobalConstant.LoanDecisionErrors.USER_IS_HAVING_DEBT + GlobalConstant.LoanDecisionMessages.LOAN_REJECTED)
-                    .loanAmount(BigDecimal.ZERO)
-                    .build();
+    // out of range requests are answered before the account lookup, without an exception
+    // the policy is read once, validation and decision of a request always use the same version
+    private LoanDecisionResult decideLoanRequest(LoanPolicy loanPolicy, LoanDecisionRequestDTO loanDecisionRequestDTO) {
+        LoanRequestError loanRequestError = validateLoanRequest(loanPolicy, loanDecisionRequestDTO);
+        if (loanRequestError != null) {
+            return loanPolicy.getResult(loanRequestError);
         }
 
-        boolean creditModifierShouldValidAndLargerThanZero = userAccountOptional.get().getCreditModifier() != null && userAccountOptional.get().getCreditModifier().compareTo(BigDecimal.ZERO) > 0;
-
-        if (!creditModifierShouldValidAndLargerThanZero) {
-            throw new ServerException(GlobalConstant.LoanDecisionErrors.INTERNAL_DATA_ERROR + loanDecisionRequestDTO.getPersonalCode());
+        return loanDecisionSingleFlight.getLoanDecisionResult(loanPolicy, loanDecisionRequestDTO, () -> {
+            long lookupStart = loanDecisionMetrics.startTiming();
+            Optional<Account> userAccountOptional = accountService.getAccountByPersonalCode(loanDecisionRequestDTO.getPersonalCode());
+            loanDecisionMetrics.recordAccountLookup(lookupStart);
+            return getLoanDecisionResult(loanPolicy, loanDecisionRequestDTO, userAccountOptional);
+        });
+    }
 
+    // an invalid request fails before the lookup, the decision runs on the thread that completes the lookup
+    public CompletableFuture<LoanDecisionResponseDTO> getLoanDecisionAsync(LoanDecisionRequestDTO loanDecisionRequestDTO) {
+        LoanPolicy loanPolicy = loanPolicyHolder.get();
+        LoanRequestError loanRequestError = validateLoanRequest(loanPolicy, loanDecisionRequestDTO);
+        if (loanRequestError != null) {
+            decisionAuditJournal.record(loanPolicy.getVersion(), loanDecisionRequestDTO, loanPolicy.getResult(loanRequestError));
+            throw new BadClientException(loanPolicy.getMessage(loanRequestError));
         }
-        BigDecimal eligibleLoanAmount = userAccountOptional.get().getCreditModifier().multiply(BigDecimal.valueOf(loanDecisionRequestDTO.getLoanPeriod()));
-        BigDecimal creditScore = (eligibleLoanAmount.divide(loanDecisionRequestDTO.getLoanAmount(), MathContext.DECIMAL128));
 
-        if (creditScore.compareTo(BigDecimal.ONE) >= 0) {
+        return loanDecisionSingleFlight.getLoanDecisionResultAsync(loanPolicy, loanDecisionRequestDTO, () -> {
+            long lookupStart = loanDecisionMetrics.startTiming();
+            return accountService.getAccountByPersonalCodeAsync(loanDecisionRequestDTO.getPersonalCode())
+                    .thenApply(userAccountOptional -> {
+                        loanDecisionMetrics.recordAccountLookup(lookupStart);
+                        return getLoanDecisionResult(loanPolicy, loanDecisionRequestDTO, userAccountOptional);
+                    });
+        }).handle((loanDecisionResult, error) -> {
+            if (error != null) {
+                decisionAuditJournal.record(loanPolicy.getVersion(), loanDecisionRequestDTO,
+                        failure(error instanceof CompletionException && error.getCause() != null ? error.getCause() : error));
+                throw error instanceof CompletionException ? (CompletionException) error : new CompletionException(error);
+            }
+            decisionAuditJournal.record(loanPolicy.getVersion(), loanDecisionRequestDTO, loanDecisionResult);
+            return getOrThrow(loanDecisionResult);
+        });
+    }
+
+    // a lookup or decision that failed (e.g. no credit bureau answered) is audited with the message of its answer
+    private static LoanDecisionResult failure(Throwable error) {
+        return LoanDecisionResult.error(error.getMessage() != null ? error.getMessage() : error.getClass().getSimpleName());
+    }
 
-            //eligible loan amount can't be exceeded the maximum loan amount
-            eligibleLoanAmount = eligibleLoanAmount.compareTo(GlobalConstant.LoanConstraints.MAXIMUM_SUM) >= 0 ? GlobalConstant.LoanConstraints.MAXIMUM_SUM : eligibleLoanAmount;
-            return LoanDecisionResponseDTO.builder().decision(GlobalConstant.LoanDecisionMessages.LOAN_APPROVED)
-                    .loanAmount(eligibleLoanAmount)
-                    .build();
+    private LoanDecisionResult getLoanDecisionResult(LoanPolicy loanPolicy, LoanDecisionRequestDTO loanDecisionRequestDTO, Optional<Account> userAccountOptional) {
+        if (!userAccountOptional.isPresent()) {
+            loanDecisionMetrics.recordAccountNotFound();
+            return LoanDecisionResult.error(GlobalConstant.LoanDecisionErrors.INVALID_USER_ACCOUNT + loanDecisionRequestDTO.getPersonalCode());
         }
 
-        // eligible amount can be given as loan amount if it is greater than minimum sum
-        if (eligibleLoanAmount.compareTo(GlobalConstant.LoanConstraints.MINIMUM_SUM) >= 0) {
-            return LoanDecisionResponseDTO.builder().decision(GlobalConstant.LoanDecisionMessages.LOAN_REJECTED + GlobalConstant.LoanDecisionMessages.SUGGESTED_AMOUNT)
-                    .loanAmount(eligibleLoanAmount)
-                    .build();
-        }
-        // eligible amount is less than minimum amount. then user requested value is needed to be adjusted based on months
-        int suggestedLoanPeriod = (loanDecisionRequestDTO.getLoanAmount().divide(userAccountOptional.get().getCreditModifier(), MathContext.DECIMAL128)).setScale(0, RoundingMode.UP).intValue();
-        // requested amount can be paid within valid period, user is notified with new loan period
-        if (suggestedLoanPeriod <= GlobalConstant.LoanConstraints.MAXIMUM_PERIOD) {
-            return LoanDecisionResponseDTO.builder().decision(GlobalConstant.LoanDecisionMessages.LOAN_REJECTED + GlobalConstant.LoanDecisionMessages.SUGGESTED_PERIOD + suggestedLoanPeriod)
-                    .loanAmount(loanDecisionRequestDTO.getLoanAmount())
-                    .build();
-        }
+        long computationStart = loanDecisionMetrics.startTiming();
+        LoanDecision loanDecision = loanDecisionCache.getLoanDecision(loanPolicy, userAccountOptional.get(), loanDecisionRequestDTO.getLoanAmount(), loanDecisionRequestDTO.getLoanPeriod(), loanDecisionEngine);
+        loanDecisionMetrics.recordComputation(computationStart);
+        loanDecisionMetrics.recordOutcome(loanDecision.getOutcome());
+        return LoanDecisionResult.of(loanDecision.toResponseDTO(loanPolicy.getVersion()));
+    }
 
-        // try to give maximum loan amount , in maximum eligible period
-        BigDecimal suggestedMaximumLoanAmount = BigDecimal.valueOf(GlobalConstant.LoanConstraints.MAXIMUM_PERIOD).multiply(userAccountOptional.get().getCreditModifier());
-        if (suggestedMaximumLoanAmount.compareTo(GlobalConstant.LoanConstraints.MINIMUM_SUM) >= 0) {
-            return LoanDecisionResponseDTO.builder().decision(GlobalConstant.LoanDecisionMessages.LOAN_REJECTED + GlobalConstant.LoanDecisionMessages.SUGGESTED_AMOUNT + " and " + GlobalConstant.LoanDecisionMessages.SUGGESTED_PERIOD + GlobalConstant.LoanConstraints.MAXIMUM_PERIOD)
-                    .loanAmount(suggestedMaximumLoanAmount)
-                    .build();
+    private LoanDecisionResponseDTO getOrThrow(LoanDecisionResult loanDecisionResult) {
+        if (loanDecisionResult.isError()) {
+            throw new BadClientException(loanDecisionResult.getError());
         }
-        // no suitable loan amount found for requested user
-        return LoanDecisionResponseDTO.builder().decision(GlobalConstant.LoanDecisionMessages.LOAN_REJECTED)
-                .loanAmount(BigDecimal.ZERO)
-                .build();
+        return loanDecisionResult.getResponse();
     }
 
-    private void validateLoanRequest(LoanDecisionRequestDTO loanDecisionRequestDTO) throws BadClientException {
-        if (GlobalConstant.LoanConstraints.MINIMUM_SUM.compareTo(loanDecisionRequestDTO.getLoanAmount()) > 0) {
-            throw new BadClientException(GlobalConstant.LoanDecisionErrors.LESS_THAN_MINIMUM_AMOUNT);
-        } else if (GlobalConstant.LoanConstraints.MAXIMUM_SUM.compareTo(loanDecisionRequestDTO.getLoanAmount()) < 0) {
-            throw new BadClientException(GlobalConstant.LoanDecisionErrors.HIGHER_THAN_MAXIMUM_AMOUNT);
-        } else if (GlobalConstant.LoanConstraints.MAXIMUM_PERIOD < loanDecisionRequestDTO.getLoanPeriod()) {
-            throw new BadClientException(GlobalConstant.LoanDecisionErrors.MORE_THAN_MAXIMUM_PERIOD);
-        } else if (GlobalConstant.LoanConstraints.MINIMUM_PERIOD > loanDecisionRequestDTO.getLoanPeriod()) {
-            throw new BadClientException(GlobalConstant.LoanDecisionErrors.LESS_THAN_MINIMUM_PERIOD);
+    private LoanRequestError validateLoanRequest(LoanPolicy loanPolicy, LoanDecisionRequestDTO loanDecisionRequestDTO) {
+        LoanRequestError loanRequestError = loanPolicy.getLoanRequestError(loanDecisionRequestDTO.getLoanAmount(), loanDecisionRequestDTO.getLoanPeriod());
+        if (loanRequestError != null) {
+            loanDecisionMetrics.recordRejectedRequest(loanRequestError);
         }
+        return loanRequestError;
     }
 }
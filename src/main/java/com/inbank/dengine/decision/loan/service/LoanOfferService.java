@@ -0,0 +1,94 @@
+package com.inbank.dengine.decision.loan.service;
+
+import com.inbank.dengine.account.model.Account;
+import com.inbank.dengine.account.service.AccountService;
+import com.inbank.dengine.decision.loan.dto.LoanOfferDTO;
+import com.inbank.dengine.decision.loan.dto.LoanOfferMatrixDTO;
+import com.inbank.dengine.decision.loan.dto.LoanOfferRequestDTO;
+import com.inbank.dengine.decision.loan.model.LoanDecision;
+import com.inbank.dengine.decision.loan.model.LoanRequestError;
+import com.inbank.dengine.decision.loan.policy.LoanPolicy;
+import com.inbank.dengine.decision.loan.policy.LoanPolicyHolder;
+import com.inbank.dengine.exception.exceptionType.BadClientException;
+import com.inbank.dengine.exception.exceptionType.ServerException;
+import com.inbank.dengine.util.GlobalConstant;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+/*
+ * every period of the slider in one call. a loan is approved when creditModifier * period >= loanAmount, so the
+ * maximum amount of a period is creditModifier * period capped at the maximum sum, and it only grows with the period.
+ * one pass over the periods of the policy adds the modifier once per period instead of running a decision for each.
+ */
+@Service
+@RequiredArgsConstructor
+public class LoanOfferService {
+
+    private final AccountService accountService;
+    private final LoanPolicyHolder loanPolicyHolder;
+
+    public LoanOfferMatrixDTO getLoanOffers(LoanOfferRequestDTO loanOfferRequestDTO) {
+        LoanPolicy loanPolicy = loanPolicyHolder.get();
+        BigDecimal loanAmount = loanOfferRequestDTO.getLoanAmount();
+        validateLoanAmount(loanPolicy, loanAmount);
+
+        Account account = accountService.getAccountByPersonalCode(loanOfferRequestDTO.getPersonalCode())
+                .orElseThrow(() -> new BadClientException(GlobalConstant.LoanDecisionErrors.INVALID_USER_ACCOUNT + loanOfferRequestDTO.getPersonalCode()));
+
+        LoanOfferMatrixDTO.LoanOfferMatrixDTOBuilder loanOfferMatrix = LoanOfferMatrixDTO.builder()
+                .personalCode(loanOfferRequestDTO.getPersonalCode())
+                .loanAmount(loanAmount);
+        List<LoanOfferDTO> offers = new ArrayList<>(loanPolicy.getMaximumPeriod() - loanPolicy.getMinimumPeriod() + 1);
+
+        if (account.getIsDebt()) {
+            for (int loanPeriod = loanPolicy.getMinimumPeriod(); loanPeriod <= loanPolicy.getMaximumPeriod(); loanPeriod++) {
+                offers.add(LoanOfferDTO.builder().loanPeriod(loanPeriod).build());
+            }
+            return loanOfferMatrix.decision(LoanDecision.REJECTED_DEBT.getDecision()).offers(offers).build();
+        }
+
+        BigDecimal creditModifier = account.getCreditModifier();
+        if (creditModifier == null || creditModifier.compareTo(BigDecimal.ZERO) <= 0) {
+            throw new ServerException(GlobalConstant.LoanDecisionErrors.INTERNAL_DATA_ERROR + account.getPersonalCode());
+        }
+
+        Integer minimumLoanPeriod = null;
+        boolean anyOffer = false;
+        BigDecimal eligibleLoanAmount = creditModifier.multiply(BigDecimal.valueOf(loanPolicy.getMinimumPeriod()));
+        for (int loanPeriod = loanPolicy.getMinimumPeriod(); loanPeriod <= loanPolicy.getMaximumPeriod(); loanPeriod++) {
+            if (loanPeriod > loanPolicy.getMinimumPeriod()) {
+                eligibleLoanAmount = eligibleLoanAmount.add(creditModifier);
+            }
+            if (minimumLoanPeriod == null && loanAmount != null && eligibleLoanAmount.compareTo(loanAmount) >= 0) {
+                minimumLoanPeriod = loanPeriod;
+            }
+
+            LoanOfferDTO.LoanOfferDTOBuilder offer = LoanOfferDTO.builder().loanPeriod(loanPeriod);
+            if (eligibleLoanAmount.compareTo(loanPolicy.getMinimumSum()) >= 0) {
+                // same amount as an approved decision for this period
+                offer.maximumLoanAmount(eligibleLoanAmount.compareTo(loanPolicy.getMaximumSum()) >= 0 ? loanPolicy.getMaximumSum() : eligibleLoanAmount);
+                anyOffer = true;
+            }
+            offers.add(offer.build());
+        }
+
+        return loanOfferMatrix.decision(anyOffer ? null : LoanDecision.REJECTED.getDecision())
+                .minimumLoanPeriod(minimumLoanPeriod)
+                .offers(offers)
+                .build();
+    }
+
+    private void validateLoanAmount(LoanPolicy loanPolicy, BigDecimal loanAmount) {
+        if (loanAmount == null) {
+            return;
+        }
+        if (loanPolicy.getMinimumSum().compareTo(loanAmount) > 0) {
+            throw new BadClientException(loanPolicy.getMessage(LoanRequestError.LESS_THAN_MINIMUM_AMOUNT));
+        } else if (loanPolicy.getMaximumSum().compareTo(loanAmount) < 0) {
+            throw new BadClientException(loanPolicy.getMessage(LoanRequestError.HIGHER_THAN_MAXIMUM_AMOUNT));
+        }
+    }
+}
@@ -0,0 +1,238 @@
+package com.inbank.dengine.decision.loan.service;
+
+import com.inbank.dengine.account.service.AccountService;
+import com.inbank.dengine.account.store.AccountScan;
+import com.inbank.dengine.account.util.PersonalCodes;
+import com.inbank.dengine.decision.loan.dto.PreApprovedOfferDTO;
+import com.inbank.dengine.decision.loan.dto.PreApprovedOfferReportDTO;
+import com.inbank.dengine.decision.loan.offer.PreApprovedOfferIndex;
+import com.inbank.dengine.decision.loan.policy.LoanPolicy;
+import com.inbank.dengine.decision.loan.policy.LoanPolicyHolder;
+import com.inbank.dengine.exception.exceptionType.ConflictException;
+import com.inbank.dengine.exception.exceptionType.ServerException;
+import com.inbank.dengine.util.GlobalConstant;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+/*
+ * best offer of every account, rebuilt from the whole account book and swapped in at the end, lookups keep using the
+ * previous offers until then.
+ * a loan is approved when creditModifier * period >= loanAmount, so the best offer is creditModifier * maximum period capped at
+ * the maximum sum, with the shortest period that still approves it. debt accounts and accounts below the minimum sum get no offer.
+ * the policy of the start of the rebuild is used for the whole book.
+ * an account import replaces the scanned book and a policy change replaces the policy, the offers built from the previous
+ * ones are stale and rebuilt by the next staleness check, they keep being served (flagged stale) until then.
+ * partitions of the book are evaluated in parallel on the fork join pool, then added to one compact index.
+ */
+@Slf4j
+@Service
+// the nightly and staleness rebuilds are scheduled from startup, also with spring.main.lazy-initialization
+@Lazy(false)
+public class PreApprovedOfferService {
+
+    private static final int CENTS_SCALE = 2;
+    private static final long[] POWERS_OF_TEN = {1, 10, 100};
+    // offers are packed as amount in cents << 8 | period
+    private static final long NO_OFFER = -1;
+    private static final int PERIOD_BITS = 8;
+
+    private final AccountService accountService;
+    private final LoanPolicyHolder loanPolicyHolder;
+    private final int partitionSize;
+    private final boolean rebuildOnStartup;
+    private final ReentrantLock rebuildLock = new ReentrantLock();
+    private volatile PreApprovedOfferIndex index = PreApprovedOfferIndex.EMPTY;
+    // book and policy the current index was built from, null before the first rebuild
+    private volatile AccountScan builtFromAccounts;
+    private volatile LoanPolicy builtWithPolicy;
+
+    public PreApprovedOfferService(AccountService accountService,
+                                   LoanPolicyHolder loanPolicyHolder,
+                                   @Value("${offer.pre-approved.partition-size:65536}") int partitionSize,
+                                   @Value("${offer.pre-approved.on-startup:true}") boolean rebuildOnStartup) {
+        this.accountService = accountService;
+        this.loanPolicyHolder = loanPolicyHolder;
+        this.partitionSize = Math.max(1, partitionSize);
+        this.rebuildOnStartup = rebuildOnStartup;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildOnStartup() {
+        if (rebuildOnStartup) {
+            rebuildIfScannable();
+        }
+    }
+
+    @Scheduled(cron = "${offer.pre-approved.cron:0 0 3 * * *}")
+    public void rebuildNightly() {
+        rebuildIfScannable();
+    }
+
+    // only once offers were built, without a startup rebuild the first one is left to the cron or the endpoint
+    @Scheduled(fixedDelayString = "${offer.pre-approved.check-interval-ms:5000}", initialDelayString = "${offer.pre-approved.check-interval-ms:5000}")
+    public void rebuildIfStale() {
+        if (!isStale()) {
+            return;
+        }
+        try {
+            rebuild();
+        } catch (ConflictException e) {
+            log.info("pre-approved offers are stale, a rebuild is already running");
+        }
+    }
+
+    // never stale before the first rebuild, there is nothing to serve yet
+    public boolean isStale() {
+        AccountScan accounts = accountService.scanAccounts().orElse(null);
+        return builtWithPolicy != null && (accounts != builtFromAccounts || loanPolicyHolder.get() != builtWithPolicy);
+    }
+
+    // remote account backends can't be listed, scheduled rebuilds skip them instead of failing every time
+    private void rebuildIfScannable() {
+        if (accountService.scanAccounts().isEmpty()) {
+            log.info("account store can't be scanned, no pre-approved offers");
+            return;
+        }
+        rebuild();
+    }
+
+    public PreApprovedOfferReportDTO rebuild() {
+        AccountScan accounts = accountService.scanAccounts()
+                .orElseThrow(() -> new ServerException(GlobalConstant.PreApprovedOfferErrors.STORE_NOT_SUPPORTED));
+        if (!rebuildLock.tryLock()) {
+            throw new ConflictException(GlobalConstant.PreApprovedOfferErrors.REBUILD_RUNNING);
+        }
+        try {
+            long start = System.nanoTime();
+            LoanPolicy loanPolicy = loanPolicyHolder.get();
+            long positions = accounts.positions();
+            List<OfferPartition> partitions = LongStream.range(0, (positions + partitionSize - 1) / partitionSize)
+                    .parallel()
+                    .mapToObj(partition -> evaluate(loanPolicy, accounts, partition * partitionSize, Math.min(positions, (partition + 1) * partitionSize)))
+                    .collect(Collectors.toList());
+            long evaluated = System.nanoTime();
+
+            long accountCount = partitions.stream().mapToLong(partition -> partition.accounts).sum();
+            int offerCount = partitions.stream().mapToInt(partition -> partition.size).sum();
+            PreApprovedOfferIndex.Builder builder = PreApprovedOfferIndex.builder(offerCount);
+            for (OfferPartition partition : partitions) {
+                for (int i = 0; i < partition.size; i++) {
+                    long offer = partition.offers[i];
+                    builder.add(partition.personalCodes[i], (int) (offer >>> PERIOD_BITS), (int) (offer & ((1 << PERIOD_BITS) - 1)));
+                }
+            }
+            Instant builtAt = Instant.now();
+            PreApprovedOfferIndex built = builder.build(builtAt);
+            index = built;
+            builtFromAccounts = accounts;
+            builtWithPolicy = loanPolicy;
+            long finished = System.nanoTime();
+
+            long durationNanos = finished - start;
+            PreApprovedOfferReportDTO report = PreApprovedOfferReportDTO.builder()
+                    .accounts(accountCount)
+                    .offers(built.size())
+                    .partitions(partitions.size())
+                    .evaluateMillis((evaluated - start) / 1_000_000)
+                    .indexMillis((finished - evaluated) / 1_000_000)
+                    .durationMillis(durationNanos / 1_000_000)
+                    .accountsPerSecond(durationNanos == 0 ? accountCount : accountCount * 1_000_000_000L / durationNanos)
+                    .builtAt(builtAt)
+                    .build();
+            log.info("pre-approved offers rebuilt {}", report);
+            return report;
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    public PreApprovedOfferDTO getPreApprovedOffer(String personalCode) {
+        PreApprovedOfferIndex current = index;
+        PreApprovedOfferDTO.PreApprovedOfferDTOBuilder preApprovedOffer = PreApprovedOfferDTO.builder()
+                .personalCode(personalCode)
+                .builtAt(current.getBuiltAt())
+                .stale(isStale());
+        long code = PersonalCodes.parse(personalCode);
+        int slot = code == PersonalCodes.INVALID ? -1 : current.slotOf(code);
+        if (slot < 0) {
+            return preApprovedOffer.preApproved(false).build();
+        }
+        return preApprovedOffer.preApproved(true)
+                .loanAmount(current.getLoanAmount(slot))
+                .loanPeriod(current.getLoanPeriod(slot))
+                .build();
+    }
+
+    private static OfferPartition evaluate(LoanPolicy loanPolicy, AccountScan accounts, long fromPosition, long toPosition) {
+        OfferPartition partition = new OfferPartition((int) (toPosition - fromPosition));
+        accounts.visit(fromPosition, toPosition, (personalCode, isDebt, creditModifierUnscaled, creditModifierScale) -> {
+            partition.accounts++;
+            long offer = isDebt ? NO_OFFER : getBestOffer(loanPolicy, creditModifierUnscaled, creditModifierScale);
+            if (offer != NO_OFFER) {
+                partition.personalCodes[partition.size] = personalCode;
+                partition.offers[partition.size] = offer;
+                partition.size++;
+            }
+        });
+        return partition;
+    }
+
+    // packed offer or NO_OFFER, amounts are rounded down to whole cents so an offer is never more than the decision approves
+    static long getBestOffer(LoanPolicy loanPolicy, long creditModifierUnscaled, int creditModifierScale) {
+        if (creditModifierUnscaled <= 0) {
+            // invalid account data gets no offer, a decision for the account reports it
+            return NO_OFFER;
+        }
+        long loanAmountCents;
+        int loanPeriod;
+        int maximumPeriod = loanPolicy.getMaximumPeriod();
+        if (creditModifierScale >= 0 && creditModifierScale <= CENTS_SCALE && creditModifierUnscaled <= Long.MAX_VALUE / 100 / maximumPeriod) {
+            long creditModifierCents = creditModifierUnscaled * POWERS_OF_TEN[CENTS_SCALE - creditModifierScale];
+            long eligibleLoanAmountCents = creditModifierCents * maximumPeriod;
+            if (eligibleLoanAmountCents >= loanPolicy.getMaximumSumCents()) {
+                loanAmountCents = loanPolicy.getMaximumSumCents();
+                loanPeriod = (int) Math.max(loanPolicy.getMinimumPeriod(), (loanAmountCents + creditModifierCents - 1) / creditModifierCents);
+            } else {
+                loanAmountCents = eligibleLoanAmountCents;
+                loanPeriod = maximumPeriod;
+            }
+        } else {
+            BigDecimal creditModifier = BigDecimal.valueOf(creditModifierUnscaled, creditModifierScale);
+            BigDecimal eligibleLoanAmount = creditModifier.multiply(BigDecimal.valueOf(maximumPeriod));
+            if (eligibleLoanAmount.compareTo(loanPolicy.getMaximumSum()) >= 0) {
+                loanAmountCents = loanPolicy.getMaximumSumCents();
+                loanPeriod = Math.max(loanPolicy.getMinimumPeriod(), loanPolicy.getMaximumSum().divide(creditModifier, 0, RoundingMode.CEILING).intValue());
+            } else {
+                loanAmountCents = eligibleLoanAmount.setScale(CENTS_SCALE, RoundingMode.DOWN).unscaledValue().longValue();
+                loanPeriod = maximumPeriod;
+            }
+        }
+        return loanAmountCents < loanPolicy.getMinimumSumCents() ? NO_OFFER : loanAmountCents << PERIOD_BITS | loanPeriod;
+    }
+
+    // offers of one range of positions, sized for the range so that no partition ever resizes
+    private static class OfferPartition {
+
+        private final long[] personalCodes;
+        private final long[] offers;
+        private long accounts;
+        private int size;
+
+        private OfferPartition(int positions) {
+            this.personalCodes = new long[positions];
+            this.offers = new long[positions];
+        }
+    }
+}
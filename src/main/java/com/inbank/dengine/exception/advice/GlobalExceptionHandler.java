@@ -2,10 +2,14 @@ package com.inbank.dengine.exception.advice;
 
 import com.inbank.dengine.exception.exceptionType.BadClientException;
 import com.inbank.dengine.exception.exceptionType.BadCredentialException;
+import com.inbank.dengine.exception.exceptionType.ConflictException;
 import com.inbank.dengine.exception.exceptionType.ServerException;
+import com.inbank.dengine.exception.exceptionType.ServiceUnavailableException;
 import com.inbank.dengine.exception.model.ErrorDetails;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.AccessDeniedException;
 import org.springframework.validation.BindException;
 import org.springframework.validation.FieldError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
@@ -60,9 +64,29 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(errorDetails, HttpStatus.UNAUTHORIZED);
     }
 
+    @ExceptionHandler(ConflictException.class)
+    public ResponseEntity<?> ConflictExceptionHandler(Exception ex, WebRequest request) {
+        ErrorDetails errorDetails = new ErrorDetails(Instant.now(), ex.getMessage(), request.getDescription(false));
+        return new ResponseEntity<>(errorDetails, HttpStatus.CONFLICT);
+    }
+
+    // thrown by @PreAuthorize, it would otherwise end in the generic handler as a bad request
+    @ExceptionHandler(AccessDeniedException.class)
+    public ResponseEntity<?> AccessDeniedExceptionHandler(Exception ex, WebRequest request) {
+        ErrorDetails errorDetails = new ErrorDetails(Instant.now(), ex.getMessage(), request.getDescription(false));
+        return new ResponseEntity<>(errorDetails, HttpStatus.FORBIDDEN);
+    }
+
     @ExceptionHandler(ServerException.class)
     public ResponseEntity<?> ServerExceptionHandler(Exception ex, WebRequest request) {
         ErrorDetails errorDetails = new ErrorDetails(Instant.now(), ex.getMessage(), request.getDescription(false));
         return new ResponseEntity<>(errorDetails, HttpStatus.INTERNAL_SERVER_ERROR);
     }
+
+    // answered like the requests ConcurrencyLimitFilter sheds, the client retries after a second
+    @ExceptionHandler(ServiceUnavailableException.class)
+    public ResponseEntity<?> ServiceUnavailableExceptionHandler(Exception ex, WebRequest request) {
+        ErrorDetails errorDetails = new ErrorDetails(Instant.now(), ex.getMessage(), request.getDescription(false));
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "1").body(errorDetails);
+    }
 }
\ No newline at end of file
@@ -3,9 +3,10 @@ package com.inbank.dengine.exception.exceptionType;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.ResponseStatus;
 
+// client errors are expected traffic, the stack trace would only point at the validation that threw it
 @ResponseStatus(value = HttpStatus.BAD_REQUEST)
 public class BadClientException extends RuntimeException {
     public BadClientException(String message) {
-        super(message);
+        super(message, null, false, false);
     }
-}
\ No newline at end of file
+}
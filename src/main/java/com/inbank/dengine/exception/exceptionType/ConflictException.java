@@ -0,0 +1,12 @@
+package com.inbank.dengine.exception.exceptionType;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+// the request is fine but clashes with work already running, retrying later succeeds
+@ResponseStatus(value = HttpStatus.CONFLICT)
+public class ConflictException extends RuntimeException {
+    public ConflictException(String message) {
+        super(message, null, false, false);
+    }
+}
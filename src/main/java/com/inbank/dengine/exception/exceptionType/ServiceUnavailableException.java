@@ -0,0 +1,12 @@
+package com.inbank.dengine.exception.exceptionType;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+// the service can't answer for now (overloaded or a dependency unavailable), the same request succeeds later
+@ResponseStatus(value = HttpStatus.SERVICE_UNAVAILABLE)
+public class ServiceUnavailableException extends ServerException {
+    public ServiceUnavailableException(String message) {
+        super(message);
+    }
+}
@@ -6,6 +6,7 @@ import static com.inbank.dengine.util.GlobalConstant.LoanConstraints.*;
 
 public class GlobalConstant {
 
+    // limits of the built-in loan policy, used when no policy file is deployed (decision.policy.file)
     public static class LoanConstraints {
         public static final BigDecimal MINIMUM_SUM = BigDecimal.valueOf(2000);
         public static final BigDecimal MAXIMUM_SUM = BigDecimal.valueOf(10000);
@@ -13,6 +14,20 @@ public class GlobalConstant {
         public static final Integer MINIMUM_PERIOD = 12;
     }
 
+    public static class BatchConstraints {
+        public static final int FLUSH_INTERVAL = 256;
+    }
+
+    public static class AuditErrors {
+        public static final String JOURNAL_UNAVAILABLE = "Decision can't be audited right now, try again later";
+        public static final String RECORD_NOT_ENCODABLE = "Audit record can't be encoded : ";
+    }
+
+    public static class AuditConstraints {
+        public static final int DEFAULT_READ_LIMIT = 1000;
+        public static final int MAXIMUM_READ_LIMIT = 10000;
+    }
+
     public static class LoanDecisionMessages {
 
         public static final String LOAN_APPROVED = "Your Loan request has been APPROVED.";
@@ -22,12 +37,55 @@ public class GlobalConstant {
     }
 
     public static class LoanDecisionErrors {
-        public static final String LESS_THAN_MINIMUM_AMOUNT = "Requested Loan amount is less than : " + MINIMUM_SUM;
-        public static final String HIGHER_THAN_MAXIMUM_AMOUNT = "Requested Loan amount is higher than : " + MAXIMUM_SUM;
-        public static final String LESS_THAN_MINIMUM_PERIOD = "Requested Loan Period is less than : " + MINIMUM_PERIOD;
-        public static final String MORE_THAN_MAXIMUM_PERIOD = "Requested Loan Period is higher than : " + MAXIMUM_PERIOD;
+        // followed by the limit of the loan policy
+        public static final String AMOUNT_LESS_THAN = "Requested Loan amount is less than : ";
+        public static final String AMOUNT_HIGHER_THAN = "Requested Loan amount is higher than : ";
+        public static final String PERIOD_LESS_THAN = "Requested Loan Period is less than : ";
+        public static final String PERIOD_HIGHER_THAN = "Requested Loan Period is higher than : ";
+        public static final String LESS_THAN_MINIMUM_AMOUNT = AMOUNT_LESS_THAN + MINIMUM_SUM;
+        public static final String HIGHER_THAN_MAXIMUM_AMOUNT = AMOUNT_HIGHER_THAN + MAXIMUM_SUM;
+        public static final String LESS_THAN_MINIMUM_PERIOD = PERIOD_LESS_THAN + MINIMUM_PERIOD;
+        public static final String MORE_THAN_MAXIMUM_PERIOD = PERIOD_HIGHER_THAN + MAXIMUM_PERIOD;
         public static final String INVALID_USER_ACCOUNT = "No user account for given personal code : ";
         public static final String USER_IS_HAVING_DEBT = "user is having Debt. ";
         public static final String INTERNAL_DATA_ERROR = "User data has invalid for personal code : ";
+        public static final String INVALID_BATCH_ROW = "Batch row could not be read : ";
+        public static final String MALFORMED_BATCH_BODY = "Batch body is malformed, processing stopped : ";
+    }
+
+    public static class LoanPolicyErrors {
+        public static final String INVALID_POLICY = "Loan policy can't be loaded, previous policy is kept : ";
+    }
+
+    public static class AccountImportErrors {
+        public static final String STORE_NOT_SUPPORTED = "Account import needs the in memory account store (account.store=memory)";
+        public static final String IMPORT_RUNNING = "Account import is already running";
+        public static final String IMPORT_FAILED = "Account import failed, previous accounts are kept : ";
+    }
+
+    public static class PreApprovedOfferErrors {
+        public static final String STORE_NOT_SUPPORTED = "Pre-approved offers need an account store that can be scanned (account.store=memory or mapped)";
+        public static final String REBUILD_RUNNING = "Pre-approved offer rebuild is already running";
+    }
+
+    public static class CreditBureauErrors {
+        public static final String UNAVAILABLE = "Account data is unavailable, no credit bureau answered in time";
+    }
+
+    public static class ConcurrencyLimitErrors {
+        public static final String OVERLOADED = "Too many requests in progress, try again later";
+    }
+
+    public static class BinaryProtocolErrors {
+        public static final String AUTHENTICATION_EXPECTED = "First frame of a connection must be an authentication";
+        public static final String DECISION_EXPECTED = "Only decision requests are accepted after the authentication";
+        public static final String INVALID_TOKEN = "Token is invalid or expired";
+        public static final String TOKEN_EXPIRED = "Token of the connection has expired, connect again";
+        public static final String INVALID_FRAME = "Frame is malformed, length : ";
+        public static final String AMOUNT_NOT_ENCODABLE = "Loan amount of the decision can't be encoded in the binary protocol";
+    }
+
+    public static class AuthenticationErrors {
+        public static final String TOO_MANY_LOGINS = "Too many logins in progress, try again later";
     }
 }
@@ -0,0 +1,85 @@
+package com.inbank.dengine.util;
+
+/*
+ * concurrency limit following the latency of the limited calls. samples are averaged over windows of window-size calls,
+ * every window compares its average (short rtt) to a slow moving average of the previous windows (long rtt) :
+ *   gradient  = tolerance * long rtt / short rtt, kept in [0.5, 1]
+ *   new limit = limit * gradient + sqrt(limit), smoothed
+ * while latency stays within the tolerance the limit grows by sqrt(limit) per window, once calls queue up and latency
+ * rises the limit shrinks towards what keeps latency at the long term level. a window where the in-flight calls never
+ * came near the limit doesn't grow it, an idle service would otherwise end up with an unbounded limit.
+ */
+public class GradientConcurrencyLimit {
+
+    private static final double MINIMUM_GRADIENT = 0.5;
+    // the long rtt is pulled down faster when latency dropped far below it, e.g. after a slow backend recovered
+    private static final double RECOVERY_RATIO = 2.0;
+    private static final double RECOVERY_DECAY = 0.95;
+
+    private final int minimumLimit;
+    private final int maximumLimit;
+    private final double smoothing;
+    private final double tolerance;
+    private final int windowSize;
+    private final double longRttWeight;
+
+    private volatile int limit;
+
+    // guarded by this
+    private double estimatedLimit;
+    private double longRtt;
+    private long windowRttSum;
+    private int windowSamples;
+    private int windowMaximumInFlight;
+
+    public GradientConcurrencyLimit(int initialLimit, int minimumLimit, int maximumLimit, double smoothing,
+                                    double tolerance, int windowSize, int longWindows) {
+        if (minimumLimit < 1 || minimumLimit > maximumLimit) {
+            throw new IllegalArgumentException("Concurrency limit bounds must be 1 <= minimum <= maximum : " + minimumLimit + ", " + maximumLimit);
+        }
+        this.minimumLimit = minimumLimit;
+        this.maximumLimit = maximumLimit;
+        this.smoothing = smoothing;
+        this.tolerance = tolerance;
+        this.windowSize = Math.max(1, windowSize);
+        this.longRttWeight = 2.0 / (Math.max(1, longWindows) + 1);
+        this.estimatedLimit = Math.max(minimumLimit, Math.min(maximumLimit, initialLimit));
+        this.limit = (int) estimatedLimit;
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    // latency of one limited call, and the number of calls in flight when it started
+    public synchronized void record(long rttNanos, int inFlight) {
+        windowRttSum += rttNanos;
+        windowMaximumInFlight = Math.max(windowMaximumInFlight, inFlight);
+        if (++windowSamples < windowSize) {
+            return;
+        }
+        double shortRtt = Math.max(1, (double) windowRttSum / windowSamples);
+        int maximumInFlight = windowMaximumInFlight;
+        windowRttSum = 0;
+        windowSamples = 0;
+        windowMaximumInFlight = 0;
+
+        if (longRtt == 0) {
+            longRtt = shortRtt;
+        } else {
+            longRtt += (shortRtt - longRtt) * longRttWeight;
+            if (longRtt / shortRtt > RECOVERY_RATIO) {
+                longRtt *= RECOVERY_DECAY;
+            }
+        }
+
+        if (maximumInFlight < estimatedLimit / 2) {
+            return;
+        }
+        double gradient = Math.max(MINIMUM_GRADIENT, Math.min(1.0, tolerance * longRtt / shortRtt));
+        double newLimit = estimatedLimit * gradient + Math.sqrt(estimatedLimit);
+        newLimit = estimatedLimit * (1 - smoothing) + newLimit * smoothing;
+        estimatedLimit = Math.max(minimumLimit, Math.min(maximumLimit, newLimit));
+        limit = (int) estimatedLimit;
+    }
+}
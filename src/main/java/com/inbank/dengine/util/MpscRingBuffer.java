@@ -0,0 +1,68 @@
+package com.inbank.dengine.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/*
+ * bounded lock-free queue for many producers and one consumer (Vyukov's bounded queue).
+ * every slot has a sequence number : slot == position when it is free for the producer claiming that position,
+ * position + 1 once it holds an element for the consumer. producers claim a position with one CAS and never wait,
+ * a full buffer makes offer return false.
+ */
+public class MpscRingBuffer<E> {
+
+    private final AtomicReferenceArray<E> elements;
+    private final AtomicLongArray sequences;
+    private final int mask;
+    private final AtomicLong producerPosition = new AtomicLong();
+    // only read and written by the consumer thread
+    private long consumerPosition;
+
+    public MpscRingBuffer(int capacity) {
+        if (capacity < 2 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Ring buffer capacity must be a power of two : " + capacity);
+        }
+        this.elements = new AtomicReferenceArray<>(capacity);
+        this.sequences = new AtomicLongArray(capacity);
+        this.mask = capacity - 1;
+        for (int slot = 0; slot < capacity; slot++) {
+            sequences.set(slot, slot);
+        }
+    }
+
+    public boolean offer(E element) {
+        while (true) {
+            long position = producerPosition.get();
+            int slot = (int) position & mask;
+            long sequence = sequences.get(slot);
+            if (sequence == position) {
+                if (producerPosition.compareAndSet(position, position + 1)) {
+                    elements.lazySet(slot, element);
+                    sequences.set(slot, position + 1);
+                    return true;
+                }
+            } else if (sequence < position) {
+                // the consumer hasn't freed the slot of the previous lap
+                return false;
+            }
+        }
+    }
+
+    // null when empty, or when the next producer has claimed its slot but not filled it yet
+    public E poll() {
+        int slot = (int) consumerPosition & mask;
+        if (sequences.get(slot) != consumerPosition + 1) {
+            return null;
+        }
+        E element = elements.get(slot);
+        elements.lazySet(slot, null);
+        sequences.set(slot, consumerPosition + mask + 1);
+        consumerPosition++;
+        return element;
+    }
+
+    public int capacity() {
+        return mask + 1;
+    }
+}
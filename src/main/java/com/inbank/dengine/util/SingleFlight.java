@@ -0,0 +1,95 @@
+package com.inbank.dengine.util;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/*
+ * concurrent calls with an equal key share the call already in flight instead of running their own, all of them get its
+ * result or its exception. the key is removed before the result is published, a call arriving after that runs again,
+ * nothing is cached. keys must implement equals and hashCode, results are shared instances and must not be modified.
+ */
+public class SingleFlight<K, V> {
+
+    public static final String CALLS = "dengine.singleflight.calls";
+
+    private final boolean enabled;
+    private final ConcurrentHashMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final Counter executed;
+    private final Counter collapsed;
+
+    public SingleFlight(String name, boolean enabled, MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.executed = callCounter(meterRegistry, name, "executed");
+        this.collapsed = callCounter(meterRegistry, name, "collapsed");
+    }
+
+    // runs the call on the calling thread, or waits for the one in flight
+    public V call(K key, Supplier<V> call) {
+        if (!enabled) {
+            return call.get();
+        }
+        CompletableFuture<V> flight = new CompletableFuture<>();
+        CompletableFuture<V> current = inFlight.putIfAbsent(key, flight);
+        if (current != null) {
+            collapsed.increment();
+            try {
+                return current.join();
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+            }
+        }
+        executed.increment();
+        try {
+            V value = call.get();
+            inFlight.remove(key, flight);
+            flight.complete(value);
+            return value;
+        } catch (Throwable e) {
+            // a sneaky thrown checked exception must release the waiters too
+            inFlight.remove(key, flight);
+            flight.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    // starts the call, or returns the future of the one in flight
+    public CompletableFuture<V> callAsync(K key, Supplier<CompletableFuture<V>> call) {
+        if (!enabled) {
+            return call.get();
+        }
+        CompletableFuture<V> flight = new CompletableFuture<>();
+        CompletableFuture<V> current = inFlight.putIfAbsent(key, flight);
+        if (current != null) {
+            collapsed.increment();
+            return current;
+        }
+        executed.increment();
+        CompletableFuture<V> result;
+        try {
+            result = call.get();
+        } catch (Throwable e) {
+            result = CompletableFuture.failedFuture(e);
+        }
+        result.whenComplete((value, error) -> {
+            inFlight.remove(key, flight);
+            if (error == null) {
+                flight.complete(value);
+            } else {
+                flight.completeExceptionally(error instanceof CompletionException && error.getCause() != null ? error.getCause() : error);
+            }
+        });
+        return flight;
+    }
+
+    private static Counter callCounter(MeterRegistry meterRegistry, String name, String result) {
+        return Counter.builder(CALLS)
+                .description("Calls run by a single flight or collapsed into the identical call already in flight")
+                .tag("name", name)
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+}
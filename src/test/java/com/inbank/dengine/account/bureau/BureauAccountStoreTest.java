@@ -0,0 +1,150 @@
+package com.inbank.dengine.account.bureau;
+
+import com.inbank.dengine.account.model.Account;
+import com.inbank.dengine.exception.exceptionType.ServerException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BureauAccountStoreTest {
+
+    private static final String PERSONAL_CODE = "49002010976";
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void slow_request_should_be_hedged_and_second_answer_used() {
+        ScriptedBureau primary = new ScriptedBureau("primary", answer(creditModifier(100), Duration.ofSeconds(5)), answer(creditModifier(100), Duration.ZERO));
+        BureauAccountStore store = store(Map.of("primary", primary), "primary:2s", "primary", true);
+
+        long start = System.nanoTime();
+        assertEquals(creditModifier(100), store.findByPersonalCode(PERSONAL_CODE));
+
+        assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(2));
+        assertEquals(2, primary.requests);
+        assertEquals(1, meterRegistry.get(BureauAccountStore.HEDGES).tag("result", "won").counter().count());
+    }
+
+    @Test
+    void failed_hedge_should_not_discard_the_slower_answer() {
+        ScriptedBureau primary = new ScriptedBureau("primary", answer(creditModifier(100), Duration.ofMillis(200)),
+                CompletableFuture.failedFuture(new IllegalStateException("down")));
+        BureauAccountStore store = store(Map.of("primary", primary), "primary:2s", "primary", true);
+
+        assertEquals(creditModifier(100), store.findByPersonalCode(PERSONAL_CODE));
+
+        assertEquals(2, primary.requests);
+        assertEquals(1, meterRegistry.get(BureauAccountStore.REQUESTS).tag("bureau", "primary").tag("result", "found").counter().count());
+    }
+
+    @Test
+    void primary_timeout_should_fall_back_to_secondary() {
+        ScriptedBureau primary = new ScriptedBureau("primary", answer(creditModifier(100), Duration.ofSeconds(5)));
+        ScriptedBureau secondary = new ScriptedBureau("secondary", answer(creditModifier(300), Duration.ZERO));
+        BureauAccountStore store = store(Map.of("primary", primary, "secondary", secondary), "primary:50ms,secondary:1s", "primary", false);
+
+        assertEquals(creditModifier(300), store.findByPersonalCode(PERSONAL_CODE));
+        assertEquals(1, meterRegistry.get(BureauAccountStore.FALLBACKS).counter().count());
+        assertEquals(1, meterRegistry.get(BureauAccountStore.REQUESTS).tag("bureau", "primary").tag("result", "timeout").counter().count());
+    }
+
+    @Test
+    void primary_answer_should_win_over_faster_secondary() {
+        ScriptedBureau primary = new ScriptedBureau("primary", answer(creditModifier(100), Duration.ofMillis(100)));
+        ScriptedBureau secondary = new ScriptedBureau("secondary", answer(creditModifier(300), Duration.ZERO));
+        BureauAccountStore store = store(Map.of("primary", primary, "secondary", secondary), "primary:1s,secondary:1s", "primary", false);
+
+        assertEquals(creditModifier(100), store.findByPersonalCode(PERSONAL_CODE));
+    }
+
+    @Test
+    void first_policy_should_take_first_account_found() {
+        ScriptedBureau primary = new ScriptedBureau("primary", answer(Optional.empty(), Duration.ZERO));
+        ScriptedBureau secondary = new ScriptedBureau("secondary", answer(creditModifier(300), Duration.ofMillis(50)));
+        BureauAccountStore store = store(Map.of("primary", primary, "secondary", secondary), "primary:1s,secondary:1s", "first", false);
+
+        assertEquals(creditModifier(300), store.findByPersonalCode(PERSONAL_CODE));
+    }
+
+    @Test
+    void missing_account_should_be_empty_only_when_every_bureau_answered() {
+        ScriptedBureau primary = new ScriptedBureau("primary", answer(Optional.empty(), Duration.ZERO), answer(Optional.empty(), Duration.ZERO));
+        ScriptedBureau secondary = new ScriptedBureau("secondary",
+                CompletableFuture.failedFuture(new IllegalStateException("down")), answer(Optional.empty(), Duration.ZERO));
+        BureauAccountStore store = store(Map.of("primary", primary, "secondary", secondary), "primary:1s,secondary:1s", "first", false);
+
+        assertThrows(ServerException.class, () -> store.findByPersonalCode(PERSONAL_CODE));
+        assertEquals(Optional.empty(), store.findByPersonalCode(PERSONAL_CODE));
+    }
+
+    @Test
+    void every_bureau_failing_should_fail_the_lookup() {
+        ScriptedBureau primary = new ScriptedBureau("primary", CompletableFuture.failedFuture(new IllegalStateException("down")));
+        ScriptedBureau secondary = new ScriptedBureau("secondary", answer(creditModifier(300), Duration.ofSeconds(5)));
+        BureauAccountStore store = store(Map.of("primary", primary, "secondary", secondary), "primary:1s,secondary:50ms", "primary", false);
+
+        assertThrows(ServerException.class, () -> store.findByPersonalCode(PERSONAL_CODE));
+    }
+
+    @Test
+    void hedge_delay_should_follow_latency_percentile() {
+        HedgeDelay hedgeDelay = new HedgeDelay(0.95, 50);
+        for (int latency = 1; latency < HedgeDelay.RECOMPUTE_INTERVAL; latency++) {
+            hedgeDelay.record(latency);
+        }
+        assertEquals(50, hedgeDelay.getDelayNanos());
+
+        for (int latency = 1; latency <= HedgeDelay.SAMPLES * 2; latency++) {
+            hedgeDelay.record(latency % 100 + 1);
+        }
+        assertEquals(95, hedgeDelay.getDelayNanos(), 1);
+    }
+
+    private BureauAccountStore store(Map<String, ScriptedBureau> bureaus, String sources, String fallbackPolicy, boolean hedging) {
+        return new BureauAccountStore(bureaus::get, meterRegistry, List.of(sources.split(",")), fallbackPolicy, hedging, 0.95, Duration.ofMillis(20));
+    }
+
+    private static Optional<Account> creditModifier(int creditModifier) {
+        return Optional.of(Account.builder().personalCode(PERSONAL_CODE).isDebt(false).creditModifier(BigDecimal.valueOf(creditModifier)).build());
+    }
+
+    private static CompletableFuture<Optional<Account>> answer(Optional<Account> account, Duration latency) {
+        return CompletableFuture.supplyAsync(() -> account, CompletableFuture.delayedExecutor(latency.toNanos(), TimeUnit.NANOSECONDS));
+    }
+
+    // answers the scripted futures in order, the last one is repeated
+    private static class ScriptedBureau implements CreditBureau {
+
+        private final String name;
+        private final Deque<CompletableFuture<Optional<Account>>> answers;
+        private int requests;
+
+        @SafeVarargs
+        ScriptedBureau(String name, CompletableFuture<Optional<Account>>... answers) {
+            this.name = name;
+            this.answers = new ArrayDeque<>(List.of(answers));
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public synchronized CompletableFuture<Optional<Account>> findByPersonalCode(String personalCode) {
+            requests++;
+            return answers.size() > 1 ? answers.poll() : answers.peek();
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.inbank.dengine.account.service;
+
+import com.inbank.dengine.account.dto.AccountImportReportDTO;
+import com.inbank.dengine.account.model.Account;
+import com.inbank.dengine.account.store.CompactAccountIndex;
+import com.inbank.dengine.account.store.InMemoryAccountStore;
+import com.inbank.dengine.exception.exceptionType.ServerException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// a tiny chunk size so that every file below is parsed as several chunks
+@SpringBootTest(properties = "account.import.chunk-size=64")
+class AccountImportServiceTest {
+
+    @Autowired
+    private AccountImportService accountImportService;
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private InMemoryAccountStore inMemoryAccountStore;
+
+    @TempDir
+    Path directory;
+
+    @AfterEach
+    void restoreDemoAccounts() {
+        List<Account> accounts = InMemoryAccountStore.demoAccounts();
+        CompactAccountIndex.Builder builder = CompactAccountIndex.builder(accounts.size());
+        accounts.forEach(builder::add);
+        inMemoryAccountStore.replaceIndex(builder.build());
+    }
+
+    @Test
+    void accounts_should_be_replaced_by_imported_file() throws IOException {
+        StringBuilder csv = new StringBuilder("personalCode,isDebt,creditModifier\r\n");
+        for (int i = 0; i < 1000; i++) {
+            csv.append(String.format("5%010d,%s,%d.%02d\r\n", i, i % 7 == 0, i % 500, i % 100));
+        }
+        // the last line of a personal code wins
+        csv.append("50000000001,true,12.5");
+        Path file = Files.writeString(directory.resolve("accounts.csv"), csv);
+
+        AccountImportReportDTO report = accountImportService.importAccounts(file);
+
+        assertTrue(report.getChunks() > 1);
+        assertEquals(1001, report.getRows());
+        assertEquals(1000, report.getAccounts());
+        assertEquals(Account.builder().personalCode("50000000002").isDebt(false).creditModifier(new BigDecimal("2.02")).build(),
+                accountService.getAccountByPersonalCode("50000000002").orElseThrow());
+        assertEquals(Account.builder().personalCode("50000000001").isDebt(true).creditModifier(new BigDecimal("12.5")).build(),
+                accountService.getAccountByPersonalCode("50000000001").orElseThrow());
+        assertTrue(accountService.getAccountByPersonalCode("49002010976").isEmpty());
+    }
+
+    @Test
+    void previous_accounts_should_be_kept_when_file_is_malformed() throws IOException {
+        Path file = Files.writeString(directory.resolve("accounts.csv"), "50000000001,false,100\n5000000002,false,100\n");
+
+        ServerException exception = assertThrows(ServerException.class, () -> accountImportService.importAccounts(file));
+
+        assertTrue(exception.getMessage().contains("at byte 22"));
+        assertTrue(accountService.getAccountByPersonalCode("49002010976").isPresent());
+        assertTrue(accountService.getAccountByPersonalCode("50000000001").isEmpty());
+    }
+}
@@ -0,0 +1,125 @@
+package com.inbank.dengine.account.store;
+
+import com.inbank.dengine.account.dto.AccountCacheStatsDTO;
+import com.inbank.dengine.account.model.Account;
+import com.inbank.dengine.exception.exceptionType.ServerException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CachingAccountStoreTest {
+
+    private static final String PERSONAL_CODE = "49002010976";
+    private static final String MISSING_PERSONAL_CODE = "49002010000";
+
+    private final AtomicLong now = new AtomicLong();
+    private final ScriptedAccountStore accountStore = new ScriptedAccountStore();
+    private final CachingAccountStore cachingAccountStore = new CachingAccountStore(accountStore, new SimpleMeterRegistry(),
+            100, Duration.ofMinutes(10), Duration.ofSeconds(30), Duration.ofMinutes(1), now::get);
+
+    @Test
+    void repeated_lookup_should_be_served_from_cache() {
+        accountStore.answer(PERSONAL_CODE, account(100));
+
+        assertEquals(Optional.of(account(100)), cachingAccountStore.findByPersonalCode(PERSONAL_CODE));
+        assertEquals(Optional.of(account(100)), cachingAccountStore.findByPersonalCode(PERSONAL_CODE));
+
+        assertEquals(1, accountStore.lookups(PERSONAL_CODE));
+        AccountCacheStatsDTO stats = cachingAccountStore.getStats();
+        assertEquals(1, stats.getHitCount());
+        assertEquals(1, stats.getMissCount());
+        assertEquals(0.5, stats.getHitRate());
+    }
+
+    @Test
+    void missing_personal_code_should_expire_after_negative_ttl() {
+        accountStore.answer(PERSONAL_CODE, account(100));
+
+        assertEquals(Optional.empty(), cachingAccountStore.findByPersonalCode(MISSING_PERSONAL_CODE));
+        assertEquals(Optional.of(account(100)), cachingAccountStore.findByPersonalCode(PERSONAL_CODE));
+        advance(Duration.ofSeconds(20));
+        assertEquals(Optional.empty(), cachingAccountStore.findByPersonalCode(MISSING_PERSONAL_CODE));
+        assertEquals(1, accountStore.lookups(MISSING_PERSONAL_CODE));
+
+        accountStore.answer(MISSING_PERSONAL_CODE, account(300));
+        advance(Duration.ofSeconds(20));
+        assertEquals(Optional.of(account(300)), cachingAccountStore.findByPersonalCode(MISSING_PERSONAL_CODE));
+        assertEquals(Optional.of(account(100)), cachingAccountStore.findByPersonalCode(PERSONAL_CODE));
+        assertEquals(1, accountStore.lookups(PERSONAL_CODE));
+    }
+
+    @Test
+    void stale_account_should_be_served_while_it_is_reloaded() {
+        accountStore.answer(PERSONAL_CODE, account(100));
+        cachingAccountStore.findByPersonalCode(PERSONAL_CODE);
+
+        CompletableFuture<Optional<Account>> reload = new CompletableFuture<>();
+        accountStore.answer(PERSONAL_CODE, reload);
+        advance(Duration.ofMinutes(2));
+
+        // the reload hasn't answered yet, the previous account is returned without waiting for it
+        assertEquals(Optional.of(account(100)), cachingAccountStore.findByPersonalCode(PERSONAL_CODE));
+        assertEquals(2, accountStore.lookups(PERSONAL_CODE));
+
+        reload.complete(Optional.of(account(300)));
+        assertEquals(Optional.of(account(300)), cachingAccountStore.findByPersonalCode(PERSONAL_CODE));
+        assertEquals(2, accountStore.lookups(PERSONAL_CODE));
+    }
+
+    @Test
+    void failed_lookup_should_not_be_cached() {
+        accountStore.answer(PERSONAL_CODE, CompletableFuture.failedFuture(new ServerException("bureau down")));
+        assertThrows(ServerException.class, () -> cachingAccountStore.findByPersonalCode(PERSONAL_CODE));
+
+        accountStore.answer(PERSONAL_CODE, account(100));
+        assertEquals(Optional.of(account(100)), cachingAccountStore.findByPersonalCode(PERSONAL_CODE));
+        assertEquals(1, cachingAccountStore.getStats().getLoadFailureCount());
+    }
+
+    private void advance(Duration duration) {
+        now.addAndGet(duration.toNanos());
+    }
+
+    private static Account account(int creditModifier) {
+        return Account.builder().personalCode(PERSONAL_CODE).isDebt(false).creditModifier(BigDecimal.valueOf(creditModifier)).build();
+    }
+
+    private static class ScriptedAccountStore implements AccountStore {
+
+        private final Map<String, CompletableFuture<Optional<Account>>> answers = new HashMap<>();
+        private final Map<String, Integer> lookups = new HashMap<>();
+
+        synchronized void answer(String personalCode, Account account) {
+            answer(personalCode, CompletableFuture.completedFuture(Optional.of(account)));
+        }
+
+        synchronized void answer(String personalCode, CompletableFuture<Optional<Account>> answer) {
+            answers.put(personalCode, answer);
+        }
+
+        synchronized int lookups(String personalCode) {
+            return lookups.getOrDefault(personalCode, 0);
+        }
+
+        @Override
+        public Optional<Account> findByPersonalCode(String personalCode) {
+            return findByPersonalCodeAsync(personalCode).join();
+        }
+
+        @Override
+        public synchronized CompletableFuture<Optional<Account>> findByPersonalCodeAsync(String personalCode) {
+            lookups.merge(personalCode, 1, Integer::sum);
+            return answers.getOrDefault(personalCode, CompletableFuture.completedFuture(Optional.empty()));
+        }
+    }
+}
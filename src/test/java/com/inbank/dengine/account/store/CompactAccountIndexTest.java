@@ -0,0 +1,61 @@
+package com.inbank.dengine.account.store;
+
+import com.inbank.dengine.account.model.Account;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompactAccountIndexTest {
+
+    @Test
+    void accounts_should_be_found_after_index_grows() {
+        CompactAccountIndex.Builder builder = CompactAccountIndex.builder(1);
+        for (long code = 40000000000L; code < 40000200000L; code += 2) {
+            builder.add(code, code % 10 == 0, code % 997, (int) (code % 3));
+        }
+        CompactAccountIndex index = builder.build();
+
+        assertEquals(100000, index.size());
+        assertTrue(index.size() <= index.capacity() * 0.75);
+        for (long code = 40000000000L; code < 40000200000L; code += 2) {
+            int slot = index.slotOf(code);
+            assertTrue(slot >= 0);
+            assertEquals(code % 10 == 0, index.isDebt(slot));
+            assertEquals(code % 997, index.getCreditModifierUnscaled(slot));
+            assertEquals(code % 3, index.getCreditModifierScale(slot));
+            assertEquals(-1, index.slotOf(code + 1));
+        }
+    }
+
+    @Test
+    void account_should_be_materialized_with_same_values() {
+        Account account = Account.builder().personalCode("00000000007").isDebt(true).creditModifier(new BigDecimal("100.50")).build();
+        CompactAccountIndex index = CompactAccountIndex.builder(1).add(account).build();
+
+        assertEquals(account, index.toAccount(index.slotOf(7), "00000000007"));
+    }
+
+    @Test
+    void last_account_should_win_for_duplicated_personal_code() {
+        CompactAccountIndex index = CompactAccountIndex.builder(4)
+                .add(49002010976L, false, 100, 0)
+                .add(49002010976L, true, 300, 0)
+                .build();
+
+        assertEquals(1, index.size());
+        int slot = index.slotOf(49002010976L);
+        assertTrue(index.isDebt(slot));
+        assertEquals(300, index.getCreditModifierUnscaled(slot));
+    }
+
+    @Test
+    void invalid_values_should_be_refused() {
+        CompactAccountIndex.Builder builder = CompactAccountIndex.builder(4);
+
+        assertThrows(IllegalArgumentException.class, () -> builder.add(-1, false, 100, 0));
+        assertThrows(IllegalArgumentException.class, () -> builder.add(49002010976L, false, 100, -1));
+        assertThrows(IllegalArgumentException.class, () -> builder.add(Account.builder().personalCode("12345").isDebt(false).creditModifier(BigDecimal.ONE).build()));
+    }
+}
@@ -0,0 +1,160 @@
+package com.inbank.dengine.account.store;
+
+import com.inbank.dengine.account.model.Account;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MappedAccountStoreTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void missing_file_should_be_created_with_demo_accounts() throws IOException {
+        Path path = directory.resolve("accounts.dat");
+        MappedAccountStore mappedAccountStore = new MappedAccountStore(path);
+
+        assertTrue(Files.exists(path));
+        for (Account account : InMemoryAccountStore.demoAccounts()) {
+            assertEquals(Optional.of(account), mappedAccountStore.findByPersonalCode(account.getPersonalCode()));
+        }
+    }
+
+    @Test
+    void accounts_should_be_found_after_reopening_the_file() throws IOException {
+        Path path = directory.resolve("accounts.dat");
+        List<Account> accounts = new ArrayList<>();
+        for (long code = 30000000000L; code < 30000100000L; code += 3) {
+            accounts.add(getAccountObject(Long.toString(code), BigDecimal.valueOf(code % 1000, (int) (code % 3)), code % 7 == 0));
+        }
+        MappedAccountStore.write(path, accounts);
+
+        MappedAccountStore mappedAccountStore = new MappedAccountStore(path);
+        for (Account account : accounts) {
+            assertEquals(Optional.of(account), mappedAccountStore.findByPersonalCode(account.getPersonalCode()));
+        }
+        assertEquals(Optional.empty(), mappedAccountStore.findByPersonalCode("30000000001"));
+    }
+
+    @Test
+    void credit_modifier_scale_should_be_kept() throws IOException {
+        Path path = directory.resolve("accounts.dat");
+        MappedAccountStore.write(path, List.of(getAccountObject("49002010976", new BigDecimal("100.50"), false)));
+
+        Account account = new MappedAccountStore(path).findByPersonalCode("49002010976").orElseThrow();
+        assertEquals(new BigDecimal("100.50"), account.getCreditModifier());
+    }
+
+    @Test
+    void account_the_record_cant_hold_should_be_refused() throws IOException {
+        Path path = directory.resolve("accounts.dat");
+        MappedAccountStore.write(path, List.of(getAccountObject("49002010976", BigDecimal.valueOf(100), false)));
+
+        assertThrows(IllegalArgumentException.class, () -> MappedAccountStore.write(path, List.of(getAccountObject("49002010965", null, false))));
+        assertThrows(IllegalArgumentException.class, () -> MappedAccountStore.write(path, List.of(getAccountObject("49002010965", BigDecimal.valueOf(1, 128), false))));
+        assertThrows(IllegalArgumentException.class, () -> MappedAccountStore.write(path, List.of(getAccountObject("49002010965", BigDecimal.valueOf(1, -129), false))));
+        assertThrows(IllegalArgumentException.class, () -> MappedAccountStore.write(path, List.of(getAccountObject("49002010965", new BigDecimal("1E+19").setScale(0), false))));
+
+        // the refused writes left the previous file in place
+        assertEquals(BigDecimal.valueOf(100), new MappedAccountStore(path).findByPersonalCode("49002010976").orElseThrow().getCreditModifier());
+    }
+
+    @Test
+    void extreme_credit_modifier_scales_should_be_kept() throws IOException {
+        Path path = directory.resolve("accounts.dat");
+        MappedAccountStore.write(path, List.of(getAccountObject("49002010976", BigDecimal.valueOf(1, 127), false),
+                getAccountObject("49002010965", BigDecimal.valueOf(1, -128), false)));
+
+        MappedAccountStore mappedAccountStore = new MappedAccountStore(path);
+        assertEquals(BigDecimal.valueOf(1, 127), mappedAccountStore.findByPersonalCode("49002010976").orElseThrow().getCreditModifier());
+        assertEquals(BigDecimal.valueOf(1, -128), mappedAccountStore.findByPersonalCode("49002010965").orElseThrow().getCreditModifier());
+    }
+
+    @Test
+    void last_account_should_win_for_duplicated_personal_code() throws IOException {
+        Path path = directory.resolve("accounts.dat");
+        MappedAccountStore.write(path, List.of(
+                getAccountObject("49002010976", BigDecimal.valueOf(100), false),
+                getAccountObject("49002010976", BigDecimal.valueOf(300), true)));
+
+        Account account = new MappedAccountStore(path).findByPersonalCode("49002010976").orElseThrow();
+        assertEquals(BigDecimal.valueOf(300), account.getCreditModifier());
+        assertTrue(account.getIsDebt());
+    }
+
+    @Test
+    void scan_should_visit_every_personal_code_once() throws IOException {
+        Path path = directory.resolve("accounts.dat");
+        MappedAccountStore.write(path, List.of(
+                getAccountObject("49002010976", BigDecimal.valueOf(100), false),
+                getAccountObject("49002010987", new BigDecimal("3.5"), false),
+                getAccountObject("49002010976", BigDecimal.valueOf(300), true)));
+
+        AccountScan scan = new MappedAccountStore(path).scan().orElseThrow();
+        List<Account> accounts = new ArrayList<>();
+        // two ranges, as partitions of a bulk job would read them
+        long middle = scan.positions() / 2;
+        AccountScan.AccountVisitor visitor = (personalCode, isDebt, creditModifierUnscaled, creditModifierScale) ->
+                accounts.add(getAccountObject(Long.toString(personalCode), BigDecimal.valueOf(creditModifierUnscaled, creditModifierScale), isDebt));
+        scan.visit(0, middle, visitor);
+        scan.visit(middle, scan.positions(), visitor);
+
+        assertEquals(2, accounts.size());
+        assertTrue(accounts.contains(getAccountObject("49002010976", BigDecimal.valueOf(300), true)));
+        assertTrue(accounts.contains(getAccountObject("49002010987", new BigDecimal("3.5"), false)));
+    }
+
+    @Test
+    void invalid_personal_codes_should_not_be_found() throws IOException {
+        MappedAccountStore mappedAccountStore = new MappedAccountStore(directory.resolve("accounts.dat"));
+
+        assertEquals(Optional.empty(), mappedAccountStore.findByPersonalCode("12345"));
+        assertEquals(Optional.empty(), mappedAccountStore.findByPersonalCode("4900201097a"));
+        assertEquals(Optional.empty(), mappedAccountStore.findByPersonalCode(null));
+    }
+
+    @Test
+    void other_files_should_be_refused() throws IOException {
+        Path path = directory.resolve("accounts.dat");
+        Files.write(path, new byte[128]);
+
+        assertThrows(IllegalStateException.class, () -> new MappedAccountStore(path));
+    }
+
+    @Test
+    void elements_should_be_read_across_chunks() throws IOException {
+        Path path = directory.resolve("region.dat");
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedRegion region = new MappedRegion(channel, FileChannel.MapMode.READ_WRITE, 8, 100, 24, 128);
+            for (long element = 0; element < 100; element++) {
+                region.putLong(element, 0, element * 31);
+                region.putByte(element, 17, (byte) element);
+            }
+            for (long element = 0; element < 100; element++) {
+                assertEquals(element * 31, region.getLong(element, 0));
+                assertEquals((byte) element, region.getByte(element, 17));
+            }
+            assertEquals(8 + 100 * 24, channel.size());
+        }
+    }
+
+    private Account getAccountObject(String personalCode, BigDecimal creditModifier, Boolean isDebt) {
+        return Account.builder()
+                .creditModifier(creditModifier)
+                .personalCode(personalCode)
+                .isDebt(isDebt)
+                .build();
+    }
+}
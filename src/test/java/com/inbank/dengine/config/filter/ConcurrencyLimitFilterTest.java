@@ -0,0 +1,81 @@
+package com.inbank.dengine.config.filter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import java.io.IOException;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConcurrencyLimitFilterTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    // fixed limit of 2, other requests get 1 of it
+    private final ConcurrencyLimitFilter filter = new ConcurrencyLimitFilter(true, 2, 2, 2, 0.2, 1.5, 20, 0.5, new ObjectMapper().findAndRegisterModules(), meterRegistry);
+
+    @AfterEach
+    void clearSecurityContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void other_requests_should_be_shed_before_decision_requests() throws Exception {
+        authenticate();
+        // a decision request in flight uses the best-effort share, only decision requests get the rest of the limit
+        MockHttpServletResponse decision = perform("/api/decisions/loans", (request, response) -> {
+            assertEquals(HttpStatus.SERVICE_UNAVAILABLE.value(), perform("/api/authenticate", null).getStatus());
+            assertEquals(HttpStatus.OK.value(), perform("/api/decisions/loans/offers", null).getStatus());
+            SecurityContextHolder.clearContext();
+            assertEquals(HttpStatus.SERVICE_UNAVAILABLE.value(), perform("/api/decisions/loans", null).getStatus());
+        });
+
+        assertEquals(HttpStatus.OK.value(), decision.getStatus());
+        assertEquals(2.0, meterRegistry.get(ConcurrencyLimitFilter.SHED).tag("traffic", "other").counter().count());
+        assertEquals(0.0, meterRegistry.get(ConcurrencyLimitFilter.SHED).tag("traffic", "decision").counter().count());
+    }
+
+    @Test
+    void decision_requests_over_the_limit_should_be_shed() throws Exception {
+        authenticate();
+        perform("/api/decisions/loans", (request, response) ->
+                perform("/api/decisions/loans", (nestedRequest, nestedResponse) -> {
+                    MockHttpServletResponse shed = perform("/api/decisions/loans", null);
+                    assertEquals(HttpStatus.SERVICE_UNAVAILABLE.value(), shed.getStatus());
+                    assertEquals("1", shed.getHeader("Retry-After"));
+                    assertTrue(shed.getContentAsString().contains("Too many requests in progress"));
+                }));
+
+        assertEquals(1.0, meterRegistry.get(ConcurrencyLimitFilter.SHED).tag("traffic", "decision").counter().count());
+        assertEquals(0.0, meterRegistry.get(ConcurrencyLimitFilter.IN_FLIGHT).gauge().value());
+        assertEquals(HttpStatus.OK.value(), perform("/api/decisions/loans", null).getStatus());
+    }
+
+    @Test
+    void actuator_requests_should_never_be_shed() throws Exception {
+        perform("/api/decisions/loans", (request, response) ->
+                assertEquals(HttpStatus.OK.value(), perform("/actuator/health", null).getStatus()));
+    }
+
+    private MockHttpServletResponse perform(String path, FilterChain chain) throws ServletException, IOException {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", path);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, chain != null ? chain : (servletRequest, servletResponse) -> { });
+        return response;
+    }
+
+    private static void authenticate() {
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken("test-user", null, List.of(new SimpleGrantedAuthority("ROLE_USER"))));
+    }
+}
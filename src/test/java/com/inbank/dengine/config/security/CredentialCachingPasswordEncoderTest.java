@@ -0,0 +1,114 @@
+package com.inbank.dengine.config.security;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class CredentialCachingPasswordEncoderTest {
+
+    @Test
+    void successful_match_should_be_hashed_once() {
+        PasswordEncoder bcrypt = spy(new BCryptPasswordEncoder(4));
+        String hash = bcrypt.encode("test@123");
+        CredentialCachingPasswordEncoder encoder = new CredentialCachingPasswordEncoder(bcrypt, 1, 1, Duration.ofSeconds(10), Duration.ofMinutes(1), 10);
+
+        assertTrue(encoder.matches("test@123", hash));
+        assertTrue(encoder.matches("test@123", hash));
+
+        verify(bcrypt, times(1)).matches("test@123", hash);
+        encoder.destroy();
+    }
+
+    @Test
+    void wrong_password_should_be_hashed_every_time() {
+        PasswordEncoder bcrypt = spy(new BCryptPasswordEncoder(4));
+        String hash = bcrypt.encode("test@123");
+        CredentialCachingPasswordEncoder encoder = new CredentialCachingPasswordEncoder(bcrypt, 1, 1, Duration.ofSeconds(10), Duration.ofMinutes(1), 10);
+
+        assertFalse(encoder.matches("test@124", hash));
+        assertFalse(encoder.matches("test@124", hash));
+        // a cached password is only valid for the hash it was checked against
+        assertTrue(encoder.matches("test@123", hash));
+        assertFalse(encoder.matches("test@123", bcrypt.encode("other")));
+
+        verify(bcrypt, times(2)).matches("test@124", hash);
+        encoder.destroy();
+    }
+
+    @Test
+    void match_should_be_hashed_every_time_when_cache_is_disabled() {
+        PasswordEncoder bcrypt = spy(new BCryptPasswordEncoder(4));
+        String hash = bcrypt.encode("test@123");
+        CredentialCachingPasswordEncoder encoder = new CredentialCachingPasswordEncoder(bcrypt, 1, 1, Duration.ofSeconds(10), Duration.ZERO, 10);
+
+        assertTrue(encoder.matches("test@123", hash));
+        assertTrue(encoder.matches("test@123", hash));
+
+        verify(bcrypt, times(2)).matches("test@123", hash);
+        encoder.destroy();
+    }
+
+    @Test
+    void login_should_be_refused_when_hashing_is_saturated() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        PasswordEncoder slow = mock(PasswordEncoder.class);
+        when(slow.matches(any(), any())).thenAnswer(invocation -> {
+            started.countDown();
+            return release.await(10, TimeUnit.SECONDS);
+        });
+        CredentialCachingPasswordEncoder encoder = new CredentialCachingPasswordEncoder(slow, 1, 1, Duration.ofSeconds(10), Duration.ofMinutes(1), 10);
+
+        // one match running and one queued fill the executor
+        CompletableFuture<Boolean> running = CompletableFuture.supplyAsync(() -> encoder.matches("first", "hash"));
+        assertTrue(started.await(10, TimeUnit.SECONDS));
+        CompletableFuture<Boolean> queued = CompletableFuture.supplyAsync(() -> encoder.matches("second", "hash"));
+        ThreadPoolExecutor hashingExecutor = (ThreadPoolExecutor) ReflectionTestUtils.getField(encoder, "hashingExecutor");
+        while (hashingExecutor.getQueue().isEmpty()) {
+            Thread.onSpinWait();
+        }
+
+        assertThrows(HashingSaturatedException.class, () -> encoder.matches("third", "hash"));
+
+        release.countDown();
+        assertTrue(running.get(10, TimeUnit.SECONDS));
+        assertTrue(queued.get(10, TimeUnit.SECONDS));
+        encoder.destroy();
+    }
+
+    @Test
+    void queued_login_should_give_up_after_the_hashing_timeout() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        PasswordEncoder slow = mock(PasswordEncoder.class);
+        when(slow.matches(any(), any())).thenAnswer(invocation -> {
+            started.countDown();
+            return release.await(10, TimeUnit.SECONDS);
+        });
+        CredentialCachingPasswordEncoder encoder = new CredentialCachingPasswordEncoder(slow, 1, 1, Duration.ofMillis(50), Duration.ofMinutes(1), 10);
+
+        CompletableFuture<Boolean> running = CompletableFuture.supplyAsync(() -> encoder.matches("first", "hash"));
+        assertTrue(started.await(10, TimeUnit.SECONDS));
+
+        // neither the running nor the queued match holds its request thread past the timeout
+        assertThrows(HashingSaturatedException.class, () -> encoder.matches("second", "hash"));
+        CompletionException runningFailure = assertThrows(CompletionException.class, running::join);
+        assertInstanceOf(HashingSaturatedException.class, runningFailure.getCause());
+        ThreadPoolExecutor hashingExecutor = (ThreadPoolExecutor) ReflectionTestUtils.getField(encoder, "hashingExecutor");
+        assertTrue(hashingExecutor.getQueue().isEmpty());
+
+        release.countDown();
+        encoder.destroy();
+    }
+}
@@ -21,6 +21,8 @@ import org.springframework.web.context.WebApplicationContext;
 
 import java.util.Arrays;
 
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers.springSecurity;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
@@ -82,6 +84,19 @@ public class JwtFilterTest {
                 .andExpect(status().isOk());
     }
 
+    @Test
+    public void actuator_endpoints_other_than_health_should_need_the_admin_role() throws Exception {
+        MockMvc securedMockMvc = MockMvcBuilders.webAppContextSetup(webApplicationContext).apply(springSecurity()).build();
+        securedMockMvc.perform(get("/actuator/health"))
+                .andExpect(status().isOk());
+        securedMockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isForbidden());
+        securedMockMvc.perform(get("/actuator/prometheus").with(user("test-user").roles("USER")))
+                .andExpect(status().isForbidden());
+        securedMockMvc.perform(get("/actuator/metrics").with(user("admin").roles("USER", "ADMIN")))
+                .andExpect(status().isOk());
+    }
+
     @Test
     public void unsuccessful_flow_in_jwt_token_of_invalid_user() {
         userDetails = new AppUserDetails("not-valid-user", "test@123", Arrays.asList(new SimpleGrantedAuthority("ROLE_USER")));
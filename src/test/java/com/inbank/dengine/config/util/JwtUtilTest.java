@@ -0,0 +1,69 @@
+package com.inbank.dengine.config.util;
+
+import com.inbank.dengine.config.user.AppUserDetails;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.SignatureException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.util.Arrays;
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JwtUtilTest {
+
+    private static final String SECRET = "testsecret";
+
+    private JwtUtil jwtUtil;
+    private AppUserDetails userDetails;
+
+    @BeforeEach
+    void init() {
+        jwtUtil = new JwtUtil(SECRET, new SimpleMeterRegistry());
+        userDetails = new AppUserDetails("test-user", "test@123", Arrays.asList(new SimpleGrantedAuthority("ROLE_USER")));
+    }
+
+    @Test
+    void generated_token_should_be_valid_for_its_user_only() {
+        String token = jwtUtil.generateToken(userDetails);
+
+        assertTrue(jwtUtil.validateToken(token, userDetails));
+        assertFalse(jwtUtil.validateToken(token, new AppUserDetails("other-user", "test@123", Arrays.asList(new SimpleGrantedAuthority("ROLE_USER")))));
+        assertEquals("test-user", jwtUtil.getUsernameForToken(token));
+    }
+
+    // tokens signed with the string secret before the key was precomputed stay valid
+    @Test
+    void token_signed_with_the_secret_string_should_be_valid() {
+        String token = Jwts.builder().setSubject("test-user").setExpiration(new Date(System.currentTimeMillis() + 60_000))
+                .signWith(SignatureAlgorithm.HS512, SECRET).compact();
+
+        assertTrue(jwtUtil.validateToken(token, userDetails));
+    }
+
+    @Test
+    void token_should_be_rejected_when_expired_or_signed_with_another_secret() {
+        String expired = Jwts.builder().setSubject("test-user").setExpiration(new Date(System.currentTimeMillis() - 1_000))
+                .signWith(SignatureAlgorithm.HS512, SECRET).compact();
+        String otherSecret = Jwts.builder().setSubject("test-user").setExpiration(new Date(System.currentTimeMillis() + 60_000))
+                .signWith(SignatureAlgorithm.HS512, "othersecret").compact();
+
+        assertThrows(ExpiredJwtException.class, () -> jwtUtil.validateToken(expired, userDetails));
+        assertThrows(SignatureException.class, () -> jwtUtil.validateToken(otherSecret, userDetails));
+    }
+
+    @Test
+    void claims_without_subject_or_expiration_should_not_be_valid() {
+        Claims withoutExpiration = Jwts.claims().setSubject("test-user");
+        Claims withoutSubject = Jwts.claims().setExpiration(new Date(System.currentTimeMillis() + 60_000));
+
+        assertFalse(jwtUtil.validateClaims(withoutExpiration, userDetails));
+        assertFalse(jwtUtil.validateClaims(withoutSubject, userDetails));
+    }
+}
@@ -0,0 +1,81 @@
+package com.inbank.dengine.config.util;
+
+import com.inbank.dengine.config.user.AppUserDetails;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.SignatureException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.util.Arrays;
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class VerifiedTokenCacheTest {
+
+    private static final String SECRET = "testsecret";
+
+    private JwtUtil jwtUtil;
+    private AppUserDetails userDetails;
+
+    @BeforeEach
+    void init() {
+        jwtUtil = spy(new JwtUtil(SECRET, new SimpleMeterRegistry()));
+        userDetails = new AppUserDetails("test-user", "test@123", Arrays.asList(new SimpleGrantedAuthority("ROLE_USER")));
+    }
+
+    @Test
+    void token_should_be_verified_once() {
+        VerifiedTokenCache verifiedTokenCache = new VerifiedTokenCache(jwtUtil, true, 100);
+        String token = jwtUtil.generateToken(userDetails);
+
+        VerifiedToken first = verifiedTokenCache.getVerifiedToken(token);
+        VerifiedToken second = verifiedTokenCache.getVerifiedToken(token);
+
+        assertSame(first, second);
+        assertEquals("test-user", second.subject());
+        assertTrue(jwtUtil.validateVerifiedToken(second, userDetails));
+        verify(jwtUtil, times(1)).getVerifiedToken(token);
+    }
+
+    @Test
+    void token_should_be_verified_every_time_when_disabled() {
+        VerifiedTokenCache verifiedTokenCache = new VerifiedTokenCache(jwtUtil, false, 100);
+        String token = jwtUtil.generateToken(userDetails);
+
+        verifiedTokenCache.getVerifiedToken(token);
+        verifiedTokenCache.getVerifiedToken(token);
+
+        verify(jwtUtil, times(2)).getVerifiedToken(token);
+        assertEquals(0, verifiedTokenCache.size());
+    }
+
+    @Test
+    void invalid_token_should_never_be_cached() {
+        VerifiedTokenCache verifiedTokenCache = new VerifiedTokenCache(jwtUtil, true, 100);
+        String token = Jwts.builder().setSubject("test-user").setExpiration(new Date(System.currentTimeMillis() + 60_000))
+                .signWith(SignatureAlgorithm.HS512, "othersecret").compact();
+
+        assertThrows(SignatureException.class, () -> verifiedTokenCache.getVerifiedToken(token));
+        assertThrows(SignatureException.class, () -> verifiedTokenCache.getVerifiedToken(token));
+        assertEquals(0, verifiedTokenCache.size());
+    }
+
+    @Test
+    void cached_token_should_be_dropped_at_expiration() throws InterruptedException {
+        VerifiedTokenCache verifiedTokenCache = new VerifiedTokenCache(jwtUtil, true, 100);
+        String token = Jwts.builder().setSubject("test-user").setExpiration(new Date(System.currentTimeMillis() + 1_500))
+                .signWith(SignatureAlgorithm.HS512, SECRET).compact();
+
+        verifiedTokenCache.getVerifiedToken(token);
+        Thread.sleep(2_000);
+
+        assertThrows(ExpiredJwtException.class, () -> verifiedTokenCache.getVerifiedToken(token));
+        verify(jwtUtil, times(2)).getVerifiedToken(token);
+    }
+}
@@ -0,0 +1,303 @@
+package com.inbank.dengine.decision.loan.audit;
+
+import com.inbank.dengine.decision.loan.dto.DecisionAuditRecordDTO;
+import com.inbank.dengine.decision.loan.dto.LoanDecisionRequestDTO;
+import com.inbank.dengine.decision.loan.dto.LoanDecisionResponseDTO;
+import com.inbank.dengine.decision.loan.model.LoanDecisionResult;
+import com.inbank.dengine.exception.exceptionType.ServiceUnavailableException;
+import com.inbank.dengine.util.GlobalConstant;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DecisionAuditJournalTest {
+
+    @TempDir
+    Path directory;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final TestClock clock = new TestClock(Instant.parse("2024-01-01T00:00:00Z"));
+    private DecisionAuditJournal journal;
+
+    @AfterEach
+    void close() throws Exception {
+        if (journal != null) {
+            journal.destroy();
+        }
+    }
+
+    @Test
+    void records_should_be_read_back_across_segments() throws Exception {
+        // the smallest segment holds a few hundred records
+        journal = open(DataSize.ofBytes(1));
+        for (int i = 0; i < 2000; i++) {
+            journal.record("built-in", request("5" + String.format("%010d", i % 100), BigDecimal.valueOf(2000 + i), 20), decision(BigDecimal.valueOf(2000 + i)));
+        }
+        journal.destroy();
+        journal = null;
+
+        assertTrue(DecisionAuditReader.segments(directory).size() > 1);
+        List<DecisionAuditRecordDTO> records = DecisionAuditReader.read(directory, null, null, null, Integer.MAX_VALUE);
+        assertEquals(2000, records.size());
+        for (int i = 0; i < records.size(); i++) {
+            assertEquals(BigDecimal.valueOf(2000 + i), records.get(i).getLoanAmount());
+            assertEquals(BigDecimal.valueOf(2000 + i), records.get(i).getDecidedLoanAmount());
+        }
+
+        List<DecisionAuditRecordDTO> customer = DecisionAuditReader.read(directory, null, null, "50000000007", Integer.MAX_VALUE);
+        assertEquals(20, customer.size());
+        assertTrue(customer.stream().allMatch(record -> record.getPersonalCode().equals("50000000007")));
+        assertEquals(5, DecisionAuditReader.read(directory, null, null, "50000000007", 5).size());
+        assertEquals(2000, meterRegistry.get(DecisionAuditJournal.RECORDS).tag("result", "written").counter().count());
+    }
+
+    @Test
+    void records_should_be_filtered_by_time_range() throws Exception {
+        journal = open(DataSize.ofMegabytes(1));
+        journal.record("1", request("49002010976", BigDecimal.valueOf(2000), 20), decision(BigDecimal.valueOf(2000)));
+        clock.advance(Duration.ofMillis(20));
+        Instant from = clock.instant();
+        journal.record("1", request("49002010976", BigDecimal.valueOf(3000), 20), LoanDecisionResult.error("No valid loan found"));
+        journal.record("1", request("49002010976", null, null), LoanDecisionResult.error("Loan Amount  is mandatory"));
+        journal.destroy();
+        journal = null;
+
+        List<DecisionAuditRecordDTO> records = DecisionAuditReader.read(directory, from, null, null, 100);
+        assertEquals(2, records.size());
+        assertEquals("No valid loan found", records.get(0).getError());
+        assertNull(records.get(0).getDecision());
+        assertEquals("1", records.get(0).getPolicyVersion());
+        assertNull(records.get(1).getLoanAmount());
+        assertNull(records.get(1).getLoanPeriod());
+        assertEquals(1, DecisionAuditReader.read(directory, null, from, null, 100).size());
+    }
+
+    @Test
+    void damaged_record_should_end_the_segment() throws Exception {
+        journal = open(DataSize.ofMegabytes(1));
+        for (int i = 0; i < 3; i++) {
+            journal.record("1", request("49002010976", BigDecimal.valueOf(2000), 20), decision(BigDecimal.valueOf(2000)));
+        }
+        journal.destroy();
+        journal = null;
+
+        Path segment = DecisionAuditReader.segments(directory).get(0);
+        int firstLength = readInt(segment, DecisionAuditJournal.HEADER_SIZE);
+        // one byte of the second record's body
+        long damaged = DecisionAuditJournal.HEADER_SIZE + DecisionAuditJournal.RECORD_HEADER_SIZE + firstLength + DecisionAuditJournal.RECORD_HEADER_SIZE + 3;
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[]{(byte) 0xff}), damaged);
+        }
+
+        assertEquals(1, DecisionAuditReader.read(directory, null, null, null, 100).size());
+    }
+
+    @Test
+    void restarted_journal_should_append_to_its_cleanly_closed_segment() throws Exception {
+        journal = open(DataSize.ofMegabytes(1));
+        journal.record("1", request("49002010976", BigDecimal.valueOf(2000), 20), decision(BigDecimal.valueOf(2000)));
+        journal.destroy();
+        journal = open(DataSize.ofMegabytes(1));
+        journal.record("1", request("49002010987", BigDecimal.valueOf(2000), 20), decision(BigDecimal.valueOf(2000)));
+        journal.destroy();
+        journal = null;
+
+        assertEquals(1, DecisionAuditReader.segments(directory).size());
+        List<DecisionAuditRecordDTO> records = DecisionAuditReader.read(directory, null, null, null, 100);
+        assertEquals(2, records.size());
+        assertEquals("49002010987", records.get(1).getPersonalCode());
+    }
+
+    @Test
+    void restarted_journal_should_not_append_to_a_segment_left_open() throws Exception {
+        journal = open(DataSize.ofMegabytes(1));
+        journal.record("1", request("49002010976", BigDecimal.valueOf(2000), 20), decision(BigDecimal.valueOf(2000)));
+        journal.destroy();
+        // what a crash leaves : the end position is only written by a clean close
+        writeLong(DecisionAuditReader.segments(directory).get(0), DecisionAuditJournal.HEADER_END, 0);
+        journal = open(DataSize.ofMegabytes(1));
+        journal.record("1", request("49002010987", BigDecimal.valueOf(2000), 20), decision(BigDecimal.valueOf(2000)));
+        journal.destroy();
+        journal = null;
+
+        assertEquals(2, DecisionAuditReader.segments(directory).size());
+        assertEquals(2, DecisionAuditReader.read(directory, null, null, null, 100).size());
+    }
+
+    @Test
+    void journal_that_failed_to_open_should_release_the_directory() throws Exception {
+        Path unreadable = Files.createDirectory(directory.resolve(DecisionAuditReader.segmentName(1)));
+
+        assertThrows(UncheckedIOException.class, () -> open(DataSize.ofMegabytes(1)));
+
+        Files.delete(unreadable);
+        journal = open(DataSize.ofMegabytes(1));
+    }
+
+    @Test
+    void requests_should_fail_while_the_next_segment_cant_be_opened() throws Exception {
+        // a full ring waits long enough for the writer, only the writer failure rejects requests
+        journal = open(DataSize.ofBytes(1), 4, Duration.ofSeconds(5), false);
+        Path blocked = Files.createDirectory(directory.resolve(DecisionAuditReader.segmentName(2)));
+        int accepted = 0;
+        try {
+            for (; accepted < 5000; accepted++) {
+                journal.record("1", request("49002010976", BigDecimal.valueOf(2000), 20), decision(BigDecimal.valueOf(2000)));
+            }
+        } catch (ServiceUnavailableException e) {
+            assertEquals(GlobalConstant.AuditErrors.JOURNAL_UNAVAILABLE, e.getMessage());
+        }
+        assertTrue(accepted < 5000);
+        assertEquals(1, meterRegistry.get(DecisionAuditJournal.RECORDS).tag("result", "rejected").counter().count());
+
+        // the writer opens the segment at its next attempt and the records it kept are written
+        Files.delete(blocked);
+        long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+        while (true) {
+            try {
+                journal.record("1", request("49002010976", BigDecimal.valueOf(2000), 20), decision(BigDecimal.valueOf(2000)));
+                accepted++;
+                break;
+            } catch (ServiceUnavailableException e) {
+                assertTrue(System.nanoTime() < deadline);
+            }
+        }
+        journal.destroy();
+        journal = null;
+
+        assertEquals(2, DecisionAuditReader.segments(directory).size());
+        assertEquals(accepted, DecisionAuditReader.read(directory, null, null, null, Integer.MAX_VALUE).size());
+        assertEquals(0, meterRegistry.get(DecisionAuditJournal.RECORDS).tag("result", "dropped").counter().count());
+    }
+
+    @Test
+    void records_should_be_dropped_when_dropping_is_chosen() throws Exception {
+        journal = open(DataSize.ofBytes(1), 4, Duration.ofMillis(20), true);
+        Files.createDirectory(directory.resolve(DecisionAuditReader.segmentName(2)));
+
+        for (int i = 0; i < 5000; i++) {
+            journal.record("1", request("49002010976", BigDecimal.valueOf(2000), 20), decision(BigDecimal.valueOf(2000)));
+        }
+
+        assertTrue(meterRegistry.get(DecisionAuditJournal.RECORDS).tag("result", "dropped").counter().count() > 0);
+        assertEquals(0, meterRegistry.get(DecisionAuditJournal.RECORDS).tag("result", "rejected").counter().count());
+    }
+
+    @Test
+    void record_that_cant_be_encoded_should_be_replaced_by_an_error_record() throws Exception {
+        journal = open(DataSize.ofMegabytes(1));
+        // a decision without its answer
+        journal.record("1", request("49002010976", BigDecimal.valueOf(2000), 20), LoanDecisionResult.of(null));
+        journal.destroy();
+        journal = null;
+
+        List<DecisionAuditRecordDTO> records = DecisionAuditReader.read(directory, null, null, null, 100);
+        assertEquals(1, records.size());
+        assertEquals("49002010976", records.get(0).getPersonalCode());
+        assertEquals("1", records.get(0).getPolicyVersion());
+        assertTrue(records.get(0).getError().startsWith(GlobalConstant.AuditErrors.RECORD_NOT_ENCODABLE));
+        assertEquals(1, meterRegistry.get(DecisionAuditJournal.RECORDS).tag("result", "replaced").counter().count());
+    }
+
+    @Test
+    void second_journal_should_not_open_a_used_directory() {
+        journal = open(DataSize.ofMegabytes(1));
+
+        assertThrows(IllegalStateException.class, () -> open(DataSize.ofMegabytes(1)));
+    }
+
+    @Test
+    void unusual_values_should_survive_encoding() {
+        ByteBuffer buffer = ByteBuffer.allocate(DecisionAuditCodec.MAXIMUM_RECORD_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        for (BigDecimal amount : List.of(new BigDecimal("2000.50"), new BigDecimal("1E+40"), BigDecimal.valueOf(-128), BigDecimal.valueOf(Long.MIN_VALUE), BigDecimal.ZERO)) {
+            buffer.clear();
+            DecisionAuditCodec.encode(buffer, 1L, "ä", request("49002010976", amount, 20), LoanDecisionResult.error("Laenusumma ületab piiri"));
+            buffer.flip();
+
+            DecisionAuditRecordDTO record = DecisionAuditCodec.decode(buffer);
+            assertEquals(amount, record.getLoanAmount());
+            assertEquals("ä", record.getPolicyVersion());
+            assertEquals("Laenusumma ületab piiri", record.getError());
+            assertFalse(buffer.hasRemaining());
+        }
+    }
+
+    private DecisionAuditJournal open(DataSize segmentSize) {
+        return open(segmentSize, 4096, Duration.ofSeconds(5), false);
+    }
+
+    private DecisionAuditJournal open(DataSize segmentSize, int ringSize, Duration offerTimeout, boolean dropWhenFull) {
+        return new DecisionAuditJournal(true, directory, segmentSize, Duration.ofMillis(10), ringSize, offerTimeout, dropWhenFull, meterRegistry, clock);
+    }
+
+    private static void writeLong(Path path, long position, long value) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.allocate(Long.BYTES).order(ByteOrder.LITTLE_ENDIAN).putLong(0, value), position);
+        }
+    }
+
+    private static int readInt(Path path, long position) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocate(Integer.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            channel.read(buffer, position);
+            return buffer.getInt(0);
+        }
+    }
+
+    private static LoanDecisionRequestDTO request(String personalCode, BigDecimal loanAmount, Integer loanPeriod) {
+        return LoanDecisionRequestDTO.builder().personalCode(personalCode).loanAmount(loanAmount).loanPeriod(loanPeriod).build();
+    }
+
+    private static LoanDecisionResult decision(BigDecimal loanAmount) {
+        return LoanDecisionResult.of(LoanDecisionResponseDTO.builder().decision("Your Loan request has been APPROVED.").loanAmount(loanAmount).policyVersion("1").build());
+    }
+
+    // only moves when the test advances it
+    private static class TestClock extends Clock {
+
+        private volatile Instant instant;
+
+        private TestClock(Instant instant) {
+            this.instant = instant;
+        }
+
+        void advance(Duration duration) {
+            instant = instant.plus(duration);
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
@@ -0,0 +1,166 @@
+package com.inbank.dengine.decision.loan.binary;
+
+import com.inbank.dengine.config.user.AppUserDetails;
+import com.inbank.dengine.config.util.JwtUtil;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.Socket;
+import java.util.List;
+
+import static com.inbank.dengine.util.GlobalConstant.BinaryProtocolErrors.AUTHENTICATION_EXPECTED;
+import static com.inbank.dengine.util.GlobalConstant.BinaryProtocolErrors.INVALID_FRAME;
+import static com.inbank.dengine.util.GlobalConstant.BinaryProtocolErrors.INVALID_TOKEN;
+import static com.inbank.dengine.util.GlobalConstant.LoanDecisionErrors.INVALID_USER_ACCOUNT;
+import static com.inbank.dengine.util.GlobalConstant.LoanDecisionErrors.MORE_THAN_MAXIMUM_PERIOD;
+import static com.inbank.dengine.util.GlobalConstant.LoanDecisionMessages.LOAN_APPROVED;
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {"decision.binary.enabled=true", "decision.binary.port=0", "decision.binary.authentication-timeout=500ms"})
+class BinaryDecisionServerTest {
+
+    @Autowired
+    private BinaryDecisionServer binaryDecisionServer;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    private Socket socket;
+    private DataInputStream input;
+    private DataOutputStream output;
+
+    @BeforeEach
+    void connect() throws IOException {
+        socket = new Socket("localhost", binaryDecisionServer.getPort());
+        socket.setSoTimeout(5000);
+        input = new DataInputStream(socket.getInputStream());
+        output = new DataOutputStream(socket.getOutputStream());
+    }
+
+    @AfterEach
+    void disconnect() throws IOException {
+        socket.close();
+    }
+
+    @Test
+    void pipelined_requests_should_be_answered_in_order() throws IOException {
+        authenticate();
+
+        // every request is sent before the first answer is read
+        decisionRequest(1, "49002010976", BigDecimal.valueOf(2000), 20);
+        decisionRequest(2, "49002010976", BigDecimal.valueOf(2000), 61);
+        decisionRequest(3, "12345", new BigDecimal("2000.00"), 20);
+        decisionRequest(4, "49002010976", BigDecimal.valueOf(3000), 15);
+
+        DataInputStream approved = readFrame(BinaryDecisionProtocol.DECISION);
+        assertEquals(1, approved.readInt());
+        assertEquals(LOAN_APPROVED, approved.readUTF());
+        assertEquals(BigDecimal.valueOf(2000), BinaryDecisionProtocol.readDecimal(approved));
+
+        DataInputStream outOfRange = readFrame(BinaryDecisionProtocol.ERROR);
+        assertEquals(2, outOfRange.readInt());
+        assertEquals(MORE_THAN_MAXIMUM_PERIOD, outOfRange.readUTF());
+
+        DataInputStream unknownAccount = readFrame(BinaryDecisionProtocol.ERROR);
+        assertEquals(3, unknownAccount.readInt());
+        assertEquals(INVALID_USER_ACCOUNT + "12345", unknownAccount.readUTF());
+
+        DataInputStream suggestedPeriod = readFrame(BinaryDecisionProtocol.DECISION);
+        assertEquals(4, suggestedPeriod.readInt());
+        assertTrue(suggestedPeriod.readUTF().endsWith("30"));
+        assertEquals(BigDecimal.valueOf(3000), BinaryDecisionProtocol.readDecimal(suggestedPeriod));
+    }
+
+    @Test
+    void decision_before_authentication_should_close_the_connection() throws IOException {
+        decisionRequest(1, "49002010976", BigDecimal.valueOf(2000), 20);
+
+        assertConnectionError(AUTHENTICATION_EXPECTED);
+    }
+
+    @Test
+    void silent_connection_should_be_closed_after_the_authentication_timeout() throws IOException {
+        assertEquals(-1, input.read());
+    }
+
+    @Test
+    void invalid_token_should_close_the_connection() throws IOException {
+        frame(frame -> {
+            frame.writeByte(BinaryDecisionProtocol.AUTH);
+            frame.writeUTF("not.a.token");
+        });
+
+        assertConnectionError(INVALID_TOKEN);
+    }
+
+    @Test
+    void frame_longer_than_its_fields_should_close_the_connection() throws IOException {
+        authenticate();
+        frame(frame -> {
+            frame.writeByte(BinaryDecisionProtocol.DECISION);
+            frame.writeInt(1);
+            frame.writeUTF("49002010976");
+            BinaryDecisionProtocol.writeDecimal(frame, BigDecimal.valueOf(2000));
+            frame.writeInt(20);
+            frame.writeInt(0);
+        });
+
+        assertConnectionError(INVALID_FRAME + 35);
+    }
+
+    private void authenticate() throws IOException {
+        String token = jwtUtil.generateToken(new AppUserDetails("test-user", "test@123", List.of(new SimpleGrantedAuthority("ROLE_USER"))));
+        frame(frame -> {
+            frame.writeByte(BinaryDecisionProtocol.AUTH);
+            frame.writeUTF(token);
+        });
+        readFrame(BinaryDecisionProtocol.AUTH_OK);
+    }
+
+    private void decisionRequest(int requestId, String personalCode, BigDecimal loanAmount, int loanPeriod) throws IOException {
+        frame(frame -> {
+            frame.writeByte(BinaryDecisionProtocol.DECISION);
+            frame.writeInt(requestId);
+            frame.writeUTF(personalCode);
+            BinaryDecisionProtocol.writeDecimal(frame, loanAmount);
+            frame.writeInt(loanPeriod);
+        });
+    }
+
+    private void assertConnectionError(String message) throws IOException {
+        DataInputStream error = readFrame(BinaryDecisionProtocol.ERROR);
+        assertEquals(BinaryDecisionProtocol.CONNECTION, error.readInt());
+        assertEquals(message, error.readUTF());
+        assertEquals(-1, input.read());
+    }
+
+    private void frame(FrameWriter writer) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        writer.write(new DataOutputStream(bytes));
+        output.writeInt(bytes.size());
+        bytes.writeTo(output);
+        output.flush();
+    }
+
+    private DataInputStream readFrame(byte expectedType) throws IOException {
+        byte[] body = new byte[input.readInt()];
+        input.readFully(body);
+        DataInputStream frame = new DataInputStream(new ByteArrayInputStream(body));
+        assertEquals(expectedType, frame.readByte());
+        return frame;
+    }
+
+    private interface FrameWriter {
+        void write(DataOutputStream frame) throws IOException;
+    }
+}
@@ -0,0 +1,100 @@
+package com.inbank.dengine.decision.loan.cache;
+
+import com.inbank.dengine.account.model.Account;
+import com.inbank.dengine.decision.loan.dto.LoanDecisionCacheStatsDTO;
+import com.inbank.dengine.decision.loan.engine.BigDecimalLoanDecisionEngine;
+import com.inbank.dengine.decision.loan.engine.LoanDecisionEngine;
+import com.inbank.dengine.decision.loan.model.LoanDecision;
+import com.inbank.dengine.exception.exceptionType.ServerException;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+
+class LoanDecisionCacheTest {
+
+    private final LoanDecisionEngine loanDecisionEngine = spy(new BigDecimalLoanDecisionEngine());
+
+    @Test
+    void accounts_with_same_credit_modifier_should_share_cached_decision() {
+        LoanDecisionCache loanDecisionCache = new LoanDecisionCache(true, 100);
+
+        LoanDecision first = loanDecisionCache.getLoanDecision(getAccountObject("49002010976", BigDecimal.valueOf(100), false), BigDecimal.valueOf(3000), 15, loanDecisionEngine);
+        LoanDecision second = loanDecisionCache.getLoanDecision(getAccountObject("49002010977", BigDecimal.valueOf(100), false), BigDecimal.valueOf(3000), 15, loanDecisionEngine);
+
+        assertEquals(first, second);
+        verify(loanDecisionEngine, times(1)).evaluate(any(), any(), any(), anyInt());
+
+        LoanDecisionCacheStatsDTO stats = loanDecisionCache.getStats();
+        assertEquals(1, stats.getHitCount());
+        assertEquals(1, stats.getMissCount());
+        assertEquals(1, stats.getSize());
+    }
+
+    @Test
+    void different_scale_of_same_amount_should_not_share_cached_decision() {
+        LoanDecisionCache loanDecisionCache = new LoanDecisionCache(true, 100);
+        Account account = getAccountObject("49002010976", BigDecimal.valueOf(100), false);
+
+        LoanDecision first = loanDecisionCache.getLoanDecision(account, new BigDecimal("3000"), 15, loanDecisionEngine);
+        LoanDecision second = loanDecisionCache.getLoanDecision(account, new BigDecimal("3000.00"), 15, loanDecisionEngine);
+
+        assertEquals(new BigDecimal("3000"), first.getLoanAmount());
+        assertEquals(new BigDecimal("3000.00"), second.getLoanAmount());
+        assertEquals(0, loanDecisionCache.getStats().getHitCount());
+    }
+
+    @Test
+    void debt_and_invalid_accounts_should_not_be_cached() {
+        LoanDecisionCache loanDecisionCache = new LoanDecisionCache(true, 100);
+
+        loanDecisionCache.getLoanDecision(getAccountObject("49002010965", BigDecimal.valueOf(100), true), BigDecimal.valueOf(3000), 15, loanDecisionEngine);
+        assertThrows(ServerException.class, () -> loanDecisionCache.getLoanDecision(getAccountObject("49002010966", BigDecimal.ZERO, false), BigDecimal.valueOf(3000), 15, loanDecisionEngine));
+        assertThrows(ServerException.class, () -> loanDecisionCache.getLoanDecision(getAccountObject("49002010966", BigDecimal.ZERO, false), BigDecimal.valueOf(3000), 15, loanDecisionEngine));
+
+        assertEquals(0, loanDecisionCache.getStats().getSize());
+        assertEquals(0, loanDecisionCache.getStats().getHitCount());
+    }
+
+    @Test
+    void cache_should_stay_bounded() throws InterruptedException {
+        LoanDecisionCache loanDecisionCache = new LoanDecisionCache(true, 10);
+        Account account = getAccountObject("49002010976", BigDecimal.valueOf(100), false);
+
+        for (int amount = 2000; amount < 3000; amount++) {
+            loanDecisionCache.getLoanDecision(account, BigDecimal.valueOf(amount), 20, loanDecisionEngine);
+        }
+        // eviction is asynchronous in caffeine, give it a moment to catch up, longer on a busy machine
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (System.nanoTime() < deadline && loanDecisionCache.getStats().getSize() > 10) {
+            Thread.sleep(10);
+        }
+        assertTrue(loanDecisionCache.getStats().getSize() <= 10);
+        assertTrue(loanDecisionCache.getStats().getEvictionCount() >= 990);
+    }
+
+    @Test
+    void disabled_cache_should_always_evaluate() {
+        LoanDecisionCache loanDecisionCache = new LoanDecisionCache(false, 100);
+        Account account = getAccountObject("49002010976", BigDecimal.valueOf(100), false);
+
+        loanDecisionCache.getLoanDecision(account, BigDecimal.valueOf(3000), 15, loanDecisionEngine);
+        loanDecisionCache.getLoanDecision(account, BigDecimal.valueOf(3000), 15, loanDecisionEngine);
+
+        verify(loanDecisionEngine, times(2)).evaluate(any(), any(), any(), anyInt());
+        assertFalse(loanDecisionCache.getStats().isEnabled());
+    }
+
+    private Account getAccountObject(String personalCode, BigDecimal creditModifier, Boolean isDebt) {
+        return Account.builder()
+                .creditModifier(creditModifier)
+                .personalCode(personalCode)
+                .isDebt(isDebt)
+                .build();
+    }
+}
@@ -4,28 +4,51 @@ import com.inbank.dengine.config.user.AppUserDetails;
 import lombok.SneakyThrows;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 import org.springframework.web.context.WebApplicationContext;
 
 import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.Instant;
 import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
 
 import static com.inbank.dengine.util.GlobalConstant.LoanDecisionErrors.INVALID_USER_ACCOUNT;
+import static com.inbank.dengine.util.GlobalConstant.LoanDecisionErrors.MALFORMED_BATCH_BODY;
+import static com.inbank.dengine.util.GlobalConstant.LoanDecisionErrors.MORE_THAN_MAXIMUM_PERIOD;
 import static com.inbank.dengine.util.GlobalConstant.LoanDecisionMessages.LOAN_APPROVED;
 import static com.inbank.dengine.util.GlobalConstant.LoanDecisionMessages.LOAN_REJECTED;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @SpringBootTest
 class LoanDecisionControllerTest {
 
+    @TempDir
+    static Path auditDirectory;
+
+    @DynamicPropertySource
+    static void auditJournal(DynamicPropertyRegistry registry) {
+        registry.add("audit.journal.enabled", () -> "true");
+        registry.add("audit.journal.directory", auditDirectory::toString);
+    }
+
     private MockMvc mockMvc;
 
     @Autowired
@@ -34,11 +57,14 @@ class LoanDecisionControllerTest {
     @BeforeEach
     public void init() {
         mockMvc = MockMvcBuilders.webAppContextSetup(webApplicationContext).build();
-        AppUserDetails userDetails = new AppUserDetails("test-user", "test@123", Arrays.asList(new SimpleGrantedAuthority("ROLE_USER")));
+        authenticate("ROLE_USER");
+    }
+
+    private void authenticate(String... roles) {
+        AppUserDetails userDetails = new AppUserDetails("test-user", "test@123", Arrays.stream(roles).<GrantedAuthority>map(SimpleGrantedAuthority::new).collect(Collectors.toList()));
         SecurityContextHolder.setContext( SecurityContextHolder.createEmptyContext());
         UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
         SecurityContextHolder.getContext().setAuthentication(authentication);
-
     }
 
     @SneakyThrows
@@ -89,4 +115,222 @@ class LoanDecisionControllerTest {
                 .andExpect(status().is4xxClientError())
                 .andExpect(MockMvcResultMatchers.jsonPath("$.message").value(INVALID_USER_ACCOUNT + personalCode));
     }
-}
\ No newline at end of file
+
+    @SneakyThrows
+    @Test
+    void successful_batch_loan_request_operation_with_inline_errors() {
+
+        String body = "{\"personalCode\":\"49002010976\",\"loanAmount\":2000,\"loanPeriod\":20}\n"
+                + "{\"personalCode\":\"12345\",\"loanAmount\":2000,\"loanPeriod\":20}\n"
+                + "{\"personalCode\":\"49002010976\",\"loanAmount\":2000,\"loanPeriod\":61}\n"
+                + "{\"personalCode\":\"49002010976\",\"loanPeriod\":20}\n"
+                + "{\"personalCode\":\"49002010999\",\"loanAmount\":7000,\"loanPeriod\":15}\n";
+
+        String result = mockMvc.perform(MockMvcRequestBuilders.post("/api/decisions/loans/batch")
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content(body))
+                .andExpect(status().isOk())
+                .andExpect(MockMvcResultMatchers.content().contentType(MediaType.APPLICATION_NDJSON))
+                .andReturn().getResponse().getContentAsString();
+
+        String[] rows = result.split("\n");
+        assertEquals(5, rows.length);
+        assertEquals("{\"row\":0,\"personalCode\":\"49002010976\",\"decision\":\"" + LOAN_APPROVED + "\",\"loanAmount\":2000}", rows[0]);
+        assertEquals("{\"row\":1,\"personalCode\":\"12345\",\"error\":\"" + INVALID_USER_ACCOUNT + "12345\"}", rows[1]);
+        assertEquals("{\"row\":2,\"personalCode\":\"49002010976\",\"error\":\"" + MORE_THAN_MAXIMUM_PERIOD + "\"}", rows[2]);
+        assertEquals("{\"row\":3,\"personalCode\":\"49002010976\",\"error\":\"Loan Amount  is mandatory for Loan Decision Operation\"}", rows[3]);
+        assertEquals("{\"row\":4,\"personalCode\":\"49002010999\",\"decision\":\"" + LOAN_REJECTED + "\",\"loanAmount\":0}", rows[4]);
+    }
+
+    @SneakyThrows
+    @Test
+    void successful_batch_loan_request_operation_with_json_array() {
+
+        String body = "[{\"personalCode\":\"49002010976\",\"loanAmount\":2000,\"loanPeriod\":20},"
+                + "{\"personalCode\":\"49002010976\",\"loanAmount\":\"abc\",\"loanPeriod\":20},"
+                + "{\"personalCode\":\"49002010999\",\"loanAmount\":7000,\"loanPeriod\":15}]";
+
+        mockMvc.perform(MockMvcRequestBuilders.post("/api/decisions/loans/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andExpect(status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.length()").value(3))
+                .andExpect(MockMvcResultMatchers.jsonPath("$[0].decision").value(LOAN_APPROVED))
+                .andExpect(MockMvcResultMatchers.jsonPath("$[1].error").exists())
+                .andExpect(MockMvcResultMatchers.jsonPath("$[2].decision").value(LOAN_REJECTED));
+    }
+
+    @SneakyThrows
+    @Test
+    void batch_loan_request_stops_at_malformed_row() {
+
+        String body = "{\"personalCode\":\"49002010976\",\"loanAmount\":2000,\"loanPeriod\":20}\n"
+                + "{\"personalCode\":\"49002010976\",\n";
+
+        String result = mockMvc.perform(MockMvcRequestBuilders.post("/api/decisions/loans/batch")
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content(body))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        String[] rows = result.split("\n");
+        assertEquals(2, rows.length);
+        assertTrue(rows[1].startsWith("{\"row\":1,\"error\":\"" + MALFORMED_BATCH_BODY));
+    }
+
+    @SneakyThrows
+    @Test
+    void successful_async_loan_request_operation() {
+
+        MvcResult asyncResult = mockMvc.perform(MockMvcRequestBuilders.get("/api/decisions/loans/async")
+                        .param("personalCode", "49002010976")
+                        .param("loanAmount", "2000")
+                        .param("loanPeriod", "20"))
+                .andExpect(MockMvcResultMatchers.request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(MockMvcRequestBuilders.asyncDispatch(asyncResult))
+                .andExpect(status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.decision").value(LOAN_APPROVED))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.loanAmount").value(2000));
+    }
+
+    @SneakyThrows
+    @Test
+    void exception_for_async_user_account_not_found() {
+
+        MvcResult asyncResult = mockMvc.perform(MockMvcRequestBuilders.get("/api/decisions/loans/async")
+                        .param("personalCode", "12345")
+                        .param("loanAmount", "2000")
+                        .param("loanPeriod", "20"))
+                .andExpect(MockMvcResultMatchers.request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(MockMvcRequestBuilders.asyncDispatch(asyncResult))
+                .andExpect(status().is4xxClientError())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.message").value(INVALID_USER_ACCOUNT + "12345"));
+    }
+
+    @SneakyThrows
+    @Test
+    void exception_for_async_invalid_loan_period_before_lookup() {
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/decisions/loans/async")
+                        .param("personalCode", "49002010976")
+                        .param("loanAmount", "2000")
+                        .param("loanPeriod", "61"))
+                .andExpect(status().is4xxClientError())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.message").value(MORE_THAN_MAXIMUM_PERIOD));
+    }
+
+    @SneakyThrows
+    @Test
+    void invalid_loan_period_should_get_the_error_details_body() {
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/decisions/loans")
+                        .param("personalCode", "49002010976")
+                        .param("loanAmount", "2000")
+                        .param("loanPeriod", "61"))
+                .andExpect(status().isBadRequest())
+                .andExpect(MockMvcResultMatchers.content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.timestamp").isString())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.message").value(MORE_THAN_MAXIMUM_PERIOD))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.details").value("uri=/api/decisions/loans"));
+    }
+
+    @SneakyThrows
+    @Test
+    void successful_loan_offers_operation() {
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/decisions/loans/offers")
+                        .param("personalCode", "49002010976")
+                        .param("loanAmount", "3000"))
+                .andExpect(status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.minimumLoanPeriod").value(30))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.offers.length()").value(49))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.offers[0].loanPeriod").value(12))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.offers[0].maximumLoanAmount").doesNotExist())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.offers[8].maximumLoanAmount").value(2000))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.offers[48].maximumLoanAmount").value(6000));
+    }
+
+    @SneakyThrows
+    @Test
+    void successful_pre_approved_offer_operation() {
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/decisions/loans/pre-approved")
+                        .param("personalCode", "49002010987"))
+                .andExpect(status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.preApproved").value(true))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.loanAmount").value(10000))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.loanPeriod").value(34))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.builtAt").exists());
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/decisions/loans/pre-approved")
+                        .param("personalCode", "49002010965"))
+                .andExpect(status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.preApproved").value(false))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.loanAmount").doesNotExist());
+    }
+
+    @SneakyThrows
+    @Test
+    void pre_approved_rebuild_should_need_the_admin_role() {
+        mockMvc.perform(MockMvcRequestBuilders.post("/api/decisions/loans/pre-approved/rebuild"))
+                .andExpect(status().isForbidden());
+
+        authenticate("ROLE_USER", "ROLE_ADMIN");
+        mockMvc.perform(MockMvcRequestBuilders.post("/api/decisions/loans/pre-approved/rebuild"))
+                .andExpect(status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.builtAt").exists());
+    }
+
+    @SneakyThrows
+    @Test
+    void decision_should_be_readable_from_audit_journal() {
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/decisions/loans/audit"))
+                .andExpect(status().isForbidden());
+        authenticate("ROLE_USER", "ROLE_ADMIN");
+        Instant from = Instant.now();
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/decisions/loans")
+                        .param("personalCode", "49002010998")
+                        .param("loanAmount", "2345")
+                        .param("loanPeriod", "37"))
+                .andExpect(status().isOk());
+
+        // the journal writer appends the record shortly after the response
+        String body = "[]";
+        for (long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5); body.equals("[]") && System.nanoTime() < deadline; ) {
+            Thread.sleep(10);
+            body = mockMvc.perform(MockMvcRequestBuilders.get("/api/decisions/loans/audit")
+                            .param("from", from.toString())
+                            .param("personalCode", "49002010998"))
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsString();
+        }
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/decisions/loans/audit")
+                        .param("from", from.toString())
+                        .param("personalCode", "49002010998"))
+                .andExpect(status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.length()").value(1))
+                .andExpect(MockMvcResultMatchers.jsonPath("$[0].loanAmount").value(2345))
+                .andExpect(MockMvcResultMatchers.jsonPath("$[0].loanPeriod").value(37))
+                .andExpect(MockMvcResultMatchers.jsonPath("$[0].decision").value(LOAN_APPROVED))
+                .andExpect(MockMvcResultMatchers.jsonPath("$[0].policyVersion").value("built-in"));
+    }
+
+    @SneakyThrows
+    @Test
+    void decision_response_should_keep_its_json_contract() {
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/decisions/loans")
+                        .param("personalCode", "49002010976")
+                        .param("loanAmount", "3000")
+                        .param("loanPeriod", "15"))
+                .andExpect(status().isOk())
+                .andExpect(MockMvcResultMatchers.header().exists("Content-Length"))
+                .andExpect(MockMvcResultMatchers.content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(MockMvcResultMatchers.content().string(
+                        "{\"decision\":\"" + LOAN_REJECTED + "Bank suggest new loan period : 30\",\"loanAmount\":3000,\"policyVersion\":\"built-in\"}"));
+    }
+}
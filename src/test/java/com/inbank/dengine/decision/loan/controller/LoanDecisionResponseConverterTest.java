@@ -0,0 +1,65 @@
+package com.inbank.dengine.decision.loan.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.inbank.dengine.decision.loan.dto.LoanDecisionResponseDTO;
+import com.inbank.dengine.decision.loan.model.LoanDecision;
+import com.inbank.dengine.decision.loan.model.LoanDecisionOutcome;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.mock.http.MockHttpOutputMessage;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LoanDecisionResponseConverterTest {
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    private final LoanDecisionResponseConverter converter = new LoanDecisionResponseConverter(objectMapper);
+
+    @Test
+    void every_outcome_should_be_written_as_jackson_writes_it() throws IOException {
+        for (LoanDecisionOutcome outcome : LoanDecisionOutcome.values()) {
+            for (int period : new int[]{0, 12, 60, LoanDecisionOutcome.CACHED_PERIODS - 1, LoanDecisionOutcome.CACHED_PERIODS}) {
+                LoanDecision loanDecision = new LoanDecision(outcome, new BigDecimal("3450.50"), period);
+                assertWrittenAsJackson(loanDecision.toResponseDTO("2024-01"));
+            }
+        }
+    }
+
+    @Test
+    void policy_versions_and_amounts_should_be_written_as_jackson_writes_them() throws IOException {
+        LoanDecision approved = new LoanDecision(LoanDecisionOutcome.APPROVED, BigDecimal.valueOf(2000), 0);
+
+        assertWrittenAsJackson(approved.toResponseDTO(null));
+        assertWrittenAsJackson(approved.toResponseDTO("built-in"));
+        assertWrittenAsJackson(approved.toResponseDTO("quoted \"v2\" \\ é"));
+        assertWrittenAsJackson(approved.toResponseDTO("built-in"));
+        assertWrittenAsJackson(new LoanDecision(LoanDecisionOutcome.REJECTED, null, 0).toResponseDTO("1"));
+        assertWrittenAsJackson(new LoanDecision(LoanDecisionOutcome.APPROVED, new BigDecimal("1E+4"), 0).toResponseDTO("1"));
+    }
+
+    @Test
+    void response_without_outcome_should_be_written_by_jackson() throws IOException {
+        assertWrittenAsJackson(LoanDecisionResponseDTO.builder().decision("custom").loanAmount(BigDecimal.TEN).policyVersion("1").build());
+    }
+
+    @Test
+    void content_length_should_match_the_body() throws IOException {
+        MockHttpOutputMessage outputMessage = new MockHttpOutputMessage();
+        converter.write(new LoanDecision(LoanDecisionOutcome.SUGGESTED_PERIOD, BigDecimal.valueOf(3000), 34).toResponseDTO("1"),
+                MediaType.APPLICATION_JSON, outputMessage);
+
+        assertEquals(outputMessage.getBodyAsBytes().length, outputMessage.getHeaders().getContentLength());
+        assertEquals(MediaType.APPLICATION_JSON, outputMessage.getHeaders().getContentType());
+    }
+
+    private void assertWrittenAsJackson(LoanDecisionResponseDTO response) throws IOException {
+        ByteArrayOutputStream written = new ByteArrayOutputStream();
+        converter.write(response, written);
+        assertEquals(objectMapper.writeValueAsString(response), written.toString(java.nio.charset.StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,47 @@
+package com.inbank.dengine.decision.loan.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.inbank.dengine.decision.loan.model.LoanRequestError;
+import com.inbank.dengine.exception.model.ErrorDetails;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LoanRequestErrorBodiesTest {
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    private final LoanRequestErrorBodies loanRequestErrorBodies = new LoanRequestErrorBodies(objectMapper);
+
+    @Test
+    void every_request_error_should_be_written_as_jackson_writes_error_details() throws Exception {
+        for (LoanRequestError error : LoanRequestError.values()) {
+            assertWrittenAsJackson(loanRequestErrorBodies, objectMapper, error, error.getMessagePrefix() + 60, Instant.parse("2024-01-31T10:15:30.123456789Z"));
+            assertWrittenAsJackson(loanRequestErrorBodies, objectMapper, error, error.getMessagePrefix() + 60, Instant.parse("2024-02-01T00:00:00Z"));
+        }
+    }
+
+    @Test
+    void changed_message_should_be_encoded_again() throws Exception {
+        Instant timestamp = Instant.now();
+
+        assertWrittenAsJackson(loanRequestErrorBodies, objectMapper, LoanRequestError.MORE_THAN_MAXIMUM_PERIOD, "period above 60", timestamp);
+        assertWrittenAsJackson(loanRequestErrorBodies, objectMapper, LoanRequestError.MORE_THAN_MAXIMUM_PERIOD, "period above \"48\" é", timestamp);
+    }
+
+    @Test
+    void numeric_timestamps_should_be_written_as_jackson_writes_them() throws Exception {
+        ObjectMapper numericDates = Jackson2ObjectMapperBuilder.json().featuresToEnable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS).build();
+
+        assertWrittenAsJackson(new LoanRequestErrorBodies(numericDates), numericDates, LoanRequestError.LESS_THAN_MINIMUM_AMOUNT, "amount below 2000", Instant.parse("2024-01-31T10:15:30.5Z"));
+    }
+
+    private static void assertWrittenAsJackson(LoanRequestErrorBodies bodies, ObjectMapper objectMapper, LoanRequestError error, String message, Instant timestamp) throws Exception {
+        byte[] body = bodies.body(error, message, "/api/decisions/loans", timestamp);
+        assertEquals(objectMapper.writeValueAsString(new ErrorDetails(timestamp, message, "uri=/api/decisions/loans")), new String(body, StandardCharsets.UTF_8));
+    }
+}
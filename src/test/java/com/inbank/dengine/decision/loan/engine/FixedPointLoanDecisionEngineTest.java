@@ -0,0 +1,119 @@
+package com.inbank.dengine.decision.loan.engine;
+
+import com.inbank.dengine.account.model.Account;
+import com.inbank.dengine.decision.loan.model.LoanDecision;
+import com.inbank.dengine.decision.loan.policy.LoanPolicy;
+import com.inbank.dengine.exception.exceptionType.ServerException;
+import com.inbank.dengine.util.GlobalConstant;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FixedPointLoanDecisionEngineTest {
+
+    private final BigDecimalLoanDecisionEngine bigDecimalLoanDecisionEngine = new BigDecimalLoanDecisionEngine();
+    private final FixedPointLoanDecisionEngine fixedPointLoanDecisionEngine = new FixedPointLoanDecisionEngine();
+
+    @Test
+    void fixed_point_decision_should_be_identical_to_big_decimal_decision() {
+        List<BigDecimal> creditModifiers = new ArrayList<>();
+        for (int modifier = 1; modifier <= 1100; modifier += modifier < 200 ? 1 : 37) {
+            creditModifiers.add(BigDecimal.valueOf(modifier));
+        }
+        for (String modifier : new String[]{"0.01", "0.5", "12.5", "33.33", "33.3", "100.00", "166.67", "166.66", "250.1", "9999999999999.99"}) {
+            creditModifiers.add(new BigDecimal(modifier));
+        }
+
+        List<BigDecimal> loanAmounts = new ArrayList<>();
+        for (int amount = 2000; amount <= 10000; amount += 53) {
+            loanAmounts.add(BigDecimal.valueOf(amount));
+        }
+        for (String amount : new String[]{"2000", "2000.00", "2000.01", "3333.33", "5000.5", "9999.99", "10000", "10000.0"}) {
+            loanAmounts.add(new BigDecimal(amount));
+        }
+
+        int compared = 0;
+        for (BigDecimal creditModifier : creditModifiers) {
+            Account account = getAccountObject(creditModifier, false);
+            for (BigDecimal loanAmount : loanAmounts) {
+                for (int loanPeriod = GlobalConstant.LoanConstraints.MINIMUM_PERIOD; loanPeriod <= GlobalConstant.LoanConstraints.MAXIMUM_PERIOD; loanPeriod++) {
+                    assertIdentical(account, loanAmount, loanPeriod);
+                    compared++;
+                }
+            }
+        }
+        assertTrue(compared > 500_000);
+    }
+
+    @Test
+    void decisions_of_other_policies_should_be_identical_to_big_decimal_decision() {
+        for (String suggestions : new String[]{"true,true", "true,false", "false,true", "false,false"}) {
+            Properties definition = new Properties();
+            definition.setProperty("version", suggestions);
+            definition.setProperty("amount.minimum", "500.50");
+            definition.setProperty("amount.maximum", "25000");
+            definition.setProperty("period.minimum", "6");
+            definition.setProperty("period.maximum", "84");
+            definition.setProperty("suggest.amount", suggestions.split(",")[0]);
+            definition.setProperty("suggest.period", suggestions.split(",")[1]);
+            LoanPolicy loanPolicy = LoanPolicy.compile(definition);
+
+            for (String creditModifier : new String[]{"1", "5.99", "6", "33.33", "100", "297.62", "300", "4166.67"}) {
+                Account account = getAccountObject(new BigDecimal(creditModifier), false);
+                for (String loanAmount : new String[]{"500.50", "501", "2000", "9999.99", "24999.99", "25000"}) {
+                    for (int loanPeriod = loanPolicy.getMinimumPeriod(); loanPeriod <= loanPolicy.getMaximumPeriod(); loanPeriod++) {
+                        assertIdentical(loanPolicy, account, new BigDecimal(loanAmount), loanPeriod);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void values_outside_of_cents_should_be_identical_to_big_decimal_decision() {
+        assertIdentical(getAccountObject(new BigDecimal("33.333"), false), BigDecimal.valueOf(3000), 30);
+        assertIdentical(getAccountObject(new BigDecimal("1E+2"), false), BigDecimal.valueOf(3000), 30);
+        assertIdentical(getAccountObject(BigDecimal.valueOf(100), false), new BigDecimal("3000.001"), 15);
+        assertIdentical(getAccountObject(new BigDecimal("99999999999999999999"), false), BigDecimal.valueOf(3000), 15);
+    }
+
+    @Test
+    void debt_decision_should_be_identical_to_big_decimal_decision() {
+        assertIdentical(getAccountObject(BigDecimal.valueOf(100), true), BigDecimal.valueOf(3000), 15);
+        assertIdentical(getAccountObject(null, true), BigDecimal.valueOf(3000), 15);
+    }
+
+    @Test
+    void invalid_credit_modifier_should_throw_server_exception() {
+        Account account = getAccountObject(BigDecimal.ZERO, false);
+        assertThrows(ServerException.class, () -> fixedPointLoanDecisionEngine.evaluate(account, BigDecimal.valueOf(3000), 15));
+
+        Account accountWithoutModifier = getAccountObject(null, false);
+        assertThrows(ServerException.class, () -> fixedPointLoanDecisionEngine.evaluate(accountWithoutModifier, BigDecimal.valueOf(3000), 15));
+    }
+
+    private void assertIdentical(Account account, BigDecimal loanAmount, int loanPeriod) {
+        assertIdentical(LoanPolicy.BUILT_IN, account, loanAmount, loanPeriod);
+    }
+
+    private void assertIdentical(LoanPolicy loanPolicy, Account account, BigDecimal loanAmount, int loanPeriod) {
+        LoanDecision expected = bigDecimalLoanDecisionEngine.evaluate(loanPolicy, account, loanAmount, loanPeriod);
+        LoanDecision actual = fixedPointLoanDecisionEngine.evaluate(loanPolicy, account, loanAmount, loanPeriod);
+        // BigDecimal equals also compares the scale, so the serialized amounts are the same too
+        assertEquals(expected, actual, () -> account.getCreditModifier() + " " + loanAmount + " " + loanPeriod);
+        assertEquals(expected.toResponseDTO(), actual.toResponseDTO());
+    }
+
+    private Account getAccountObject(BigDecimal creditModifier, Boolean isDebt) {
+        return Account.builder()
+                .creditModifier(creditModifier)
+                .personalCode("12345")
+                .isDebt(isDebt)
+                .build();
+    }
+}
@@ -0,0 +1,37 @@
+package com.inbank.dengine.decision.loan.engine;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.context.properties.bind.BindException;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LoanDecisionEngineConfigTest {
+
+    private final ApplicationContextRunner contextRunner = new ApplicationContextRunner()
+            .withUserConfiguration(LoanDecisionEngineConfig.class);
+
+    @Test
+    void big_decimal_engine_should_be_the_default() {
+        contextRunner.run(context -> assertInstanceOf(BigDecimalLoanDecisionEngine.class, context.getBean(LoanDecisionEngine.class)));
+    }
+
+    @Test
+    void engine_should_be_chosen_by_property() {
+        contextRunner.withPropertyValues("decision.engine=fixed-point")
+                .run(context -> assertInstanceOf(FixedPointLoanDecisionEngine.class, context.getBean(LoanDecisionEngine.class)));
+    }
+
+    @Test
+    void unknown_engine_should_stop_the_startup() {
+        contextRunner.withPropertyValues("decision.engine=double")
+                .run(context -> {
+                    Throwable failure = context.getStartupFailure();
+                    while (failure != null && !(failure instanceof BindException)) {
+                        failure = failure.getCause();
+                    }
+                    assertNotNull(failure);
+                    assertEquals("decision.engine", ((BindException) failure).getProperty().getName().toString());
+                });
+    }
+}
@@ -0,0 +1,89 @@
+package com.inbank.dengine.decision.loan.policy;
+
+import com.inbank.dengine.decision.loan.model.LoanRequestError;
+import com.inbank.dengine.exception.exceptionType.ServerException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+
+import static com.inbank.dengine.util.GlobalConstant.LoanDecisionErrors.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class LoanPolicyHolderTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void missing_file_should_give_built_in_policy() {
+        LoanPolicyHolder loanPolicyHolder = new LoanPolicyHolder(directory.resolve("loan-policy.properties"));
+
+        assertSame(LoanPolicy.BUILT_IN, loanPolicyHolder.get());
+        assertEquals(LESS_THAN_MINIMUM_AMOUNT, LoanPolicy.BUILT_IN.getMessage(LoanRequestError.LESS_THAN_MINIMUM_AMOUNT));
+        assertEquals(HIGHER_THAN_MAXIMUM_AMOUNT, LoanPolicy.BUILT_IN.getMessage(LoanRequestError.HIGHER_THAN_MAXIMUM_AMOUNT));
+        assertEquals(LESS_THAN_MINIMUM_PERIOD, LoanPolicy.BUILT_IN.getMessage(LoanRequestError.LESS_THAN_MINIMUM_PERIOD));
+        assertEquals(MORE_THAN_MAXIMUM_PERIOD, LoanPolicy.BUILT_IN.getMessage(LoanRequestError.MORE_THAN_MAXIMUM_PERIOD));
+    }
+
+    @Test
+    void changed_file_should_replace_policy() throws IOException {
+        Path path = write(directory.resolve("loan-policy.properties"), "version=1\namount.maximum=15000\n", 1);
+        LoanPolicyHolder loanPolicyHolder = new LoanPolicyHolder(path);
+        LoanPolicy first = loanPolicyHolder.get();
+
+        loanPolicyHolder.reloadIfChanged();
+        assertSame(first, loanPolicyHolder.get());
+
+        write(path, "version=2\nperiod.maximum=48\n", 2);
+        loanPolicyHolder.reloadIfChanged();
+        LoanPolicy second = loanPolicyHolder.get();
+
+        assertEquals("1", first.getVersion());
+        assertEquals(new BigDecimal("15000"), first.getMaximumSum());
+        assertEquals(60, first.getMaximumPeriod());
+        assertEquals(AMOUNT_HIGHER_THAN + "15000", first.getMessage(LoanRequestError.HIGHER_THAN_MAXIMUM_AMOUNT));
+        assertEquals("2", second.getVersion());
+        assertEquals(new BigDecimal("10000"), second.getMaximumSum());
+        assertEquals(48, second.getMaximumPeriod());
+        assertEquals(LoanRequestError.MORE_THAN_MAXIMUM_PERIOD, second.getLoanRequestError(BigDecimal.valueOf(5000), 49));
+    }
+
+    @Test
+    void invalid_file_should_keep_previous_policy() throws IOException {
+        Path path = write(directory.resolve("loan-policy.properties"), "version=1\n", 1);
+        LoanPolicyHolder loanPolicyHolder = new LoanPolicyHolder(path);
+        LoanPolicy first = loanPolicyHolder.get();
+
+        for (String definition : new String[]{"amount.minimum=3000\n", "version=2\namount.minimum=20000\n", "version=2\nperiod.maximim=48\n",
+                "version=2\namount.maximum=100.001\n", "version=2\nperiod.maximum=200\n", "version=2\nsuggest.amount=yes\n", "version=2\nperiod.minimum=twelve\n"}) {
+            write(path, definition, 2);
+            assertThrows(ServerException.class, loanPolicyHolder::reload, definition);
+            loanPolicyHolder.reloadIfChanged();
+            assertSame(first, loanPolicyHolder.get());
+        }
+    }
+
+    @Test
+    void removed_file_should_give_built_in_policy() throws IOException {
+        Path path = write(directory.resolve("loan-policy.properties"), "version=1\n", 1);
+        LoanPolicyHolder loanPolicyHolder = new LoanPolicyHolder(path);
+
+        Files.delete(path);
+        loanPolicyHolder.reloadIfChanged();
+
+        assertSame(LoanPolicy.BUILT_IN, loanPolicyHolder.get());
+    }
+
+    // an explicit modification time, two writes within the file system clock resolution would look unchanged
+    private static Path write(Path path, String content, long second) throws IOException {
+        Files.writeString(path, content);
+        Files.setLastModifiedTime(path, FileTime.from(Instant.ofEpochSecond(1_700_000_000L + second)));
+        return path;
+    }
+}
@@ -2,24 +2,52 @@ package com.inbank.dengine.decision.loan.service;
 
 import com.inbank.dengine.account.model.Account;
 import com.inbank.dengine.account.service.AccountService;
+import com.inbank.dengine.decision.loan.audit.DecisionAuditJournal;
+import com.inbank.dengine.decision.loan.cache.LoanDecisionCache;
+import com.inbank.dengine.decision.loan.cache.LoanDecisionSingleFlight;
 import com.inbank.dengine.decision.loan.dto.LoanDecisionRequestDTO;
 import com.inbank.dengine.decision.loan.dto.LoanDecisionResponseDTO;
+import com.inbank.dengine.decision.loan.engine.BigDecimalLoanDecisionEngine;
+import com.inbank.dengine.decision.loan.metrics.LoanDecisionMetrics;
+import com.inbank.dengine.decision.loan.model.LoanDecisionResult;
+import com.inbank.dengine.decision.loan.model.LoanRequestError;
+import com.inbank.dengine.decision.loan.policy.LoanPolicy;
+import com.inbank.dengine.decision.loan.policy.LoanPolicyHolder;
 import com.inbank.dengine.exception.exceptionType.BadClientException;
+import com.inbank.dengine.exception.exceptionType.ServerException;
+import com.inbank.dengine.exception.exceptionType.ServiceUnavailableException;
 import com.inbank.dengine.util.GlobalConstant;
+import com.inbank.dengine.util.SingleFlight;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import lombok.SneakyThrows;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.util.unit.DataSize;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.nio.file.Path;
+import java.time.Duration;
 import java.util.Optional;
+import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 import static com.inbank.dengine.util.GlobalConstant.LoanDecisionErrors.*;
 import static com.inbank.dengine.util.GlobalConstant.LoanDecisionMessages.*;
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 @SpringBootTest
@@ -28,6 +56,28 @@ class LoanDecisionServiceTest {
     @Mock
     private AccountService accountService;
 
+    @Spy
+    private BigDecimalLoanDecisionEngine loanDecisionEngine;
+
+    @Spy
+    private LoanDecisionCache loanDecisionCache = new LoanDecisionCache(true, 100);
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Spy
+    private LoanDecisionMetrics loanDecisionMetrics = new LoanDecisionMetrics(meterRegistry, 1);
+
+    // no policy file, the built-in policy
+    @Spy
+    private LoanPolicyHolder loanPolicyHolder = new LoanPolicyHolder(Path.of("missing-loan-policy.properties"));
+
+    @Spy
+    private LoanDecisionSingleFlight loanDecisionSingleFlight = new LoanDecisionSingleFlight(true, meterRegistry);
+
+    // not enabled, nothing is written
+    @Spy
+    private DecisionAuditJournal decisionAuditJournal = new DecisionAuditJournal(false, Path.of("audit"), DataSize.ofMegabytes(1), Duration.ofMillis(100), 2, Duration.ofMillis(100), false, meterRegistry);
+
     @InjectMocks
     private LoanDecisionService loanDecisionService;
 
@@ -265,6 +315,131 @@ class LoanDecisionServiceTest {
 
     }
 
+    @Test
+    void out_of_range_loan_request_should_return_error_result_without_account_lookup() {
+        LoanDecisionRequestDTO loanDecisionRequestDTO = getLoanDecisionRequestDTOObject("12345", BigDecimal.valueOf(1999), 20);
+
+        LoanDecisionResult loanDecisionResult = loanDecisionService.getLoanDecisionResult(loanDecisionRequestDTO);
+
+        assertTrue(loanDecisionResult.isError());
+        assertNull(loanDecisionResult.getResponse());
+        assertEquals(LESS_THAN_MINIMUM_AMOUNT, loanDecisionResult.getError());
+        assertSame(LoanPolicy.BUILT_IN.getResult(LoanRequestError.LESS_THAN_MINIMUM_AMOUNT), loanDecisionResult);
+        verifyNoInteractions(accountService);
+    }
+
+    @Test
+    void missing_account_should_return_error_result() {
+        when(accountService.getAccountByPersonalCode("12345")).thenReturn(Optional.empty());
+        LoanDecisionRequestDTO loanDecisionRequestDTO = getLoanDecisionRequestDTOObject("12345", BigDecimal.valueOf(2000), 20);
+
+        LoanDecisionResult loanDecisionResult = loanDecisionService.getLoanDecisionResult(loanDecisionRequestDTO);
+
+        assertEquals(INVALID_USER_ACCOUNT + "12345", loanDecisionResult.getError());
+    }
+
+    @Test
+    void decision_outcomes_and_rejected_requests_should_be_counted() {
+        Account account = getAccountObject("12345", BigDecimal.valueOf(100), false);
+        when(accountService.getAccountByPersonalCode("12345")).thenReturn(Optional.of(account));
+
+        loanDecisionService.getLoanDecisionResult(getLoanDecisionRequestDTOObject("12345", BigDecimal.valueOf(2000), 20));
+        loanDecisionService.getLoanDecisionResult(getLoanDecisionRequestDTOObject("12345", BigDecimal.valueOf(4000), 30));
+        loanDecisionService.getLoanDecisionResult(getLoanDecisionRequestDTOObject("12345", BigDecimal.valueOf(2000), 61));
+
+        assertEquals(1, meterRegistry.get(LoanDecisionMetrics.OUTCOME).tag("outcome", "approved").counter().count());
+        assertEquals(1, meterRegistry.get(LoanDecisionMetrics.OUTCOME).tag("outcome", "suggested_amount").counter().count());
+        assertEquals(1, meterRegistry.get(LoanDecisionMetrics.REJECTED_REQUEST).tag("error", "more_than_maximum_period").counter().count());
+        assertEquals(2, meterRegistry.get(LoanDecisionMetrics.ACCOUNT_LOOKUP).timer().count());
+        assertEquals(2, meterRegistry.get(LoanDecisionMetrics.COMPUTATION).timer().count());
+        assertTrue(meterRegistry.get(LoanDecisionMetrics.FIRST_DECISION_COMPUTED).timeGauge().value() > 0);
+    }
+
+    @Test
+    void decision_should_be_made_with_current_policy_and_carry_its_version() {
+        Account account = getAccountObject("12345", BigDecimal.valueOf(100), false);
+        when(accountService.getAccountByPersonalCode("12345")).thenReturn(Optional.of(account));
+        LoanDecisionRequestDTO loanDecisionRequestDTO = getLoanDecisionRequestDTOObject("12345", BigDecimal.valueOf(3000), 20);
+
+        LoanDecisionResponseDTO builtInDecision = loanDecisionService.getLoanDecision(loanDecisionRequestDTO);
+
+        Properties definition = new Properties();
+        definition.setProperty("version", "no-amount-suggestions");
+        definition.setProperty("suggest.amount", "false");
+        doReturn(LoanPolicy.compile(definition)).when(loanPolicyHolder).get();
+
+        LoanDecisionResponseDTO policyDecision = loanDecisionService.getLoanDecision(loanDecisionRequestDTO);
+
+        assertEquals(LoanPolicy.BUILT_IN_VERSION, builtInDecision.getPolicyVersion());
+        assertEquals(LOAN_REJECTED + SUGGESTED_AMOUNT, builtInDecision.getDecision());
+        // same cache key apart from the policy, the decision of the built-in policy is not reused
+        assertEquals("no-amount-suggestions", policyDecision.getPolicyVersion());
+        assertEquals(LOAN_REJECTED + SUGGESTED_PERIOD + 30, policyDecision.getDecision());
+    }
+
+    @Test
+    void identical_requests_in_flight_should_share_one_lookup_and_decision() {
+        CompletableFuture<Optional<Account>> lookup = new CompletableFuture<>();
+        when(accountService.getAccountByPersonalCodeAsync("12345")).thenReturn(lookup);
+
+        CompletableFuture<LoanDecisionResponseDTO> first = loanDecisionService.getLoanDecisionAsync(getLoanDecisionRequestDTOObject("12345", BigDecimal.valueOf(2000), 20));
+        CompletableFuture<LoanDecisionResponseDTO> second = loanDecisionService.getLoanDecisionAsync(getLoanDecisionRequestDTOObject("12345", BigDecimal.valueOf(2000), 20));
+        CompletableFuture<LoanDecisionResponseDTO> otherAmount = loanDecisionService.getLoanDecisionAsync(getLoanDecisionRequestDTOObject("12345", BigDecimal.valueOf(3000), 20));
+        lookup.complete(Optional.of(getAccountObject("12345", BigDecimal.valueOf(100), false)));
+
+        assertSame(first.join(), second.join());
+        assertEquals(LOAN_APPROVED, first.join().getDecision());
+        assertEquals(LOAN_REJECTED + SUGGESTED_AMOUNT, otherAmount.join().getDecision());
+        verify(accountService, times(2)).getAccountByPersonalCodeAsync("12345");
+        assertEquals(1, meterRegistry.get(SingleFlight.CALLS).tag("name", "decision").tag("result", "collapsed").counter().count());
+        assertEquals(2, meterRegistry.get(SingleFlight.CALLS).tag("name", "decision").tag("result", "executed").counter().count());
+
+        // nothing is kept once the decision is made
+        loanDecisionService.getLoanDecisionAsync(getLoanDecisionRequestDTOObject("12345", BigDecimal.valueOf(2000), 20)).join();
+        verify(accountService, times(3)).getAccountByPersonalCodeAsync("12345");
+    }
+
+    @Test
+    void every_answered_request_should_be_audited() {
+        when(accountService.getAccountByPersonalCode("12345")).thenReturn(Optional.of(getAccountObject("12345", BigDecimal.valueOf(100), false)));
+        LoanDecisionRequestDTO decided = getLoanDecisionRequestDTOObject("12345", BigDecimal.valueOf(2000), 20);
+        LoanDecisionRequestDTO outOfRange = getLoanDecisionRequestDTOObject("12345", BigDecimal.valueOf(2000), 61);
+
+        LoanDecisionResult decidedResult = loanDecisionService.getLoanDecisionResult(decided);
+        LoanDecisionResult outOfRangeResult = loanDecisionService.getLoanDecisionResult(outOfRange);
+        assertThrows(BadClientException.class, () -> loanDecisionService.getLoanDecisionAsync(outOfRange));
+
+        verify(decisionAuditJournal).record(LoanPolicy.BUILT_IN_VERSION, decided, decidedResult);
+        verify(decisionAuditJournal, times(2)).record(LoanPolicy.BUILT_IN_VERSION, outOfRange, outOfRangeResult);
+    }
+
+    @Test
+    void failed_requests_should_be_audited() {
+        String unavailable = GlobalConstant.CreditBureauErrors.UNAVAILABLE;
+        when(accountService.getAccountByPersonalCode("12345")).thenThrow(new ServerException(unavailable));
+        when(accountService.getAccountByPersonalCodeAsync("12345")).thenReturn(CompletableFuture.failedFuture(new ServerException(unavailable)));
+        LoanDecisionRequestDTO request = getLoanDecisionRequestDTOObject("12345", BigDecimal.valueOf(2000), 20);
+
+        assertThrows(ServerException.class, () -> loanDecisionService.getLoanDecisionResult(request));
+        CompletableFuture<LoanDecisionResponseDTO> asyncDecision = loanDecisionService.getLoanDecisionAsync(request);
+        assertInstanceOf(ServerException.class, assertThrows(CompletionException.class, asyncDecision::join).getCause());
+
+        verify(decisionAuditJournal, times(2)).record(eq(LoanPolicy.BUILT_IN_VERSION), eq(request), argThat(result -> unavailable.equals(result.getError())));
+    }
+
+    @Test
+    void decision_should_not_be_served_when_it_cant_be_audited() {
+        Account account = getAccountObject("12345", BigDecimal.valueOf(100), false);
+        when(accountService.getAccountByPersonalCode("12345")).thenReturn(Optional.of(account));
+        when(accountService.getAccountByPersonalCodeAsync("12345")).thenReturn(CompletableFuture.completedFuture(Optional.of(account)));
+        doThrow(new ServiceUnavailableException(GlobalConstant.AuditErrors.JOURNAL_UNAVAILABLE)).when(decisionAuditJournal).record(any(), any(), any());
+        LoanDecisionRequestDTO request = getLoanDecisionRequestDTOObject("12345", BigDecimal.valueOf(2000), 20);
+
+        assertThrows(ServiceUnavailableException.class, () -> loanDecisionService.getLoanDecision(request));
+        CompletableFuture<LoanDecisionResponseDTO> asyncDecision = loanDecisionService.getLoanDecisionAsync(request);
+        assertInstanceOf(ServiceUnavailableException.class, assertThrows(CompletionException.class, asyncDecision::join).getCause());
+    }
+
     private LoanDecisionRequestDTO getLoanDecisionRequestDTOObject(String personalCode, BigDecimal loanAmount, Integer loanPeriod) {
         return LoanDecisionRequestDTO.builder()
                 .loanAmount(loanAmount)
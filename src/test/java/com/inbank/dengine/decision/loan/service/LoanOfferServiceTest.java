@@ -0,0 +1,111 @@
+package com.inbank.dengine.decision.loan.service;
+
+import com.inbank.dengine.account.model.Account;
+import com.inbank.dengine.account.service.AccountService;
+import com.inbank.dengine.decision.loan.dto.LoanOfferDTO;
+import com.inbank.dengine.decision.loan.dto.LoanOfferMatrixDTO;
+import com.inbank.dengine.decision.loan.dto.LoanOfferRequestDTO;
+import com.inbank.dengine.decision.loan.engine.BigDecimalLoanDecisionEngine;
+import com.inbank.dengine.decision.loan.model.LoanDecision;
+import com.inbank.dengine.decision.loan.model.LoanDecisionOutcome;
+import com.inbank.dengine.decision.loan.policy.LoanPolicyHolder;
+import com.inbank.dengine.exception.exceptionType.BadClientException;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.util.Optional;
+
+import static com.inbank.dengine.util.GlobalConstant.LoanConstraints.MAXIMUM_PERIOD;
+import static com.inbank.dengine.util.GlobalConstant.LoanConstraints.MAXIMUM_SUM;
+import static com.inbank.dengine.util.GlobalConstant.LoanConstraints.MINIMUM_PERIOD;
+import static com.inbank.dengine.util.GlobalConstant.LoanDecisionErrors.HIGHER_THAN_MAXIMUM_AMOUNT;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+@SpringBootTest
+class LoanOfferServiceTest {
+
+    @Mock
+    private AccountService accountService;
+
+    // no policy file, the built-in policy
+    @Spy
+    private LoanPolicyHolder loanPolicyHolder = new LoanPolicyHolder(Path.of("missing-loan-policy.properties"));
+
+    @InjectMocks
+    private LoanOfferService loanOfferService;
+
+    private final BigDecimalLoanDecisionEngine loanDecisionEngine = new BigDecimalLoanDecisionEngine();
+
+    @Test
+    void every_offer_should_be_the_largest_approved_amount_of_its_period() {
+        for (String creditModifier : new String[]{"30", "33.33", "100", "166.67", "300", "1000"}) {
+            Account account = account(new BigDecimal(creditModifier), false);
+            LoanOfferMatrixDTO loanOfferMatrix = loanOfferService.getLoanOffers(LoanOfferRequestDTO.builder().personalCode("12345").build());
+
+            assertEquals(MAXIMUM_PERIOD - MINIMUM_PERIOD + 1, loanOfferMatrix.getOffers().size());
+            for (LoanOfferDTO offer : loanOfferMatrix.getOffers()) {
+                BigDecimal maximumLoanAmount = offer.getMaximumLoanAmount();
+                if (maximumLoanAmount == null) {
+                    LoanDecision loanDecision = loanDecisionEngine.evaluate(account, BigDecimal.valueOf(2000), offer.getLoanPeriod());
+                    assertNotEquals(LoanDecisionOutcome.APPROVED, loanDecision.getOutcome());
+                    continue;
+                }
+                LoanDecision loanDecision = loanDecisionEngine.evaluate(account, maximumLoanAmount, offer.getLoanPeriod());
+                assertEquals(LoanDecisionOutcome.APPROVED, loanDecision.getOutcome());
+                assertEquals(maximumLoanAmount, loanDecision.getLoanAmount());
+                if (maximumLoanAmount.compareTo(MAXIMUM_SUM) < 0) {
+                    LoanDecision higherLoanDecision = loanDecisionEngine.evaluate(account, maximumLoanAmount.add(new BigDecimal("0.01")), offer.getLoanPeriod());
+                    assertNotEquals(LoanDecisionOutcome.APPROVED, higherLoanDecision.getOutcome());
+                }
+            }
+        }
+    }
+
+    @Test
+    void minimum_loan_period_should_be_first_approved_period() {
+        account(BigDecimal.valueOf(100), false);
+
+        assertEquals(30, loanOfferService.getLoanOffers(request(BigDecimal.valueOf(3000))).getMinimumLoanPeriod());
+        assertEquals(31, loanOfferService.getLoanOffers(request(BigDecimal.valueOf(3001))).getMinimumLoanPeriod());
+        assertNull(loanOfferService.getLoanOffers(request(BigDecimal.valueOf(6001))).getMinimumLoanPeriod());
+
+        // 2000 / 300 is less than the minimum period
+        account(BigDecimal.valueOf(300), false);
+        assertEquals(MINIMUM_PERIOD, loanOfferService.getLoanOffers(request(BigDecimal.valueOf(2000))).getMinimumLoanPeriod());
+    }
+
+    @Test
+    void debt_and_small_modifier_should_have_no_offers() {
+        account(BigDecimal.valueOf(100), true);
+        LoanOfferMatrixDTO debtOffers = loanOfferService.getLoanOffers(request(null));
+        assertEquals(LoanDecision.REJECTED_DEBT.getDecision(), debtOffers.getDecision());
+        assertTrue(debtOffers.getOffers().stream().allMatch(offer -> offer.getMaximumLoanAmount() == null));
+
+        account(BigDecimal.valueOf(30), false);
+        LoanOfferMatrixDTO noOffers = loanOfferService.getLoanOffers(request(null));
+        assertEquals(LoanDecision.REJECTED.getDecision(), noOffers.getDecision());
+        assertTrue(noOffers.getOffers().stream().allMatch(offer -> offer.getMaximumLoanAmount() == null));
+    }
+
+    @Test
+    void loan_amount_higher_than_maximum_should_throw_exception() {
+        Exception exception = assertThrows(BadClientException.class, () -> loanOfferService.getLoanOffers(request(BigDecimal.valueOf(10001))));
+        assertEquals(HIGHER_THAN_MAXIMUM_AMOUNT, exception.getMessage());
+    }
+
+    private LoanOfferRequestDTO request(BigDecimal loanAmount) {
+        return LoanOfferRequestDTO.builder().personalCode("12345").loanAmount(loanAmount).build();
+    }
+
+    private Account account(BigDecimal creditModifier, boolean isDebt) {
+        Account account = Account.builder().personalCode("12345").creditModifier(creditModifier).isDebt(isDebt).build();
+        when(accountService.getAccountByPersonalCode("12345")).thenReturn(Optional.of(account));
+        return account;
+    }
+}
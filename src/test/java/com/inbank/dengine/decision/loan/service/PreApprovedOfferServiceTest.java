@@ -0,0 +1,148 @@
+package com.inbank.dengine.decision.loan.service;
+
+import com.inbank.dengine.account.model.Account;
+import com.inbank.dengine.account.service.AccountService;
+import com.inbank.dengine.account.store.AccountScan;
+import com.inbank.dengine.account.store.AccountStore;
+import com.inbank.dengine.account.store.CompactAccountIndex;
+import com.inbank.dengine.decision.loan.dto.PreApprovedOfferDTO;
+import com.inbank.dengine.decision.loan.dto.PreApprovedOfferReportDTO;
+import com.inbank.dengine.decision.loan.engine.BigDecimalLoanDecisionEngine;
+import com.inbank.dengine.decision.loan.model.LoanDecisionOutcome;
+import com.inbank.dengine.decision.loan.policy.LoanPolicyHolder;
+import com.inbank.dengine.exception.exceptionType.ServerException;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static com.inbank.dengine.util.GlobalConstant.LoanConstraints.MAXIMUM_PERIOD;
+import static com.inbank.dengine.util.GlobalConstant.LoanConstraints.MAXIMUM_SUM;
+import static com.inbank.dengine.util.GlobalConstant.LoanConstraints.MINIMUM_PERIOD;
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class PreApprovedOfferServiceTest {
+
+    private static final List<String> CREDIT_MODIFIERS = List.of("30", "33.34", "33.333", "100", "166.67", "0.5", "300", "1000", "0");
+
+    private final BigDecimalLoanDecisionEngine loanDecisionEngine = new BigDecimalLoanDecisionEngine();
+
+    // no policy file, the built-in policy
+    private final LoanPolicyHolder loanPolicyHolder = new LoanPolicyHolder(Path.of("missing-loan-policy.properties"));
+
+    @Test
+    void every_offer_should_be_the_largest_approved_amount_with_its_shortest_period() {
+        CompactAccountIndex.Builder builder = CompactAccountIndex.builder(CREDIT_MODIFIERS.size() * 2);
+        for (int i = 0; i < CREDIT_MODIFIERS.size(); i++) {
+            BigDecimal creditModifier = new BigDecimal(CREDIT_MODIFIERS.get(i));
+            builder.add(Account.builder().personalCode(personalCode(i)).isDebt(false).creditModifier(creditModifier).build());
+            builder.add(Account.builder().personalCode(personalCode(i + 100)).isDebt(true).creditModifier(creditModifier).build());
+        }
+        // partitions of 3 positions, so the accounts are spread over many of them
+        PreApprovedOfferService preApprovedOfferService = new PreApprovedOfferService(accountService(builder.build()), loanPolicyHolder, 3, false);
+
+        PreApprovedOfferReportDTO report = preApprovedOfferService.rebuild();
+
+        assertEquals(CREDIT_MODIFIERS.size() * 2, report.getAccounts());
+        assertEquals(5, report.getOffers());
+        assertTrue(report.getPartitions() > 1);
+        for (int i = 0; i < CREDIT_MODIFIERS.size(); i++) {
+            Account account = Account.builder().personalCode(personalCode(i)).isDebt(false).creditModifier(new BigDecimal(CREDIT_MODIFIERS.get(i))).build();
+            PreApprovedOfferDTO preApprovedOffer = preApprovedOfferService.getPreApprovedOffer(personalCode(i));
+            assertFalse(preApprovedOfferService.getPreApprovedOffer(personalCode(i + 100)).isPreApproved());
+            assertEquals(report.getBuiltAt(), preApprovedOffer.getBuiltAt());
+
+            boolean anyApproval = account.getCreditModifier().signum() > 0
+                    && loanDecisionEngine.evaluate(account, BigDecimal.valueOf(2000), MAXIMUM_PERIOD).getOutcome() == LoanDecisionOutcome.APPROVED;
+            assertEquals(anyApproval, preApprovedOffer.isPreApproved(), account.getCreditModifier().toString());
+            if (!anyApproval) {
+                continue;
+            }
+
+            BigDecimal loanAmount = preApprovedOffer.getLoanAmount();
+            int loanPeriod = preApprovedOffer.getLoanPeriod();
+            assertEquals(LoanDecisionOutcome.APPROVED, loanDecisionEngine.evaluate(account, loanAmount, loanPeriod).getOutcome());
+            if (loanPeriod > MINIMUM_PERIOD) {
+                assertNotEquals(LoanDecisionOutcome.APPROVED, loanDecisionEngine.evaluate(account, loanAmount, loanPeriod - 1).getOutcome());
+            }
+            if (loanAmount.compareTo(MAXIMUM_SUM) < 0) {
+                assertNotEquals(LoanDecisionOutcome.APPROVED, loanDecisionEngine.evaluate(account, loanAmount.add(new BigDecimal("0.01")), MAXIMUM_PERIOD).getOutcome());
+            }
+        }
+        assertEquals(0, new BigDecimal("10000").compareTo(preApprovedOfferService.getPreApprovedOffer(personalCode(7)).getLoanAmount()));
+        assertEquals(MINIMUM_PERIOD, preApprovedOfferService.getPreApprovedOffer(personalCode(7)).getLoanPeriod());
+        assertEquals(new BigDecimal("2000.40"), preApprovedOfferService.getPreApprovedOffer(personalCode(1)).getLoanAmount());
+    }
+
+    @Test
+    void offers_should_be_empty_before_the_first_rebuild() {
+        PreApprovedOfferService preApprovedOfferService = new PreApprovedOfferService(accountService(CompactAccountIndex.builder(0).build()), loanPolicyHolder, 3, false);
+
+        PreApprovedOfferDTO preApprovedOffer = preApprovedOfferService.getPreApprovedOffer("49002010976");
+
+        assertFalse(preApprovedOffer.isPreApproved());
+        assertNull(preApprovedOffer.getBuiltAt());
+        assertFalse(preApprovedOfferService.getPreApprovedOffer("not a code").isPreApproved());
+    }
+
+    @Test
+    void rebuild_should_fail_when_store_cant_be_scanned() {
+        AccountStore accountStore = personalCode -> Optional.empty();
+        PreApprovedOfferService preApprovedOfferService = new PreApprovedOfferService(new AccountService(accountStore, Duration.ZERO), loanPolicyHolder, 3, false);
+
+        assertThrows(ServerException.class, preApprovedOfferService::rebuild);
+    }
+
+    @Test
+    void offers_should_be_rebuilt_once_the_accounts_are_replaced() {
+        AtomicReference<CompactAccountIndex> accounts = new AtomicReference<>(CompactAccountIndex.builder(0).build());
+        PreApprovedOfferService preApprovedOfferService = new PreApprovedOfferService(accountService(accounts), loanPolicyHolder, 3, false);
+        preApprovedOfferService.rebuildIfStale();
+        assertNull(preApprovedOfferService.getPreApprovedOffer(personalCode(1)).getBuiltAt());
+
+        preApprovedOfferService.rebuild();
+        assertFalse(preApprovedOfferService.isStale());
+
+        CompactAccountIndex.Builder builder = CompactAccountIndex.builder(1);
+        builder.add(Account.builder().personalCode(personalCode(1)).isDebt(false).creditModifier(new BigDecimal("100")).build());
+        accounts.set(builder.build());
+        PreApprovedOfferDTO staleOffer = preApprovedOfferService.getPreApprovedOffer(personalCode(1));
+        assertTrue(staleOffer.isStale());
+        assertFalse(staleOffer.isPreApproved());
+
+        preApprovedOfferService.rebuildIfStale();
+
+        PreApprovedOfferDTO preApprovedOffer = preApprovedOfferService.getPreApprovedOffer(personalCode(1));
+        assertFalse(preApprovedOffer.isStale());
+        assertTrue(preApprovedOffer.isPreApproved());
+    }
+
+    private static AccountService accountService(CompactAccountIndex index) {
+        return accountService(new AtomicReference<>(index));
+    }
+
+    // the index is read on every scan, like the in memory store after an import
+    private static AccountService accountService(AtomicReference<CompactAccountIndex> index) {
+        return new AccountService(new AccountStore() {
+            @Override
+            public Optional<Account> findByPersonalCode(String personalCode) {
+                return Optional.empty();
+            }
+
+            @Override
+            public Optional<AccountScan> scan() {
+                return Optional.of(index.get());
+            }
+        }, Duration.ZERO);
+    }
+
+    private static String personalCode(int i) {
+        return String.format("5%010d", i);
+    }
+}
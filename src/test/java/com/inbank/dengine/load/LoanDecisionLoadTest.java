@@ -0,0 +1,130 @@
+package com.inbank.dengine.load;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.inbank.dengine.config.model.AuthenticationRequest;
+import com.inbank.dengine.config.model.AuthenticationResponse;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/*
+ * end to end load through tomcat, JwtFilter and jackson. excluded from the normal build, run with
+ * ./mvnw -Pload test -Dload.rate=500 -Dload.duration-seconds=30
+ * other settings : load.warmup-seconds, load.path (e.g. /api/decisions/loans/async), load.mix, load.users, load.report,
+ * and any application property, e.g. -Daccount.store.simulated-latency=20ms
+ */
+@Tag("load")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class LoanDecisionLoadTest {
+
+    // request query and expected status by scenario name
+    private static final Map<String, String> SCENARIOS = new LinkedHashMap<>();
+    private static final Map<String, Integer> EXPECTED_STATUS = new LinkedHashMap<>();
+
+    static {
+        scenario("approved", "personalCode=49002010976&loanAmount=2000&loanPeriod=20", 200);
+        scenario("debt", "personalCode=49002010965&loanAmount=7000&loanPeriod=15", 200);
+        scenario("suggested-amount", "personalCode=49002010976&loanAmount=4000&loanPeriod=30", 200);
+        scenario("suggested-period", "personalCode=49002010976&loanAmount=3000&loanPeriod=15", 200);
+        scenario("rejected", "personalCode=49002010999&loanAmount=7000&loanPeriod=15", 200);
+        scenario("invalid", "personalCode=49002010976&loanAmount=3000&loanPeriod=61", 400);
+        scenario("not-found", "personalCode=12345&loanAmount=3000&loanPeriod=20", 400);
+    }
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void decision_flow_under_open_loop_load() throws Exception {
+        int rate = Integer.getInteger("load.rate", 200);
+        Duration duration = Duration.ofSeconds(Integer.getInteger("load.duration-seconds", 20));
+        Duration warmup = Duration.ofSeconds(Integer.getInteger("load.warmup-seconds", 5));
+        String path = System.getProperty("load.path", "/api/decisions/loans");
+        String mix = System.getProperty("load.mix", "approved:40,suggested-amount:15,suggested-period:10,debt:10,rejected:10,invalid:10,not-found:5");
+        String users = System.getProperty("load.users", "inbank:inbank@123,test-user:test@123");
+        Path reportPath = Path.of(System.getProperty("load.report", "target/load-report.json"));
+
+        HttpClient httpClient = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        OpenLoopLoadGenerator generator = new OpenLoopLoadGenerator(httpClient, sequence(path, mix), authenticate(httpClient, users));
+
+        generator.run(rate, warmup);
+        Map<String, Object> result = generator.run(rate, duration);
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("path", path);
+        report.put("rate", rate);
+        report.put("durationSeconds", duration.toSeconds());
+        report.put("mix", mix);
+        report.putAll(result);
+        Files.createDirectories(reportPath.toAbsolutePath().getParent());
+        objectMapper.writerWithDefaultPrettyPrinter().writeValue(reportPath.toFile(), report);
+
+        assertEquals(0, result.get("timedOut"), "requests without a response at the end of the run, see " + reportPath);
+        assertEquals(0L, result.get("failed"), "unexpected responses, see " + reportPath);
+    }
+
+    // one token per user, requests take turns on them
+    private List<String> authenticate(HttpClient httpClient, String users) throws Exception {
+        List<String> tokens = new ArrayList<>();
+        for (String user : users.split(",")) {
+            String[] credentials = user.split(":", 2);
+            HttpRequest request = HttpRequest.newBuilder(uri("/api/authenticate"))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(new AuthenticationRequest(credentials[0], credentials[1]))))
+                    .build();
+            HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+            assertEquals(200, response.statusCode(), "authentication of " + credentials[0] + " failed");
+            tokens.add(objectMapper.readValue(response.body(), AuthenticationResponse.class).getJwtToken());
+        }
+        return tokens;
+    }
+
+    // the weighted mix in a fixed shuffled order, so two runs send the same requests
+    private List<OpenLoopLoadGenerator.Scenario> sequence(String path, String mix) {
+        List<OpenLoopLoadGenerator.Scenario> sequence = new ArrayList<>();
+        for (String entry : mix.split(",")) {
+            String[] weight = entry.split(":");
+            String name = weight[0].trim();
+            if (!SCENARIOS.containsKey(name)) {
+                throw new IllegalArgumentException("Unknown scenario " + name + ", known : " + SCENARIOS.keySet());
+            }
+            OpenLoopLoadGenerator.Scenario scenario = new OpenLoopLoadGenerator.Scenario(name,
+                    HttpRequest.newBuilder(uri(path + "?" + SCENARIOS.get(name))).GET(), EXPECTED_STATUS.get(name));
+            for (int i = 0; i < Integer.parseInt(weight[1].trim()); i++) {
+                sequence.add(scenario);
+            }
+        }
+        Collections.shuffle(sequence, new Random(42));
+        return sequence;
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://localhost:" + port + path);
+    }
+
+    private static void scenario(String name, String query, int expectedStatus) {
+        SCENARIOS.put(name, query);
+        EXPECTED_STATUS.put(name, expectedStatus);
+    }
+}
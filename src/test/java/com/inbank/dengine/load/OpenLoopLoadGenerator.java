@@ -0,0 +1,146 @@
+package com.inbank.dengine.load;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/*
+ * sends requests on a fixed schedule whatever the response times are (open loop), like independent clients would.
+ * latency is measured from the time a request was scheduled, not from when it was actually sent, so a stalled
+ * server is charged for every request that should have gone out meanwhile (coordinated omission correction).
+ */
+class OpenLoopLoadGenerator {
+
+    private static final long HIGHEST_TRACKABLE_NANOS = TimeUnit.MINUTES.toNanos(10);
+
+    private final HttpClient httpClient;
+    private final List<Scenario> sequence;
+    private final List<String> tokens;
+
+    OpenLoopLoadGenerator(HttpClient httpClient, List<Scenario> sequence, List<String> tokens) {
+        this.httpClient = httpClient;
+        this.sequence = sequence;
+        this.tokens = tokens;
+    }
+
+    Map<String, Object> run(int ratePerSecond, Duration duration) throws InterruptedException {
+        long intervalNanos = TimeUnit.SECONDS.toNanos(1) / ratePerSecond;
+        int requests = (int) (duration.toNanos() / intervalNanos);
+
+        // sorted by name, so reports of two builds diff line by line
+        Map<String, Result> results = new TreeMap<>();
+        sequence.forEach(scenario -> results.computeIfAbsent(scenario.name(), name -> new Result()));
+        Result total = new Result();
+        CountDownLatch completed = new CountDownLatch(requests);
+        // a request is recorded once, by its response or as a failure when the run times out
+        AtomicIntegerArray recorded = new AtomicIntegerArray(requests);
+
+        long start = System.nanoTime();
+        for (int i = 0; i < requests; i++) {
+            int index = i;
+            long intended = start + i * intervalNanos;
+            long wait;
+            while ((wait = intended - System.nanoTime()) > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            Scenario scenario = sequence.get(i % sequence.size());
+            Result result = results.get(scenario.name());
+            HttpRequest request = scenario.request(tokens.get(i % tokens.size()));
+            httpClient.sendAsync(request, HttpResponse.BodyHandlers.discarding()).whenComplete((response, error) -> {
+                if (!recorded.compareAndSet(index, 0, 1)) {
+                    return;
+                }
+                long latency = Math.min(System.nanoTime() - intended, HIGHEST_TRACKABLE_NANOS);
+                boolean failed = error != null || response.statusCode() != scenario.expectedStatus();
+                result.record(latency, failed);
+                total.record(latency, failed);
+                completed.countDown();
+            });
+        }
+        long sent = System.nanoTime();
+        boolean allCompleted = completed.await(duration.toSeconds() + 60, TimeUnit.SECONDS);
+        long finished = System.nanoTime();
+        int timedOut = 0;
+        if (!allCompleted) {
+            // requests still in flight are failures, charged the time they have waited so far
+            for (int i = 0; i < requests; i++) {
+                if (recorded.compareAndSet(i, 0, 1)) {
+                    long latency = Math.min(finished - (start + i * intervalNanos), HIGHEST_TRACKABLE_NANOS);
+                    results.get(sequence.get(i % sequence.size()).name()).record(latency, true);
+                    total.record(latency, true);
+                    timedOut++;
+                }
+            }
+        }
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("sent", requests);
+        report.put("timedOut", timedOut);
+        report.put("sendSeconds", round((sent - start) / 1e9));
+        report.put("throughputPerSecond", round(total.count.get() / ((finished - start) / 1e9)));
+        report.putAll(total.toReport());
+        Map<String, Object> scenarios = new LinkedHashMap<>();
+        results.forEach((name, result) -> scenarios.put(name, result.toReport()));
+        report.put("scenarios", scenarios);
+        return report;
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 1000) / 1000.0;
+    }
+
+    record Scenario(String name, HttpRequest.Builder requestBuilder, int expectedStatus) {
+
+        HttpRequest request(String token) {
+            return requestBuilder.copy().header("Authorization", "Bearer " + token).build();
+        }
+    }
+
+    private static class Result {
+
+        private final Recorder recorder = new Recorder(HIGHEST_TRACKABLE_NANOS, 3);
+        private final AtomicLong count = new AtomicLong();
+        private final AtomicLong failed = new AtomicLong();
+
+        void record(long latencyNanos, boolean failed) {
+            recorder.recordValue(latencyNanos);
+            count.incrementAndGet();
+            if (failed) {
+                this.failed.incrementAndGet();
+            }
+        }
+
+        Map<String, Object> toReport() {
+            Histogram histogram = recorder.getIntervalHistogram();
+            Map<String, Object> latency = new LinkedHashMap<>();
+            latency.put("p50", millis(histogram.getValueAtPercentile(50)));
+            latency.put("p90", millis(histogram.getValueAtPercentile(90)));
+            latency.put("p99", millis(histogram.getValueAtPercentile(99)));
+            latency.put("p99.9", millis(histogram.getValueAtPercentile(99.9)));
+            latency.put("max", millis(histogram.getMaxValue()));
+
+            Map<String, Object> report = new LinkedHashMap<>();
+            report.put("completed", count.get());
+            report.put("failed", failed.get());
+            report.put("latencyMillis", latency);
+            return report;
+        }
+
+        private static double millis(long nanos) {
+            return round(nanos / 1e6);
+        }
+    }
+}
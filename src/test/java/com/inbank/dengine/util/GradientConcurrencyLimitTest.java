@@ -0,0 +1,46 @@
+package com.inbank.dengine.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GradientConcurrencyLimitTest {
+
+    private static final long FAST = TimeUnit.MILLISECONDS.toNanos(5);
+    private static final long SLOW = TimeUnit.MILLISECONDS.toNanos(50);
+
+    private final GradientConcurrencyLimit limit = new GradientConcurrencyLimit(20, 4, 200, 0.2, 1.5, 10, 30);
+
+    @Test
+    void limit_should_grow_while_latency_is_steady() {
+        record(FAST, 50, limit.getLimit());
+
+        assertTrue(limit.getLimit() > 20, "limit " + limit.getLimit());
+    }
+
+    @Test
+    void limit_should_shrink_when_latency_rises() {
+        record(FAST, 20, limit.getLimit());
+        int steady = limit.getLimit();
+
+        record(SLOW, 20, limit.getLimit());
+
+        assertTrue(limit.getLimit() < steady, "limit " + limit.getLimit() + " steady " + steady);
+        assertTrue(limit.getLimit() >= 4);
+    }
+
+    @Test
+    void limit_should_not_grow_when_it_is_not_used() {
+        record(FAST, 50, 1);
+
+        assertEquals(20, limit.getLimit());
+    }
+
+    private void record(long rttNanos, int windows, int inFlight) {
+        for (int i = 0; i < windows * 10; i++) {
+            limit.record(rttNanos, inFlight);
+        }
+    }
+}
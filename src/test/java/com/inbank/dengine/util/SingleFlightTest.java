@@ -0,0 +1,113 @@
+package com.inbank.dengine.util;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SingleFlightTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final SingleFlight<String, String> singleFlight = new SingleFlight<>("test", true, meterRegistry);
+
+    @Test
+    void concurrent_calls_should_wait_for_the_call_in_flight() throws Exception {
+        int callers = 8;
+        AtomicInteger calls = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(callers);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < callers; i++) {
+                results.add(executor.submit(() -> singleFlight.call("49002010976", () -> {
+                    calls.incrementAndGet();
+                    await(release);
+                    return "decision";
+                })));
+            }
+            // every caller but the running one is waiting once the collapsed count is reached
+            while (collapsed() < callers - 1) {
+                Thread.onSpinWait();
+            }
+            release.countDown();
+            for (Future<String> result : results) {
+                assertEquals("decision", result.get(5, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(1, calls.get());
+        assertEquals(callers - 1, collapsed());
+    }
+
+    @Test
+    void exception_should_reach_every_waiter_and_not_be_kept() {
+        CompletableFuture<String> lookup = new CompletableFuture<>();
+        CompletableFuture<String> first = singleFlight.callAsync("49002010976", () -> lookup);
+        CompletableFuture<String> second = singleFlight.callAsync("49002010976", () -> CompletableFuture.completedFuture("other"));
+        lookup.completeExceptionally(new IllegalStateException("backend down"));
+
+        assertInstanceOf(IllegalStateException.class, assertThrows(Exception.class, first::join).getCause());
+        assertInstanceOf(IllegalStateException.class, assertThrows(Exception.class, second::join).getCause());
+        assertEquals("other", singleFlight.callAsync("49002010976", () -> CompletableFuture.completedFuture("other")).join());
+    }
+
+    @Test
+    void checked_exception_should_not_keep_the_key_in_flight() {
+        assertThrows(IOException.class, () -> singleFlight.call("49002010976", () -> sneakyThrow(new IOException("backend down"))));
+        CompletableFuture<String> failed = singleFlight.callAsync("49002010976", () -> sneakyThrow(new IOException("backend down")));
+        assertInstanceOf(IOException.class, assertThrows(Exception.class, failed::join).getCause());
+
+        assertTimeoutPreemptively(Duration.ofSeconds(5), () -> {
+            assertEquals("decision", singleFlight.call("49002010976", () -> "decision"));
+            assertEquals("decision", singleFlight.callAsync("49002010976", () -> CompletableFuture.completedFuture("decision")).join());
+        });
+    }
+
+    @Test
+    void different_keys_should_not_be_collapsed() {
+        CompletableFuture<String> lookup = new CompletableFuture<>();
+        singleFlight.callAsync("49002010976", () -> lookup);
+
+        assertEquals("other", singleFlight.callAsync("49002010987", () -> CompletableFuture.completedFuture("other")).join());
+        assertEquals(0, collapsed());
+    }
+
+    @Test
+    void disabled_single_flight_should_run_every_call() {
+        SingleFlight<String, String> disabled = new SingleFlight<>("disabled", false, meterRegistry);
+        CompletableFuture<String> lookup = new CompletableFuture<>();
+        disabled.callAsync("49002010976", () -> lookup);
+
+        assertEquals("other", disabled.callAsync("49002010976", () -> CompletableFuture.completedFuture("other")).join());
+    }
+
+    private double collapsed() {
+        return meterRegistry.get(SingleFlight.CALLS).tag("name", "test").tag("result", "collapsed").counter().count();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T, E extends Throwable> T sneakyThrow(Throwable e) throws E {
+        throw (E) e;
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}